@@ -0,0 +1,69 @@
+package com.example.trip_service.config;
+
+import com.example.trip_service.service.JpaBlockingExecutor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+@Slf4j
+public class BlockingExecutionConfig {
+
+    // spring.threads.virtual.enabled=true 이면 Tomcat(MVC)과 함께 블로킹 JPA 구간도 가상 스레드에서 실행
+    @Bean(name = "jpaScheduler", destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public Scheduler virtualThreadJpaScheduler() {
+        log.info("🧵 블로킹 JPA 구간 실행 모드: virtual-thread");
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jpa-virtual");
+    }
+
+    // 공용 boundedElastic 스케줄러는 다른 곳에서도 쓰므로 컨텍스트 종료 시 dispose 하지 않음
+    @Bean(name = "jpaScheduler", destroyMethod = "")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    public Scheduler boundedElasticJpaScheduler() {
+        log.info("🧵 블로킹 JPA 구간 실행 모드: bounded-elastic");
+        return Schedulers.boundedElastic();
+    }
+
+    // 가상 스레드 모드에서는 요청마다 스레드가 생겨 커넥션 대기가 길게 쌓일 수 있으므로 대기 시간을 짧게 끊음
+    // 플랫폼 스레드 모드는 Hikari 기본값(30s) 그대로
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public static BeanPostProcessor virtualThreadConnectionTimeout(
+            @Value("${trip.execution.jpa.virtual-connection-timeout:3s}") Duration connectionTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public JpaBlockingExecutor jpaBlockingExecutor(
+            Scheduler jpaScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${trip.execution.jpa.reserved-connections:2}") int reservedConnections,
+            @Value("${trip.execution.jpa.max-concurrency:0}") int maxConcurrency) {
+
+        // 명시값이 없으면 커넥션 풀 크기에서 MVC/Outbox용 여유분을 뺀 만큼만 동시에 DB 접근
+        int limit = maxConcurrency > 0 ? maxConcurrency : Math.max(1, poolSize - reservedConnections);
+        log.info("🧵 블로킹 JPA 동시성 한도: {} (pool: {}, reserved: {})", limit, poolSize, reservedConnections);
+
+        return new JpaBlockingExecutor(jpaScheduler, limit, meterRegistry);
+    }
+}
@@ -1,28 +1,50 @@
 package com.example.trip_service.config;
 
+import com.example.trip_service.kafka.TripEventDltConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.messaging.converter.MessageConversionException;
-import org.springframework.util.backoff.FixedBackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    private static final int DEFAULT_DLT_CONCURRENCY = 3;
+    private static final Duration DLT_PARTITION_LOOKUP_TIMEOUT = Duration.ofSeconds(5);
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
     @Bean
@@ -82,29 +104,83 @@ public class KafkaConsumerConfig {
     }
 
     // =========================================================
-    // 2. [DLT용] 에러 발생 시 -> 로그만 찍고 끝냄
+    // 2. [DLT용] 배치 리스너. DB 장애 시 -> 버리지 않고 백오프하며 계속 재시도 (문제 행은 리스너가 건너뜀)
     // =========================================================
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> dltKafkaListenerContainerFactory(
-            ConsumerFactory<String, Object> consumerFactory) {
-
-        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory);
-        factory.setConcurrency(1);
-
+    public ConcurrentKafkaListenerContainerFactory<String, String> dltKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory,
+            KafkaAdmin kafkaAdmin,
+            @Value("${trip.failed-event.dlt.concurrency:0}") int concurrency,
+            @Value("${trip.failed-event.dlt.max-concurrency:8}") int maxConcurrency,
+            @Value("${trip.failed-event.dlt.max-poll-records:500}") int maxPollRecords,
+            @Value("${trip.failed-event.dlt.retry-initial-interval:1s}") Duration retryInitialInterval,
+            @Value("${trip.failed-event.dlt.retry-max-interval:30s}") Duration retryMaxInterval) {
+
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        // DLT 는 원본 메시지를 JSON 역직렬화 없이 문자열 그대로 저장 (재발행 시 그대로 다시 보냄)
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        // DLT 는 원본과 같은 파티션 번호로 발행되므로 원본 토픽 파티션 수만큼 (그 이상은 유휴 컨슈머)
+        factory.setConcurrency(concurrency > 0 ? concurrency : resolveDltConcurrency(kafkaAdmin, maxConcurrency));
+
+        // 문제 행은 리스너가 건너뛰므로 여기까지 오는 건 DB 장애(커넥션 실패/일시 오류) -> 버리지 않고 DB 가 돌아올 때까지 백오프하며 재시도
+        ExponentialBackOff dbRecoveryBackOff = new ExponentialBackOff(retryInitialInterval.toMillis(), 2.0);
+        dbRecoveryBackOff.setMaxInterval(retryMaxInterval.toMillis());
+        // 백오프에 종료 시간이 없으므로 recoverer 는 재시도 대상이 아닌 예외(역직렬화/변환 오류 등)에만 호출됨
         DefaultErrorHandler dltErrorHandler = new DefaultErrorHandler(
                 (record, exception) -> {
-                    log.error("🚨 [DLT 처리 실패] DB 저장 불가. 로그만 남기고 오프셋을 넘깁니다. Payload: {}", record.value());
+                    log.error("🚨 [DLT 처리 실패] 재시도할 수 없는 오류. 로그만 남기고 오프셋을 넘깁니다. Payload: {}, Error: {}",
+                            record.value(), exception.getMessage());
                 },
-                new FixedBackOff(0L, 0L)
+                dbRecoveryBackOff
         );
 
         dltErrorHandler.setAckAfterHandle(true);
 
         factory.setCommonErrorHandler(dltErrorHandler);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         factory.getContainerProperties().setObservationEnabled(true);
 
         return factory;
     }
-}
\ No newline at end of file
+
+    // DLT 토픽 중 가장 많은 파티션 수 (기본 RangeAssignor 는 토픽별로 파티션을 나누므로 그보다 많은 컨슈머는 유휴)
+    // 기동 시 한 번만 조회하므로 파티션을 늘리면 재시작해야 반영됨
+    // 브로커에 연결하지 못하거나 토픽이 아직 없으면(첫 DLT 발행 때 생성) 기본값으로 시작
+    int resolveDltConcurrency(KafkaAdmin kafkaAdmin, int maxConcurrency) {
+        int timeoutMs = (int) DLT_PARTITION_LOOKUP_TIMEOUT.toMillis();
+        Map<String, Object> props = new HashMap<>(kafkaAdmin.getConfigurationProperties());
+        // 브로커가 없을 때 기동이 기본 API 타임아웃(60s)만큼 멈추지 않도록 클라이언트 타임아웃도 함께 줄임
+        props.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, timeoutMs);
+        props.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, timeoutMs);
+
+        int partitions = 0;
+        try (AdminClient admin = AdminClient.create(props)) {
+            DescribeTopicsResult result = admin.describeTopics(TripEventDltConsumer.TOPICS,
+                    new DescribeTopicsOptions().timeoutMs(timeoutMs));
+            for (Map.Entry<String, KafkaFuture<TopicDescription>> entry : result.topicNameValues().entrySet()) {
+                try {
+                    partitions = Math.max(partitions, entry.getValue().get().partitions().size());
+                } catch (ExecutionException e) {
+                    log.warn("DLT 토픽({}) 파티션 수 조회 실패: {}", entry.getKey(), e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (KafkaException e) {
+            log.warn("DLT 토픽 파티션 수 조회 실패: {}", e.getMessage());
+        }
+
+        if (partitions == 0) {
+            log.warn("⚠️ DLT 토픽 파티션 수를 확인하지 못해 DLT 컨슈머 {}개로 시작합니다.", DEFAULT_DLT_CONCURRENCY);
+            return DEFAULT_DLT_CONCURRENCY;
+        }
+        int concurrency = Math.min(partitions, Math.max(1, maxConcurrency));
+        log.info("DLT 컨슈머 {}개로 시작합니다. (최대 파티션 수: {}, 상한: {})", concurrency, partitions, maxConcurrency);
+        return concurrency;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.trip_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// LazyConnectionDataSourceProxy의 읽기 전용 대상. readOnly 트랜잭션이 실제 커넥션을 요청할 때
+// 복제본 지연이 허용 범위면 복제본, 아니거나 복제본 커넥션 획득에 실패하면 primary 커넥션을 반환
+@Slf4j
+public class LagAwareReplicaDataSource extends DelegatingDataSource {
+
+    private final DataSource primaryDataSource;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final Counter routedToReplica;
+    private final Counter fallbackLag;
+    private final Counter fallbackError;
+
+    public LagAwareReplicaDataSource(DataSource replicaDataSource,
+                                     DataSource primaryDataSource,
+                                     ReplicaLagMonitor lagMonitor,
+                                     MeterRegistry meterRegistry) {
+        super(replicaDataSource);
+        this.primaryDataSource = primaryDataSource;
+        this.lagMonitor = lagMonitor;
+
+        this.routedToReplica = routeCounter(meterRegistry, "replica", "ok");
+        this.fallbackLag = routeCounter(meterRegistry, "primary", "lag");
+        this.fallbackError = routeCounter(meterRegistry, "primary", "replica_error");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!lagMonitor.isUsable()) {
+            fallbackLag.increment();
+            return primaryDataSource.getConnection();
+        }
+        try {
+            Connection connection = obtainTargetDataSource().getConnection();
+            routedToReplica.increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("복제본 커넥션 획득 실패. primary로 읽습니다. Error: {}", e.getMessage());
+            fallbackError.increment();
+            return primaryDataSource.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("trip.datasource.read.route")
+                      .description("읽기 전용 트랜잭션 커넥션의 라우팅 대상")
+                      .tag("target", target)
+                      .tag("reason", reason)
+                      .register(meterRegistry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.trip_service.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+// 배차 컨슈머 경로 전용 R2DBC 커넥션 풀 (MVC 엔드포인트는 계속 JPA 사용)
+// JPA(DataSource/트랜잭션 매니저)와 충돌하지 않도록 R2DBC 자동 설정은 끄고(application.yml) 여기서만 생성
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "trip.persistence.match-store", havingValue = "r2dbc")
+public class R2dbcMatchStoreConfig {
+
+    private ConnectionPool connectionPool;
+
+    // ConnectionFactory 타입 빈이 있으면 DataSource 자동 설정이 꺼지므로, 풀은 빈으로 노출하지 않고 DatabaseClient만 등록
+    @Bean
+    public DatabaseClient tripDatabaseClient(
+            @Value("${trip.r2dbc.url}") String url,
+            @Value("${trip.r2dbc.username:}") String username,
+            @Value("${trip.r2dbc.password:}") String password,
+            @Value("${trip.r2dbc.pool.initial-size:10}") int initialSize,
+            @Value("${trip.r2dbc.pool.max-size:32}") int maxSize,
+            @Value("${trip.r2dbc.pool.max-idle-time:30m}") Duration maxIdleTime) {
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url)
+                                                                   .mutate()
+                                                                   .option(ConnectionFactoryOptions.USER, username)
+                                                                   .option(ConnectionFactoryOptions.PASSWORD, password)
+                                                                   .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                                                                            .name("trip-match-r2dbc")
+                                                                            .initialSize(initialSize)
+                                                                            .maxSize(maxSize)
+                                                                            .maxIdleTime(maxIdleTime)
+                                                                            .build());
+
+        log.info("🔌 배차 컨슈머 R2DBC 저장소 사용 (pool: {}~{})", initialSize, maxSize);
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (connectionPool != null && !connectionPool.isDisposed()) {
+            connectionPool.dispose();
+        }
+    }
+}
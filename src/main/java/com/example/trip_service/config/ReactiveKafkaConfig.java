@@ -1,13 +1,17 @@
 package com.example.trip_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.MicrometerConsumerListener;
 import reactor.kafka.receiver.ReceiverOptions;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,7 +20,12 @@ import java.util.Map;
 public class ReactiveKafkaConfig {
 
     @Bean
-    public ReceiverOptions<String, String> tripMatchedReceiverOptions(KafkaProperties kafkaProperties) {
+    public ReceiverOptions<String, String> tripMatchedReceiverOptions(
+            KafkaProperties kafkaProperties,
+            MeterRegistry meterRegistry,
+            @Value("${trip.matched.consumer.commit-interval:1s}") Duration commitInterval,
+            @Value("${trip.matched.consumer.commit-batch-size:500}") int commitBatchSize,
+            @Value("${trip.matched.consumer.max-deferred-commits:2000}") int maxDeferredCommits) {
         // 1. application.yml의 모든 설정(Deserializer 등)을 가져옵니다.
         Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties());
 
@@ -28,7 +37,14 @@ public class ReactiveKafkaConfig {
         // 3. 리액티브용 별도 컨슈머 그룹 ID 설정 (기존 그룹과 겹치지 않게)
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "trip-service-reactive-group");
 
+        // 4. 오프셋은 건별로 커밋하지 않고 주기/개수 단위로 묶어서 커밋
+        //    maxDeferredCommits > 0 이면 파티션별로 "앞 오프셋이 모두 ack 된 연속 구간"까지만 커밋 (순서 무관 병렬 처리 시 유실 방지)
+        // 5. MicrometerConsumerListener: 컨슈머 클라이언트 메트릭(파티션별 records-lag 포함)을 Micrometer로 노출
         return ReceiverOptions.<String, String>create(props)
+                              .commitInterval(commitInterval)
+                              .commitBatchSize(commitBatchSize)
+                              .maxDeferredCommits(maxDeferredCommits)
+                              .consumerListener(new MicrometerConsumerListener(meterRegistry))
                               .subscription(Collections.singleton("matching_events"));
     }
 
@@ -0,0 +1,89 @@
+package com.example.trip_service.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// 복제본 지연을 주기적으로 측정하여 읽기 라우팅 가능 여부를 판단
+// lag-query 결과에 Seconds_Behind_Source 컬럼이 있으면(SHOW REPLICA STATUS) 그 값을, 없으면 첫 컬럼을 지연(초)으로 사용
+// 결과가 없거나 NULL(복제 중단)이거나 조회 실패면 사용 불가로 보고 primary로 읽음
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource replicaDataSource;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    private volatile boolean usable = false;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaDataSource = replicaDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toSeconds();
+
+        Gauge.builder("trip.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+             .description("마지막으로 측정한 복제본 지연(초). 측정 실패 시 NaN")
+             .baseUnit("seconds")
+             .register(meterRegistry);
+        Gauge.builder("trip.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+             .description("읽기 전용 트랜잭션을 복제본으로 보내는지 여부 (1: 복제본, 0: primary 대체)")
+             .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${trip.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        Long lag = measureLag();
+        boolean nowUsable = lag != null && lag <= maxLagSeconds;
+
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("✅ 복제본 읽기 재개. 지연: {}s", lag);
+            } else {
+                log.warn("🚨 복제본 지연 초과/측정 실패. 읽기를 primary로 전환합니다. 지연: {}s (허용: {}s)", lag, maxLagSeconds);
+            }
+        }
+        lagSeconds = lag == null ? Double.NaN : lag;
+        usable = nowUsable;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    private Long measureLag() {
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+
+            if (!rs.next()) {
+                return null;
+            }
+            Object value = rs.getObject(lagColumnIndex(rs.getMetaData()));
+            return value instanceof Number number ? number.longValue() : null;
+        } catch (SQLException e) {
+            log.warn("복제본 지연 측정 실패. Error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static int lagColumnIndex(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.trip_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// 읽기/쓰기 DataSource 분리 (trip.datasource.replica.enabled=true 일 때만, 기본은 단일 DataSource 자동 설정 그대로)
+// 트랜잭션이 readOnly 일 때만 복제본, 그 외는 primary
+// - readOnly 기본값은 SimpleJpaRepository 에서 상속한 메서드(findById, findAll 등)에만 있음
+//   TripRepository 에 선언한 조회 메서드는 @Transactional(readOnly = true)를 직접 붙여야 복제본으로 감
+// - 복제본: 이용/운행 내역(TripHistoryService.getHistory), 관리자 대량 추출(TripExportService.export),
+//   진행 중 기사 조회의 DB 폴백(findDriverIdsByDriverIdInAndStatus -> isDriverOnTrip, 일괄 조회)
+// - primary: getTripDetails 캐시 미스와 읽기 모델 재구성(복제 지연된 행을 읽기 모델에 다시 채우지 않도록),
+//   진행 중 기사 재동기화, 쓰기 트랜잭션 안의 모든 조회
+// LazyConnectionDataSourceProxy가 첫 SQL 실행 시점에 커넥션을 가져오므로 트랜잭션의 readOnly 여부가 정해진 뒤 라우팅됨
+// 풀은 각각 빈으로 등록되어 hikaricp.connections.* 지표가 pool=trip-primary / trip-replica 태그로 분리됨
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "trip.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("trip-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("trip.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${trip.datasource.replica.url}") String url,
+                                              @Value("${trip.datasource.replica.username:}") String username,
+                                              @Value("${trip.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("trip-replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${trip.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${trip.datasource.replica.max-lag:2s}") Duration maxLag) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag, meterRegistry);
+        // 첫 스케줄 전까지 primary로 읽지 않도록 기동 시 한 번 측정
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        log.info("🔀 읽기 전용 트랜잭션 복제본 라우팅 활성화");
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primaryDataSource);
+        routing.setReadOnlyDataSource(
+                new LagAwareReplicaDataSource(replicaDataSource, primaryDataSource, replicaLagMonitor, meterRegistry));
+        return routing;
+    }
+}
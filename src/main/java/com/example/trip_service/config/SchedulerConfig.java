@@ -1,6 +1,11 @@
 package com.example.trip_service.config;
 
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.provider.redis.spring.RedisLockProvider;
+import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
@@ -8,6 +13,7 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 @Configuration
 @EnableScheduling
+@EnableSchedulerLock(defaultLockAtMostFor = "PT1M")
 public class SchedulerConfig implements SchedulingConfigurer {
 
     // 기본 스케줄러가 스레드 1개라서, 작업이 밀리는 것을 방지하기 위해 확장
@@ -20,4 +26,10 @@ public class SchedulerConfig implements SchedulingConfigurer {
 
         taskRegistrar.setTaskScheduler(scheduler);
     }
-}
\ No newline at end of file
+
+    // @SchedulerLock 작업(진행 중 기사 집합 재동기화, Outbox 정리 등)이 여러 인스턴스에서 동시에 돌지 않도록 Redis 잠금 사용
+    @Bean
+    public LockProvider lockProvider(RedisConnectionFactory connectionFactory) {
+        return new RedisLockProvider(connectionFactory, "trip-service");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.trip_service.controller;
+
+import com.example.trip_service.service.TripExportService;
+import com.example.trip_service.service.TripExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/admin/trips")
+public class AdminTripController {
+
+    private final TripExportService tripExportService;
+    private final long exportTimeoutMillis;
+
+    public AdminTripController(TripExportService tripExportService,
+                               @Value("${trip.export.request-timeout:30m}") Duration exportTimeout) {
+        this.tripExportService = tripExportService;
+        this.exportTimeoutMillis = exportTimeout.toMillis();
+    }
+
+    // 정산용 여정 추출: [from, to) 기간을 NDJSON/CSV로 스트리밍. Accept-Encoding: gzip 이면 압축해서 전송
+    // 대량 추출만 오래 걸리므로 비동기 타임아웃은 전역(spring.mvc.async)이 아니라 이 요청에만 길게 지정
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportTrips(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+
+        Format exportFormat = Format.parse(format);
+        tripExportService.validateRange(from, to);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("trips_" + from + "_" + to + "." + exportFormat.extension())
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            OutputStream outputStream = response.getOutputStream();
+            if (gzip) {
+                try (OutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024)) {
+                    tripExportService.export(from, to, exportFormat, gzipStream);
+                }
+            } else {
+                tripExportService.export(from, to, exportFormat, outputStream);
+                outputStream.flush();
+            }
+            return null;
+        });
+    }
+}
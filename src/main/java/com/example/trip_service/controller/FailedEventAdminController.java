@@ -1,5 +1,7 @@
 package com.example.trip_service.controller;
 
+import com.example.trip_service.dto.FailedEventReplayJobResponse;
+import com.example.trip_service.service.FailedEventReplayJobService;
 import com.example.trip_service.service.FailedEventReplayService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -11,11 +13,32 @@ import org.springframework.web.bind.annotation.*;
 public class FailedEventAdminController {
 
     private final FailedEventReplayService replayService;
+    private final FailedEventReplayJobService replayJobService;
 
+    // 재발행은 백그라운드 작업으로 실행. 진행 상황은 GET /replay-jobs/{jobId} 로 확인
     @PostMapping("/retry-all")
-    public ResponseEntity<String> retryAll(@RequestParam String topic) {
-        int count = replayService.retryAllByTopic(topic);
-        return ResponseEntity.ok(String.format("토픽 [%s]의 에러 메시지 %d건이 성공적으로 재발행되었습니다.", topic, count));
+    public ResponseEntity<FailedEventReplayJobResponse> retryAll(@RequestParam String topic) {
+        return ResponseEntity.accepted().body(FailedEventReplayJobResponse.from(replayJobService.submit(topic)));
+    }
+
+    @GetMapping("/replay-jobs/{jobId}")
+    public ResponseEntity<FailedEventReplayJobResponse> getReplayJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(FailedEventReplayJobResponse.from(replayJobService.get(jobId)));
+    }
+
+    @PostMapping("/replay-jobs/{jobId}/pause")
+    public ResponseEntity<FailedEventReplayJobResponse> pauseReplayJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(FailedEventReplayJobResponse.from(replayJobService.pause(jobId)));
+    }
+
+    @PostMapping("/replay-jobs/{jobId}/resume")
+    public ResponseEntity<FailedEventReplayJobResponse> resumeReplayJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(FailedEventReplayJobResponse.from(replayJobService.resume(jobId)));
+    }
+
+    @PostMapping("/replay-jobs/{jobId}/cancel")
+    public ResponseEntity<FailedEventReplayJobResponse> cancelReplayJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(FailedEventReplayJobResponse.from(replayJobService.cancel(jobId)));
     }
 
     @PostMapping("/{eventId}/ignore")
@@ -23,4 +46,4 @@ public class FailedEventAdminController {
         replayService.ignoreEvent(eventId);
         return ResponseEntity.ok("에러 메시지가 폐기(IGNORED) 처리되었습니다.");
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.example.trip_service.controller;
 
+import com.example.trip_service.dto.DriverInProgressRequest;
 import com.example.trip_service.service.TripService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/internal/drivers")
 @RequiredArgsConstructor
@@ -19,4 +23,10 @@ public class InternalTripController {
 
         return ResponseEntity.ok(isDriving);
     }
-}
\ No newline at end of file
+
+    // 배차 후보 기사 일괄 확인: { driverId: 운행 중 여부 }
+    @PostMapping("/in-progress")
+    public ResponseEntity<Map<String, Boolean>> areDriversInProgress(@Valid @RequestBody DriverInProgressRequest request) {
+        return ResponseEntity.ok(tripService.areDriversOnTrip(request.driverIds()));
+    }
+}
@@ -2,50 +2,136 @@ package com.example.trip_service.controller;
 
 import com.example.trip_service.dto.CancelTripRequest;
 import com.example.trip_service.dto.CompleteTripRequest;
+import com.example.trip_service.dto.TripBatchGetRequest;
 import com.example.trip_service.dto.TripDetailsResponse;
+import com.example.trip_service.dto.TripDetailsSnapshot;
+import com.example.trip_service.dto.TripHistoryResponse;
+import com.example.trip_service.service.TransitionIdempotencyService;
+import com.example.trip_service.service.TripHistoryService;
 import com.example.trip_service.service.TripService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/trips")
 @RequiredArgsConstructor
 public class TripController {
 
+    // 기사 앱 재시도 시 같은 값을 보내면 첫 요청 결과로 응답 (재응답이면 Idempotent-Replayed: true)
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final TripService tripService;
+    private final TripHistoryService tripHistoryService;
+    private final TransitionIdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @PutMapping("/{tripId}/arrive")
-    public ResponseEntity<Void> driverArrived(@PathVariable String tripId) {
-        tripService.driverArrived(tripId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> driverArrived(@PathVariable String tripId,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        boolean replayed = idempotencyService.execute(tripId, "arrive", idempotencyKey, "",
+                () -> tripService.driverArrived(tripId));
+        return noContent(replayed);
     }
 
     @PutMapping("/{tripId}/start")
-    public ResponseEntity<Void> startTrip(@PathVariable String tripId) {
-        tripService.startTrip(tripId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> startTrip(@PathVariable String tripId,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        boolean replayed = idempotencyService.execute(tripId, "start", idempotencyKey, "",
+                () -> tripService.startTrip(tripId));
+        return noContent(replayed);
     }
 
     @PutMapping("/{tripId}/complete")
     public ResponseEntity<Void> completeTrip(@PathVariable String tripId,
-                                             @Valid @RequestBody CompleteTripRequest request) {
-        tripService.completeTrip(tripId, request);
-        return ResponseEntity.noContent().build();
+                                             @Valid @RequestBody CompleteTripRequest request,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        boolean replayed = idempotencyService.execute(tripId, "complete", idempotencyKey, request.toString(),
+                () -> tripService.completeTrip(tripId, request));
+        return noContent(replayed);
     }
 
     @PutMapping("/{tripId}/cancel")
     public ResponseEntity<Void> cancelTrip(@PathVariable String tripId,
-                                           @Valid @RequestBody CancelTripRequest request) {
-        tripService.cancelTrip(tripId, request);
-        return ResponseEntity.noContent().build();
+                                           @Valid @RequestBody CancelTripRequest request,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        boolean replayed = idempotencyService.execute(tripId, "cancel", idempotencyKey, request.toString(),
+                () -> tripService.cancelTrip(tripId, request));
+        return noContent(replayed);
+    }
+
+    // 사용자 또는 기사의 여정 이력 (최신순, 키셋 페이지네이션). 다음 페이지는 응답의 nextCursor를 cursor로 전달
+    @GetMapping
+    public ResponseEntity<TripHistoryResponse> getTripHistory(@RequestParam(required = false) String userId,
+                                                              @RequestParam(required = false) String driverId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(tripHistoryService.getHistory(userId, driverId, cursor, size));
+    }
+
+    // 여러 여정 상세를 NDJSON(한 줄에 여정 하나)으로 스트리밍. 존재하지 않는 tripId는 결과에서 제외
+    @PostMapping(value = "/batch-get", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> batchGetTripDetails(@Valid @RequestBody TripBatchGetRequest request) {
+        List<String> tripIds = tripService.validateBatchGet(request.tripIds());
+
+        StreamingResponseBody body = outputStream -> {
+            tripService.streamTripDetails(tripIds, details -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(details));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                             .body(body);
     }
 
+    // ETag = 여정 행 버전. 변경 없는 폴링은 버전만 확인하고 본문 없이 304 응답
     @GetMapping("/{tripId}")
-    public ResponseEntity<TripDetailsResponse> getTripDetails(@PathVariable String tripId) {
-        TripDetailsResponse tripDetailsResponse =  tripService.getTripDetails(tripId);
-        return ResponseEntity.ok(tripDetailsResponse);
+    public ResponseEntity<TripDetailsResponse> getTripDetails(@PathVariable String tripId, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String currentEtag = toEtag(tripService.getTripDetailsVersion(tripId));
+            if (webRequest.checkNotModified(currentEtag)) {
+                tripService.recordConditionalGet("not_modified");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build();
+            }
+            tripService.recordConditionalGet("modified");
+        } else {
+            tripService.recordConditionalGet("unconditional");
+        }
+
+        TripDetailsSnapshot snapshot = tripService.getTripDetailsSnapshot(tripId);
+        return ResponseEntity.ok()
+                             .eTag(toEtag(snapshot.version()))
+                             .body(snapshot.details());
+    }
+
+    private static ResponseEntity<Void> noContent(boolean replayed) {
+        if (replayed) {
+            return ResponseEntity.noContent().header(IDEMPOTENT_REPLAYED, "true").build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String toEtag(long version) {
+        return "\"" + version + "\"";
     }
 }
\ No newline at end of file
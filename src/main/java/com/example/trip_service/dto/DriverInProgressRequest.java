@@ -0,0 +1,12 @@
+package com.example.trip_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record DriverInProgressRequest(
+        @NotEmpty(message = "확인할 기사 ID는 1개 이상이어야 합니다.")
+        @Size(max = 1000, message = "한 번에 확인할 수 있는 기사는 최대 1000명입니다.")
+        List<String> driverIds
+) {}
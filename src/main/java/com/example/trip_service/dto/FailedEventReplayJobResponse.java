@@ -0,0 +1,25 @@
+package com.example.trip_service.dto;
+
+import com.example.trip_service.entity.FailedEventReplayJob;
+import com.example.trip_service.entity.ReplayJobStatus;
+
+import java.time.LocalDateTime;
+
+public record FailedEventReplayJobResponse(
+        Long jobId,
+        String topic,
+        ReplayJobStatus status,
+        long lastEventId,
+        long processedCount,
+        long failedCount,
+        double currentRate,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt
+) {
+    public static FailedEventReplayJobResponse from(FailedEventReplayJob job) {
+        return new FailedEventReplayJobResponse(
+                job.getId(), job.getTopic(), job.getStatus(), job.getLastEventId(), job.getProcessedCount(),
+                job.getFailedCount(), job.getCurrentRate(), job.getCreatedAt(), job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.trip_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record TripBatchGetRequest(
+        @NotEmpty(message = "조회할 여정 ID는 1개 이상이어야 합니다.")
+        List<String> tripIds
+) {}
@@ -1,6 +1,5 @@
 package com.example.trip_service.dto;
 
-import com.example.trip_service.entity.Trip;
 import com.example.trip_service.entity.TripStatus;
 import lombok.Builder;
 
@@ -22,26 +21,23 @@ public record TripDetailsResponse(
     public record UserInfo(String userId, String name) {}
     public record DriverInfo(String driverId, String name, String licensePlate, String model) {}
 
-    public static TripDetailsResponse fromEntity(Trip trip) {
+    public static TripDetailsResponse fromRow(TripDetailsRow row) {
         return TripDetailsResponse.builder()
-                                  .tripId(trip.getTripId())
-                                  .status(trip.getStatus())
-                                  .originAddress(trip.getOriginAddress())
-                                  .destinationAddress(trip.getDestinationAddress())
-                                  .fare(trip.getFare())
-                                  .matchedAt(trip.getMatchedAt())
-                                  .startedAt(trip.getStartedAt())
-                                  .endedAt(trip.getEndedAt())
-                                  .user(new UserInfo(
-                                          trip.getUserId(),
-                                          trip.getUserName()
-                                  ))
+                                  .tripId(row.tripId())
+                                  .status(row.status())
+                                  .originAddress(row.originAddress())
+                                  .destinationAddress(row.destinationAddress())
+                                  .fare(row.fare())
+                                  .matchedAt(row.matchedAt())
+                                  .startedAt(row.startedAt())
+                                  .endedAt(row.endedAt())
+                                  .user(new UserInfo(row.userId(), row.userName()))
                                   .driver(new DriverInfo(
-                                          trip.getDriverId(),
-                                          trip.getDriverName(),
-                                          trip.getLicensePlate(),
-                                          trip.getVehicleModel()
+                                          row.driverId(),
+                                          row.driverName(),
+                                          row.licensePlate(),
+                                          row.vehicleModel()
                                   ))
                                   .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.example.trip_service.dto;
+
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.entity.TripStatus;
+
+import java.time.LocalDateTime;
+
+// 여정 상세 조회 전용 프로젝션 (엔티티 로딩/영속성 컨텍스트 등록 없이 컬럼만 조회)
+public record TripDetailsRow(
+        String tripId,
+        TripStatus status,
+        String originAddress,
+        String destinationAddress,
+        Integer fare,
+        LocalDateTime matchedAt,
+        LocalDateTime startedAt,
+        LocalDateTime endedAt,
+        String userId,
+        String userName,
+        String driverId,
+        String driverName,
+        String licensePlate,
+        String vehicleModel,
+        long version
+) {
+    public static TripDetailsRow fromEntity(Trip trip) {
+        return new TripDetailsRow(
+                trip.getTripId(), trip.getStatus(), trip.getOriginAddress(), trip.getDestinationAddress(), trip.getFare(),
+                trip.getMatchedAt(), trip.getStartedAt(), trip.getEndedAt(),
+                trip.getUserId(), trip.getUserName(), trip.getDriverId(), trip.getDriverName(),
+                trip.getLicensePlate(), trip.getVehicleModel(),
+                trip.getVersion()
+        );
+    }
+}
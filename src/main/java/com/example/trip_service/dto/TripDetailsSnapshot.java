@@ -0,0 +1,7 @@
+package com.example.trip_service.dto;
+
+// Redis 읽기 모델에 저장된 여정 상세 + 원본 행 버전
+public record TripDetailsSnapshot(
+        TripDetailsResponse details,
+        long version
+) {}
@@ -0,0 +1,11 @@
+package com.example.trip_service.dto;
+
+// 배차 직후 외부 API(네이버 지도, 사용자/기사 서비스)로 채우는 여정 부가 정보
+public record TripEnrichment(
+        String originAddress,
+        String destinationAddress,
+        String userName,
+        String driverName,
+        String vehicleModel,
+        String licensePlate
+) {}
@@ -0,0 +1,9 @@
+package com.example.trip_service.dto;
+
+import java.util.List;
+
+// nextCursor가 null이면 마지막 페이지
+public record TripHistoryResponse(
+        List<TripSummaryResponse> trips,
+        String nextCursor
+) {}
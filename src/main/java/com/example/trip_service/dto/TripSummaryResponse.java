@@ -0,0 +1,20 @@
+package com.example.trip_service.dto;
+
+import com.example.trip_service.entity.TripStatus;
+
+import java.time.LocalDateTime;
+
+public record TripSummaryResponse(
+        String tripId,
+        TripStatus status,
+        String originAddress,
+        String destinationAddress,
+        Integer fare,
+        LocalDateTime matchedAt
+) {
+    public static TripSummaryResponse fromRow(TripSummaryRow row) {
+        return new TripSummaryResponse(
+                row.tripId(), row.status(), row.originAddress(), row.destinationAddress(), row.fare(), row.matchedAt()
+        );
+    }
+}
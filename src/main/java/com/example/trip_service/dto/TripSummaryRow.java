@@ -0,0 +1,16 @@
+package com.example.trip_service.dto;
+
+import com.example.trip_service.entity.TripStatus;
+
+import java.time.LocalDateTime;
+
+// 여정 이력 목록 조회 전용 프로젝션. id는 키셋 커서(matched_at, id) 생성에만 사용
+public record TripSummaryRow(
+        Long id,
+        String tripId,
+        TripStatus status,
+        String originAddress,
+        String destinationAddress,
+        Integer fare,
+        LocalDateTime matchedAt
+) {}
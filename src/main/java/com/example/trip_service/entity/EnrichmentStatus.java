@@ -0,0 +1,6 @@
+package com.example.trip_service.entity;
+
+public enum EnrichmentStatus {
+    PENDING,    // persist-first 로 좌표/ID만 저장됨 (주소 컬럼에 좌표 placeholder). 보강 큐 또는 재스캔이 채움
+    DONE        // 주소/이름/차량 정보 보강 완료
+}
@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "failed_event")
+@Table(name = "failed_event", indexes = {
+        // 토픽별 PENDING 재발행 키셋 페이징
+        @Index(name = "idx_failed_event_topic_status_id", columnList = "topic, status, id")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class FailedEvent extends BaseTimeEntity {
@@ -0,0 +1,51 @@
+package com.example.trip_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// DLT 이벤트 재발행 작업. 청크마다 RESOLVED 처리와 같은 트랜잭션에서 커서/진행 건수를 저장
+// activeTopic: RUNNING/PAUSED 동안만 topic 값을 가짐 (유니크 -> 토픽당 진행 중인 작업은 하나)
+@Entity
+@Table(name = "failed_event_replay_job",
+        uniqueConstraints = @UniqueConstraint(name = "uk_replay_job_active_topic", columnNames = "active_topic"),
+        indexes = @Index(name = "idx_replay_job_status", columnList = "status"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class FailedEventReplayJob extends BaseTimeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "active_topic")
+    private String activeTopic;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReplayJobStatus status;
+
+    private long lastEventId;     // 키셋 커서: 이 id 까지 재발행을 시도함
+
+    private long processedCount;  // RESOLVED 처리한 건수
+
+    private long failedCount;     // 실패(또는 같은 key 의 앞 이벤트 실패로 보류)해 PENDING 으로 남긴 건수
+
+    private double currentRate;   // 마지막 청크의 처리 속도 (건/s)
+
+    private LocalDateTime finishedAt;
+
+    @Builder
+    public FailedEventReplayJob(String topic) {
+        this.topic = topic;
+        this.activeTopic = topic;
+        this.status = ReplayJobStatus.RUNNING;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.trip_service.entity;
+
+public enum ReplayJobStatus {
+    RUNNING,    // 재발행 중 (인스턴스가 재시작되면 저장된 커서부터 이어서 실행)
+    PAUSED,     // 일시 정지 (커서 유지, resume 으로 재개)
+    CANCELED,   // 취소됨
+    COMPLETED   // 끝까지 재발행 완료
+}
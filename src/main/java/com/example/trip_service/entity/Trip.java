@@ -1,6 +1,5 @@
 package com.example.trip_service.entity;
 
-import com.example.trip_service.exception.TripStatusConflictException;
 import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -9,7 +8,19 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "trips")
+@Table(name = "trips", indexes = {
+        // 조건부 조회(ETag) 버전 확인을 인덱스만으로 처리
+        @Index(name = "idx_trips_trip_id_version", columnList = "trip_id, version"),
+        // 운행 중 기사 확인(DB 폴백/보정)용
+        @Index(name = "idx_trips_driver_id_status", columnList = "driver_id, status"),
+        // 여정 이력 키셋 페이지네이션 (matched_at, id) 역순
+        @Index(name = "idx_trips_user_id_matched_at_id", columnList = "user_id, matched_at, id"),
+        @Index(name = "idx_trips_driver_id_matched_at_id", columnList = "driver_id, matched_at, id"),
+        // 기간별 대량 추출 (matched_at 범위 + 정렬)
+        @Index(name = "idx_trips_matched_at", columnList = "matched_at"),
+        // 보강되지 않은 채 남은 여정 재스캔
+        @Index(name = "idx_trips_enrichment_status_matched_at", columnList = "enrichment_status, matched_at")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Trip extends BaseTimeEntity {
@@ -60,9 +71,19 @@ public class Trip extends BaseTimeEntity {
     @Column(name = "user_name")
     private String userName;
 
+    // persist-first 로 저장된 여정의 보강 상태 (null: 보강된 채로 저장됨)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "enrichment_status", length = 20)
+    private EnrichmentStatus enrichmentStatus;
+
+    // 상태 전이 조건부 UPDATE와 더티 체킹 갱신 모두 1씩 증가 (낙관적 락 + 읽기 모델 버전)
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Builder
     public Trip(String tripId, String userId, String driverId, String originAddress, String destinationAddress, LocalDateTime matchedAt,
-                String driverName, String vehicleModel, String licensePlate, String userName) {
+                String driverName, String vehicleModel, String licensePlate, String userName, EnrichmentStatus enrichmentStatus) {
         this.tripId = tripId;
         this.userId = userId;
         this.driverId = driverId;
@@ -74,36 +95,13 @@ public class Trip extends BaseTimeEntity {
         this.vehicleModel = vehicleModel;
         this.licensePlate = licensePlate;
         this.userName = userName;
+        this.enrichmentStatus = enrichmentStatus;
     }
 
     public void updateFare(Integer fare) {
         this.fare = fare;
     }
 
-    public void arrive() {
-        if (this.status != TripStatus.MATCHED) {
-            throw new TripStatusConflictException("기사가 이미 도착했거나 운행 중인 여정입니다. 현재 상태: " + this.status);
-        }
-        this.status = TripStatus.ARRIVED;
-    }
-
-    public void start() {
-        if (this.status != TripStatus.ARRIVED) {
-            throw new TripStatusConflictException("운행을 시작할 수 없는 상태입니다. 현재 상태: " + this.status);
-        }
-        this.status = TripStatus.IN_PROGRESS;
-        this.startedAt = LocalDateTime.now();
-    }
-
-    public LocalDateTime complete() {
-        if (this.status != TripStatus.IN_PROGRESS) {
-            throw new TripStatusConflictException("운행을 종료할 수 없는 상태입니다. 현재 상태: " + this.status);
-        }
-        this.status = TripStatus.PAYMENT_PENDING;
-        this.endedAt = LocalDateTime.now();
-        return this.endedAt;
-    }
-
     public void confirmPayment() {
         if (this.status == TripStatus.COMPLETED) {
             return;
@@ -116,13 +114,6 @@ public class Trip extends BaseTimeEntity {
         this.status = TripStatus.COMPLETED;
     }
 
-    public void cancel() {
-        if (this.status == TripStatus.COMPLETED || this.status == TripStatus.CANCELED) {
-            throw new TripStatusConflictException("이미 종료되어 취소할 수 없는 여정입니다. 현재 상태: " + this.status);
-        }
-        this.status = TripStatus.CANCELED;
-    }
-
     public void revertCompletion() {
         if (this.status == TripStatus.PAYMENT_FAILED) {
             return;
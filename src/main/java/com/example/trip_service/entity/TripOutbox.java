@@ -3,35 +3,65 @@ package com.example.trip_service.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "trip_outbox", indexes = @Index(name = "idx_outbox_status_created", columnList = "status, createdAt"))
+@Table(name = "trip_outbox", indexes = {
+        @Index(name = "idx_outbox_status_created", columnList = "status, createdAt"),
+        // 샤드 단위 선점 시 같은 aggregate 의 선행 이벤트 확인
+        @Index(name = "idx_outbox_aggregate_id", columnList = "aggregateId, id"),
+        @Index(name = "idx_outbox_shard_status_id", columnList = "shard, status, id"),
+        // 만료된 선점(lease) 회수
+        @Index(name = "idx_outbox_status_lease_until", columnList = "status, leaseUntil")
+})
 public class TripOutbox extends BaseTimeEntity {
 
+    // aggregateId 해시로 나눈 샤드 수. 샤드마다 한 릴레이만 발행하므로 같은 여정 이벤트 순서가 유지됨
+    // 값을 바꿔도 이전 샤드에 남은 READY 이벤트가 먼저 나간 뒤에 새 샤드의 이벤트를 선점 (findEventsForPublishingInShard)
+    public static final int SHARD_COUNT = 16;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String aggregateId; // Trip ID
 
+    @Column(nullable = false)
+    private int shard;          // aggregateId 기준 샤드 번호 (0 ~ SHARD_COUNT-1)
+
     private String topic;       // 발행할 토픽 이름
 
     @Lob
-    private String payload;     // 이벤트 내용 (JSON)
+    private String payload;     // 이벤트 내용 (JSON). payloadData 도입 전에 저장된 행만 사용
+
+    // 큰 이벤트(JSON 8KB 이상 등)도 저장되도록 LONGBLOB. 기존 테이블은 db/outbox/trip_outbox_payload_data_longblob.sql 로 변경
+    @Lob
+    private byte[] payloadData; // 코덱 형식 바이트 + 이벤트 내용 (OutboxPayloadCodec)
 
     @Enumerated(EnumType.STRING)
     private OutboxStatus status; // READY, DONE
 
+    private String claimedBy;          // PUBLISHING 으로 선점한 릴레이 인스턴스 ID
+
+    private LocalDateTime leaseUntil;  // 선점 만료 시각. 발행 중에는 주기적으로 연장되고, 지나면 다른 릴레이가 회수
+
 
     @Builder
-    public TripOutbox(String aggregateId, String topic, String payload) {
+    public TripOutbox(String aggregateId, String topic, String payload, byte[] payloadData) {
         this.aggregateId = aggregateId;
+        this.shard = shardOf(aggregateId);
         this.topic = topic;
         this.payload = payload;
+        this.payloadData = payloadData;
         this.status = OutboxStatus.READY;
     }
 
+    public static int shardOf(String aggregateId) {
+        return aggregateId == null ? 0 : Math.floorMod(aggregateId.hashCode(), SHARD_COUNT);
+    }
+
     public void changeStatus(OutboxStatus status) {
         this.status = status;
     }
@@ -0,0 +1,39 @@
+package com.example.trip_service.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// 상태 전이 규칙: 어떤 상태에서(from) 어떤 상태로(target) 갈 수 있는지
+// TripRepository의 조건부 UPDATE(WHERE status IN from)에 그대로 사용
+public enum TripTransition {
+    ARRIVE(TripStatus.ARRIVED, EnumSet.of(TripStatus.MATCHED),
+            "기사가 이미 도착했거나 운행 중인 여정입니다."),
+    START(TripStatus.IN_PROGRESS, EnumSet.of(TripStatus.ARRIVED),
+            "운행을 시작할 수 없는 상태입니다."),
+    COMPLETE(TripStatus.PAYMENT_PENDING, EnumSet.of(TripStatus.IN_PROGRESS),
+            "운행을 종료할 수 없는 상태입니다."),
+    CANCEL(TripStatus.CANCELED, EnumSet.complementOf(EnumSet.of(TripStatus.COMPLETED, TripStatus.CANCELED)),
+            "이미 종료되어 취소할 수 없는 여정입니다.");
+
+    private final TripStatus target;
+    private final Set<TripStatus> from;
+    private final String conflictMessage;
+
+    TripTransition(TripStatus target, Set<TripStatus> from, String conflictMessage) {
+        this.target = target;
+        this.from = from;
+        this.conflictMessage = conflictMessage;
+    }
+
+    public TripStatus target() {
+        return target;
+    }
+
+    public Set<TripStatus> from() {
+        return from;
+    }
+
+    public String conflictMessage(TripStatus current) {
+        return conflictMessage + " 현재 상태: " + current;
+    }
+}
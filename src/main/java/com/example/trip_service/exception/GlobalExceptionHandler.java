@@ -17,4 +17,24 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleTripStatusConflict(TripStatusConflictException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(InvalidTripQueryException.class)
+    public ResponseEntity<String> handleInvalidTripQuery(InvalidTripQueryException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotentReplayException.class)
+    public ResponseEntity<String> handleIdempotentReplay(IdempotentReplayException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ReplayJobNotFoundException.class)
+    public ResponseEntity<String> handleReplayJobNotFound(ReplayJobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ReplayJobStateConflictException.class)
+    public ResponseEntity<String> handleReplayJobStateConflict(ReplayJobStateConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+}
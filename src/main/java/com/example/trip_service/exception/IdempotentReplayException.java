@@ -0,0 +1,18 @@
+package com.example.trip_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Idempotency-Key 재요청에 대해 저장된(또는 진행 중/키 재사용) 결과를 그대로 응답하기 위한 예외
+public class IdempotentReplayException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotentReplayException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
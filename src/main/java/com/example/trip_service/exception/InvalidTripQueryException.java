@@ -0,0 +1,7 @@
+package com.example.trip_service.exception;
+
+public class InvalidTripQueryException extends RuntimeException {
+    public InvalidTripQueryException(String message) {
+        super(message);
+    }
+}
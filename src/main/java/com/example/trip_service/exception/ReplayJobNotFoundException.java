@@ -0,0 +1,7 @@
+package com.example.trip_service.exception;
+
+public class ReplayJobNotFoundException extends RuntimeException {
+    public ReplayJobNotFoundException(String message) {
+        super(message);
+    }
+}
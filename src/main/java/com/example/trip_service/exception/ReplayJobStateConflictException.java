@@ -0,0 +1,7 @@
+package com.example.trip_service.exception;
+
+public class ReplayJobStateConflictException extends RuntimeException {
+    public ReplayJobStateConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.repository.TripOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// 릴레이가 얼마나 밀려 있는지 (알림/오토스케일 기준)
+// 스크레이프마다 DB 를 조회하지 않도록 주기적으로 표본을 떠 두고 게이지는 마지막 값을 노출
+// - trip.outbox.backlog{status}: READY/PUBLISHING 건수 (count-cap 에서 멈춤)
+// - trip.outbox.oldest_ready.age: 가장 오래된 READY 이벤트의 나이(초). 스크레이프 시각 기준으로 계산해 표본 주기 사이에도 증가
+@Component
+@Slf4j
+public class OutboxBacklogMonitor {
+
+    private final TripOutboxRepository outboxRepository;
+    private final int countCap;
+
+    private volatile double readyCount = Double.NaN;
+    private volatile double publishingCount = Double.NaN;
+    private volatile long oldestReadyEpochMillis = 0; // 0: READY 없음
+
+    public OutboxBacklogMonitor(TripOutboxRepository outboxRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${trip.outbox.backlog.count-cap:1000000}") int countCap) {
+        this.outboxRepository = outboxRepository;
+        this.countCap = countCap;
+
+        Gauge.builder("trip.outbox.backlog", this, monitor -> monitor.readyCount)
+             .description("발행 대기(READY) Outbox 이벤트 수. 조회 실패 시 NaN")
+             .tag("status", OutboxStatus.READY.name())
+             .register(meterRegistry);
+        Gauge.builder("trip.outbox.backlog", this, monitor -> monitor.publishingCount)
+             .description("릴레이가 선점해 전송 중(PUBLISHING)인 Outbox 이벤트 수. 조회 실패 시 NaN")
+             .tag("status", OutboxStatus.PUBLISHING.name())
+             .register(meterRegistry);
+        Gauge.builder("trip.outbox.oldest_ready.age", this, OutboxBacklogMonitor::oldestReadyAgeSeconds)
+             .description("가장 오래된 READY Outbox 이벤트가 생성된 뒤 지난 시간(초). 없으면 0")
+             .baseUnit("seconds")
+             .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${trip.outbox.backlog.sample-interval-ms:10000}", initialDelay = 5000)
+    public void sample() {
+        try {
+            readyCount = outboxRepository.countByStatusUpTo(OutboxStatus.READY.name(), countCap);
+            publishingCount = outboxRepository.countByStatusUpTo(OutboxStatus.PUBLISHING.name(), countCap);
+            LocalDateTime oldest = outboxRepository.findOldestCreatedAt(OutboxStatus.READY);
+            oldestReadyEpochMillis = oldest == null ? 0 : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            log.warn("Outbox 적체 조회 실패. Error: {}", e.getMessage());
+            readyCount = Double.NaN;
+            publishingCount = Double.NaN;
+        }
+    }
+
+    private double oldestReadyAgeSeconds() {
+        long oldest = oldestReadyEpochMillis;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
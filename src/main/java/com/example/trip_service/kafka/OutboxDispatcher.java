@@ -0,0 +1,42 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 트랜잭션 커밋 직후 새 Outbox 이벤트의 샤드 워커를 깨워 바로 발행 (다음 폴링 주기까지 기다리지 않음)
+// 알림이 유실되어도 이벤트는 READY 로 남아 샤드 폴링이 처리
+@Component
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    private final OutboxShardCoordinator shardCoordinator;
+    private final OutboxMetrics outboxMetrics;
+
+    // Outbox 저장과 같은 트랜잭션에서 호출. 커밋된 경우에만 발행 대상이 됨
+    public void dispatchAfterCommit(TripOutbox outbox) {
+        if (outbox.getId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(outbox);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(outbox);
+            }
+        });
+    }
+
+    // 다른 파드가 맡은 샤드의 이벤트는 그쪽에서 발행되므로 여기서 커밋 시각을 기록하면 지워지지 않고 쌓임
+    private void dispatch(TripOutbox outbox) {
+        if (shardCoordinator.owns(outbox.getShard())) {
+            outboxMetrics.markCommitted(outbox.getId());
+        }
+        shardCoordinator.nudge(outbox.getShard());
+    }
+}
@@ -3,105 +3,227 @@ package com.example.trip_service.kafka;
 import com.example.trip_service.entity.OutboxStatus;
 import com.example.trip_service.entity.TripOutbox;
 import com.example.trip_service.repository.TripOutboxRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// 샤드 발행 로직. 어느 샤드를 언제 발행할지는 OutboxShardCoordinator 의 샤드 워커가 결정
+// 선점(PUBLISHING)에는 소유 릴레이(claimed_by)와 만료 시각(lease_until)을 기록하고, 전송이 길어지면 주기적으로 연장
+// 릴레이가 죽어 연장이 멈추면 만료 후 몇 초 안에 어느 릴레이든 READY 로 회수
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class OutboxMessageRelay {
 
     private final TripOutboxRepository outboxRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final TransactionTemplate transactionTemplate;
+    private final OutboxMetrics outboxMetrics;
+    private final OutboxPayloadCodec payloadCodec;
+    private final Duration leaseDuration;
+    private final Duration legacyStuckAfter;
+
+    static final int BATCH_SIZE = 100;
+    // 프로듀서 delivery.timeout.ms(120s) 안에 모든 전송이 성공/실패로 끝나므로 그보다 길게만 대기
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(150);
+
+    public OutboxMessageRelay(TripOutboxRepository outboxRepository,
+                              KafkaTemplate<String, String> kafkaTemplate,
+                              TransactionTemplate transactionTemplate,
+                              OutboxMetrics outboxMetrics,
+                              OutboxPayloadCodec payloadCodec,
+                              @Value("${trip.outbox.lease.duration:10s}") Duration leaseDuration,
+                              @Value("${trip.outbox.lease.legacy-stuck-after:10m}") Duration legacyStuckAfter) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxMetrics = outboxMetrics;
+        this.payloadCodec = payloadCodec;
+        this.leaseDuration = leaseDuration;
+        this.legacyStuckAfter = legacyStuckAfter;
+    }
 
-
-    @Scheduled(fixedDelay = 500)
-    public void publishEvents() {
-
+    // 샤드의 READY 이벤트를 id 순으로 선점하여 발행하고, 선점한 건수를 반환
+    // 샤드 임대를 가진 인스턴스(owner)의 워커 한 곳에서만 호출됨
+    public int publishShard(int shard, String owner, String path) {
+        long claimStart = System.nanoTime();
         List<TripOutbox> eventsToPublish = transactionTemplate.execute(status -> {
-            List<TripOutbox> events = outboxRepository.findEventsForPublishing(100);
+            List<TripOutbox> events = outboxRepository.findEventsForPublishingInShard(shard, BATCH_SIZE);
 
-            if (events.isEmpty()) return null;
+            if (events.isEmpty()) return events;
 
             List<Long> ids = events.stream().map(TripOutbox::getId).toList();
-            outboxRepository.updateStatus(ids, OutboxStatus.PUBLISHING);
+            outboxRepository.claim(ids, OutboxStatus.PUBLISHING, owner, LocalDateTime.now().plus(leaseDuration));
 
             return events;
         });
+        outboxMetrics.recordClaim(Duration.ofNanos(System.nanoTime() - claimStart));
 
-        if (eventsToPublish == null || eventsToPublish.isEmpty()) return;
+        if (eventsToPublish == null || eventsToPublish.isEmpty()) return 0;
 
-        for (TripOutbox event : eventsToPublish) {
-            sendToKafka(event);
-        }
+        publishBatch(eventsToPublish, owner, path);
+        return eventsToPublish.size();
     }
 
-    private void sendToKafka(TripOutbox event) {
-        try {
-            kafkaTemplate.send(event.getTopic(), event.getAggregateId(), event.getPayload()).get();
+    // 배치 전체를 비동기로 보내 프로듀서가 linger.ms / batch.size 로 묶어 전송하도록 하고, 모든 결과를 모아
+    // 성공은 DONE, 실패는 READY 로 UPDATE 두 번에 반영 (아직 내 선점인 건만)
+    // 같은 aggregate(tripId)의 이벤트는 앞 이벤트의 전송 결과를 확인한 뒤 이어서 보냄 -> 앞 이벤트가 실패하면 뒤 이벤트도 보내지 않고 READY 로 되돌려 순서 유지
+    void publishBatch(List<TripOutbox> events, String owner, String path) {
+        long claimedAt = System.nanoTime();
+        Map<String, CompletableFuture<Boolean>> lastByAggregate = new HashMap<>();
+        Map<TripOutbox, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+
+        for (TripOutbox event : events) {
+            CompletableFuture<Boolean> previous = lastByAggregate.get(event.getAggregateId());
+            CompletableFuture<Boolean> result = previous == null
+                    ? send(event, path)
+                    : previous.thenComposeAsync(ok -> ok ? send(event, path) : CompletableFuture.completedFuture(false));
+
+            lastByAggregate.put(event.getAggregateId(), result);
+            results.put(event, result);
+        }
 
-            log.info("✅ [Outbox-Publish] 발행 성공 | ID: {} | Topic: {} | Key: {}",
-                    event.getId(),
-                    event.getTopic(),
-                    event.getAggregateId());
+        awaitResults(results, owner);
 
-            updateStatus(event.getId(), OutboxStatus.DONE);
+        List<Long> doneIds = new ArrayList<>();
+        List<Long> retryIds = new ArrayList<>();
+        results.forEach((event, result) -> {
+            if (Boolean.TRUE.equals(result.getNow(false))) {
+                doneIds.add(event.getId());
+            } else {
+                retryIds.add(event.getId());
+            }
+        });
 
-        } catch (Exception e) {
+        Integer applied = transactionTemplate.execute(tx -> {
+            int count = 0;
+            if (!doneIds.isEmpty()) {
+                count += outboxRepository.completeClaim(doneIds, OutboxStatus.PUBLISHING, owner, OutboxStatus.DONE);
+            }
+            // 재시도를 위해 상태 원복
+            if (!retryIds.isEmpty()) {
+                count += outboxRepository.completeClaim(retryIds, OutboxStatus.PUBLISHING, owner, OutboxStatus.READY);
+            }
+            return count;
+        });
+        outboxMetrics.recordLeaseAge(Duration.ofNanos(System.nanoTime() - claimedAt));
+        if (!retryIds.isEmpty()) {
+            outboxMetrics.countRetried(retryIds.size());
+        }
 
-            log.error("❌ [Outbox-Publish] 발행 실패 | ID: {} | Topic: {} | Error: {}",
-                    event.getId(),
-                    event.getTopic(),
-                    e.getMessage(),
-                    e);
+        int lost = events.size() - (applied == null ? 0 : applied);
+        if (lost > 0) {
+            // 선점이 만료되어 다른 릴레이가 회수한 건. 그쪽에서 다시 발행하므로 중복 발행될 수 있음 (at-least-once)
+            log.warn("⚠️ [Outbox-Publish] 선점이 만료된 이벤트 {}건의 결과는 반영하지 않았습니다. | 샤드: {}", lost, events.get(0).getShard());
+        }
 
-            // 재시도를 위해 상태 원복
-            updateStatus(event.getId(), OutboxStatus.READY);
+        log.info("✅ [Outbox-Publish] 배치 발행 완료 | 샤드: {} | 경로: {} | 성공: {} | 재시도 대기: {}",
+                events.get(0).getShard(), path, doneIds.size(), retryIds.size());
+    }
+
+    // 전송 결과를 기다리는 동안 선점 만료 시각의 1/3 마다 아직 끝나지 않은 건의 선점을 연장
+    private void awaitResults(Map<TripOutbox, CompletableFuture<Boolean>> results, String owner) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new));
+        long heartbeatMs = Math.max(1, leaseDuration.toMillis() / 3);
+        long deadline = System.nanoTime() + SEND_TIMEOUT.toNanos();
+
+        while (true) {
+            try {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                all.get(Math.max(1, Math.min(heartbeatMs, remainingMs)), TimeUnit.MILLISECONDS);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.warn("⚠️ [Outbox-Publish] 배치 전송 대기 중단. 완료되지 않은 건은 재시도합니다. Error: {}", e.getMessage());
+                return;
+            } catch (TimeoutException e) {
+                if (System.nanoTime() >= deadline) {
+                    log.warn("⚠️ [Outbox-Publish] 배치 전송 대기 시간 초과. 완료되지 않은 건은 재시도합니다.");
+                    return;
+                }
+                renewLeases(results, owner);
+            }
         }
     }
 
-    public void updateStatus(Long eventId, OutboxStatus status) {
-        transactionTemplate.execute(tx -> {
-            outboxRepository.updateStatus(List.of(eventId), status);
-            return null;
-        });
+    private void renewLeases(Map<TripOutbox, CompletableFuture<Boolean>> results, String owner) {
+        List<Long> pendingIds = results.entrySet().stream()
+                                       .filter(entry -> !entry.getValue().isDone())
+                                       .map(entry -> entry.getKey().getId())
+                                       .toList();
+        if (pendingIds.isEmpty()) return;
+
+        try {
+            Integer renewed = transactionTemplate.execute(tx -> outboxRepository.renewLease(
+                    pendingIds, OutboxStatus.PUBLISHING, owner, LocalDateTime.now().plus(leaseDuration)));
+            outboxMetrics.countLeaseRenewed(renewed == null ? 0 : renewed);
+        } catch (Exception e) {
+            log.warn("⚠️ [Outbox-Publish] 선점 연장 실패. 만료되면 다른 릴레이가 회수합니다. Error: {}", e.getMessage());
+        }
     }
 
-    // 서버가 PUBLISHING 마킹 후 죽어버려서, 영원히 전송되지 못한 이벤트들을 구출
-    @Scheduled(fixedRate = 60000) // 1분마다 실행
-    @SchedulerLock(name = "Outbox_rescueStuckEvents", lockAtLeastFor = "PT30S", lockAtMostFor = "PT50S")
-    public void rescueStuckEvents() {
-        LocalDateTime tenMinutesAgo = LocalDateTime.now().minusMinutes(10);
+    private CompletableFuture<Boolean> send(TripOutbox event, String path) {
+        long sendStart = System.nanoTime();
+        try {
+            // JSON 으로 저장된 행은 바이트를 그대로 문자열로 넘기고, 바이너리 행만 복원 후 직렬화
+            return kafkaTemplate.send(event.getTopic(), event.getAggregateId(), payloadCodec.toWire(event))
+                                .handle((result, ex) -> {
+                                    outboxMetrics.recordSend(sendStart, ex == null);
+                                    if (ex != null) {
+                                        logFailure(event, ex);
+                                        return false;
+                                    }
+                                    log.debug("[Outbox-Publish] 발행 성공 | ID: {} | Topic: {} | Key: {}",
+                                            event.getId(), event.getTopic(), event.getAggregateId());
+                                    outboxMetrics.recordPublished(event, path);
+                                    return true;
+                                });
+        } catch (Exception e) {
+            // 버퍼 초과(max.block.ms) 등 send 호출 자체가 실패했거나 payload 를 읽지 못한 경우
+            outboxMetrics.recordSend(sendStart, false);
+            logFailure(event, e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
 
-        transactionTemplate.execute(status -> {
-            int count = outboxRepository.resetStuckEvents(OutboxStatus.PUBLISHING, OutboxStatus.READY, tenMinutesAgo);
-            if (count > 0) {
-                log.warn("🚨 멈춰있는(Stuck) 이벤트 {}건을 READY 상태로 복구했습니다.", count);
-            }
-            return null;
-        });
+    private void logFailure(TripOutbox event, Throwable e) {
+        log.error("❌ [Outbox-Publish] 발행 실패 | ID: {} | Topic: {} | Error: {}",
+                event.getId(),
+                event.getTopic(),
+                e.getMessage(),
+                e);
     }
 
-    @Scheduled(cron = "0 0 3 * * *")
-    @SchedulerLock(name = "Outbox_cleanupOldEvents", lockAtLeastFor = "PT30S", lockAtMostFor = "PT50S")
-    public void cleanupOldEvents() {
-        LocalDateTime retentionLimit = LocalDateTime.now().minusDays(3);
+    // 서버가 PUBLISHING 마킹 후 죽어버려서 선점 연장이 멈춘 이벤트들을 구출
+    // 조건부 UPDATE 한 번이라 여러 릴레이가 동시에 실행해도 안전하므로 분산 락 없이 모든 인스턴스에서 짧은 주기로 실행
+    @Scheduled(fixedDelayString = "${trip.outbox.lease.rescue-interval-ms:2000}")
+    public void rescueExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
 
         transactionTemplate.execute(status -> {
-            int deletedCount = outboxRepository.deleteOldEvents(OutboxStatus.DONE, retentionLimit);
-            if (deletedCount > 0) {
-                log.info("🧹 [Outbox Cleanup] 처리 완료된 지 3일 지난 이벤트 {}건을 삭제했습니다.", deletedCount);
+            int count = outboxRepository.rescueExpiredLeases(OutboxStatus.PUBLISHING, OutboxStatus.READY,
+                    now, now.minus(legacyStuckAfter));
+            if (count > 0) {
+                outboxMetrics.countRescued(count);
+                log.warn("🚨 선점이 만료된 이벤트 {}건을 READY 상태로 복구했습니다.", count);
             }
             return null;
         });
     }
-}
\ No newline at end of file
+}
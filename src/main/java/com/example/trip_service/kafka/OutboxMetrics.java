@@ -0,0 +1,149 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Outbox 발행 경로 지표
+// 커밋 -> Kafka ack 지연은 커밋 직후 디스패처로 넘어온 이벤트는 afterCommit 시각, 폴링으로 발행된 이벤트는 행 생성 시각(created_at)을 기준으로 함
+// 적체(backlog) 게이지는 OutboxBacklogMonitor 에서 등록
+@Component
+public class OutboxMetrics {
+
+    // 발행되지 않고 남는 항목(파드 종료 등)이 쌓이지 않도록 상한
+    private static final int MAX_TRACKED = 100_000;
+    // 커밋 뒤 이 시간 안에 발행되지 않은 항목은 샤드가 다른 파드로 넘어간 것으로 보고 버림 (그 파드는 created_at 기준으로 기록)
+    private static final Duration TRACK_TTL = Duration.ofMinutes(5);
+
+    // 폴링 주기(500ms) 전후가 잘 구분되도록 고정 버킷도 함께 노출
+    private static final Duration[] SLO_BUCKETS = {
+            Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Long> committedAtNanos = new ConcurrentHashMap<>();
+    private final int maxTracked;
+    private final long trackTtlNanos;
+    private final AtomicLong lastPrunedNanos;
+
+    @Autowired
+    public OutboxMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, MAX_TRACKED, TRACK_TTL);
+    }
+
+    OutboxMetrics(MeterRegistry meterRegistry, int maxTracked, Duration trackTtl) {
+        this.meterRegistry = meterRegistry;
+        this.maxTracked = maxTracked;
+        this.trackTtlNanos = trackTtl.toNanos();
+        this.lastPrunedNanos = new AtomicLong(System.nanoTime() - pruneIntervalNanos());
+    }
+
+    // 이 파드가 맡은 샤드의 이벤트만 호출됨 (OutboxDispatcher)
+    public void markCommitted(Long outboxId) {
+        long now = System.nanoTime();
+        if (committedAtNanos.size() >= maxTracked) {
+            pruneExpired(now);
+        }
+        if (committedAtNanos.size() < maxTracked) {
+            committedAtNanos.put(outboxId, now);
+        }
+    }
+
+    int trackedCount() {
+        return committedAtNanos.size();
+    }
+
+    // 상한에 닿았을 때만 오래된 항목을 정리. 전체를 훑으므로 TTL의 1/10 주기보다 자주 하지 않음
+    private void pruneExpired(long now) {
+        long last = lastPrunedNanos.get();
+        if (now - last < pruneIntervalNanos() || !lastPrunedNanos.compareAndSet(last, now)) {
+            return;
+        }
+        committedAtNanos.values().removeIf(committedAt -> now - committedAt > trackTtlNanos);
+    }
+
+    private long pruneIntervalNanos() {
+        return trackTtlNanos / 10;
+    }
+
+    public void recordPublished(TripOutbox event, String path) {
+        Long committedAt = committedAtNanos.remove(event.getId());
+        Duration latency;
+        if (committedAt != null) {
+            latency = Duration.ofNanos(System.nanoTime() - committedAt);
+        } else if (event.getCreatedAt() != null) {
+            latency = Duration.between(event.getCreatedAt(), LocalDateTime.now());
+        } else {
+            return;
+        }
+
+        Timer.builder("trip.outbox.commit_to_publish")
+             .description("Outbox 이벤트 커밋부터 Kafka ack 까지 걸린 시간")
+             .tag("path", path)
+             .publishPercentileHistogram()
+             .serviceLevelObjectives(SLO_BUCKETS)
+             .register(meterRegistry)
+             .record(latency);
+    }
+
+    // 선점부터 결과 반영까지 걸린 시간 (선점 만료 시각 설정의 기준)
+    public void recordLeaseAge(Duration age) {
+        Timer.builder("trip.outbox.lease.age")
+             .description("Outbox 배치 선점부터 결과 반영까지 걸린 시간")
+             .publishPercentileHistogram()
+             .register(meterRegistry)
+             .record(age);
+    }
+
+    // 샤드에서 READY 이벤트를 찾아 PUBLISHING 으로 선점하는 트랜잭션 시간
+    public void recordClaim(Duration duration) {
+        Timer.builder("trip.outbox.claim.duration")
+             .description("Outbox 배치 선점(SELECT ... FOR UPDATE SKIP LOCKED + UPDATE) 트랜잭션 시간")
+             .publishPercentileHistogram()
+             .register(meterRegistry)
+             .record(duration);
+    }
+
+    // send 호출부터 브로커 ack(또는 실패)까지
+    public void recordSend(long startNanos, boolean success) {
+        Timer.builder("trip.outbox.send.duration")
+             .description("Outbox 이벤트 Kafka 전송부터 ack 까지 걸린 시간")
+             .tag("result", success ? "success" : "failure")
+             .publishPercentileHistogram()
+             .serviceLevelObjectives(SLO_BUCKETS)
+             .register(meterRegistry)
+             .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    // 전송 실패(또는 앞선 같은 여정 이벤트 실패)로 READY 로 되돌린 건수
+    public void countRetried(int count) {
+        meterRegistry.counter("trip.outbox.retried").increment(count);
+    }
+
+    public void countLeaseRenewed(int count) {
+        meterRegistry.counter("trip.outbox.lease.renewed").increment(count);
+    }
+
+    public void countRescued(int count) {
+        meterRegistry.counter("trip.outbox.lease.rescued").increment(count);
+    }
+
+    // 단위가 파티션 수이므로 행 수(cleanup.deleted)와 섞지 않고 따로 셈
+    public void countPartitionDropped() {
+        meterRegistry.counter("trip.outbox.cleanup.partitions.dropped").increment();
+    }
+
+    // 청크 삭제로 지운 행 수
+    public void countChunkDeleted(int count) {
+        meterRegistry.counter("trip.outbox.cleanup.deleted", "method", "chunk").increment(count);
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.kafka.dto.DriverArrivedEvent;
+import com.example.trip_service.kafka.dto.TripCanceledEvent;
+import com.example.trip_service.kafka.dto.TripCompletedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outbox 이벤트 저장 형식 (trip_outbox.payload_data)
+// 첫 바이트: 하위 4비트 = 인코딩(1: JSON UTF-8, 2: 바이너리), 0x80 = zstd 압축 여부
+// - JSON: Kafka 로 보내는 형식과 같으므로 릴레이가 다시 직렬화하지 않고 그대로 발행
+// - 바이너리: 알려진 이벤트 레코드만 [타입 ID][필드...] 로 저장. 발행 시 레코드로 복원 후 JSON 으로 변환
+// - 압축: 설정 크기 이상이고 실제로 작아질 때만 적용 (작은 이벤트는 zstd 프레임 헤더 때문에 오히려 커짐)
+@Component
+public class OutboxPayloadCodec {
+
+    static final byte FORMAT_JSON = 0x01;
+    static final byte FORMAT_BINARY = 0x02;
+    static final byte FLAG_ZSTD = (byte) 0x80;
+
+    // 바이너리 타입 ID = 목록 순서 + 1. 저장된 행을 읽어야 하므로 뒤에 추가만 할 것
+    private static final List<Class<? extends Record>> BINARY_TYPES = List.of(
+            DriverArrivedEvent.class,
+            TripCompletedEvent.class,
+            TripCanceledEvent.class
+    );
+
+    private record RecordLayout(int typeId, RecordComponent[] components, Constructor<? extends Record> constructor) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+    private final boolean zstd;
+    private final int compressionMinBytes;
+    private final int compressionLevel;
+    private final Map<Class<?>, RecordLayout> layoutsByType = new HashMap<>();
+    private final Map<Integer, RecordLayout> layoutsById = new HashMap<>();
+
+    public OutboxPayloadCodec(ObjectMapper objectMapper,
+                              @Value("${trip.outbox.payload.encoding:json}") String encoding,
+                              @Value("${trip.outbox.payload.compression:none}") String compression,
+                              @Value("${trip.outbox.payload.compression-min-bytes:256}") int compressionMinBytes,
+                              @Value("${trip.outbox.payload.compression-level:3}") int compressionLevel) {
+        this.objectMapper = objectMapper;
+        this.binary = switch (encoding.toLowerCase()) {
+            case "json" -> false;
+            case "binary" -> true;
+            default -> throw new IllegalArgumentException("지원하지 않는 Outbox 인코딩: " + encoding);
+        };
+        this.zstd = switch (compression.toLowerCase()) {
+            case "none" -> false;
+            case "zstd" -> true;
+            default -> throw new IllegalArgumentException("지원하지 않는 Outbox 압축 방식: " + compression);
+        };
+        this.compressionMinBytes = compressionMinBytes;
+        this.compressionLevel = compressionLevel;
+
+        for (int i = 0; i < BINARY_TYPES.size(); i++) {
+            RecordLayout layout = layoutOf(i + 1, BINARY_TYPES.get(i));
+            layoutsByType.put(BINARY_TYPES.get(i), layout);
+            layoutsById.put(layout.typeId(), layout);
+        }
+    }
+
+    public byte[] encode(Object event) {
+        RecordLayout layout = binary ? layoutsByType.get(event.getClass()) : null;
+        byte format;
+        byte[] body;
+        if (layout != null) {
+            format = FORMAT_BINARY;
+            body = writeBinary(layout, (Record) event);
+        } else {
+            // 바이너리 형식이 없는 이벤트는 JSON 으로 저장
+            format = FORMAT_JSON;
+            body = toJsonBytes(event);
+        }
+
+        if (zstd && body.length >= compressionMinBytes) {
+            byte[] compressed = Zstd.compress(body, compressionLevel);
+            Writer writer = new Writer(compressed.length + 6);
+            writer.writeByte(format | FLAG_ZSTD);
+            writer.writeVarLong(body.length);
+            writer.writeBytes(compressed);
+            if (writer.size() < body.length + 1) {
+                return writer.toByteArray();
+            }
+        }
+
+        byte[] stored = new byte[body.length + 1];
+        stored[0] = format;
+        System.arraycopy(body, 0, stored, 1, body.length);
+        return stored;
+    }
+
+    // Kafka 로 보낼 JSON. 코덱 도입 전 행은 payload(JSON 텍스트)를 그대로 사용
+    public String toWire(TripOutbox outbox) {
+        byte[] data = outbox.getPayloadData();
+        if (data == null) {
+            return outbox.getPayload();
+        }
+        if (data.length == 0) {
+            throw new IllegalStateException("비어있는 Outbox payload. ID: " + outbox.getId());
+        }
+
+        byte header = data[0];
+        int format = header & 0x0F;
+        if ((header & FLAG_ZSTD) == 0 && format == FORMAT_JSON) {
+            return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+        }
+
+        byte[] body;
+        if ((header & FLAG_ZSTD) != 0) {
+            Reader reader = new Reader(data, 1);
+            int originalSize = (int) reader.readVarLong();
+            body = Zstd.decompress(Arrays.copyOfRange(data, reader.position, data.length), originalSize);
+        } else {
+            body = Arrays.copyOfRange(data, 1, data.length);
+        }
+
+        return switch (format) {
+            case FORMAT_JSON -> new String(body, StandardCharsets.UTF_8);
+            case FORMAT_BINARY -> toJson(readBinary(body));
+            default -> throw new IllegalStateException("알 수 없는 Outbox payload 형식: " + format + ", ID: " + outbox.getId());
+        };
+    }
+
+    private byte[] writeBinary(RecordLayout layout, Record event) {
+        Writer writer = new Writer(64);
+        writer.writeByte(layout.typeId());
+        try {
+            for (RecordComponent component : layout.components()) {
+                writeValue(writer, component.getType(), component.getAccessor().invoke(event));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Outbox 이벤트 인코딩 실패: " + event.getClass().getSimpleName(), e);
+        }
+        return writer.toByteArray();
+    }
+
+    private Object readBinary(byte[] body) {
+        Reader reader = new Reader(body, 0);
+        RecordLayout layout = layoutsById.get(reader.readByte());
+        if (layout == null) {
+            throw new IllegalStateException("알 수 없는 Outbox 이벤트 타입 ID: " + body[0]);
+        }
+
+        RecordComponent[] components = layout.components();
+        Object[] values = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            values[i] = readValue(reader, components[i].getType());
+        }
+        try {
+            return layout.constructor().newInstance(values);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Outbox 이벤트 복원 실패: " + layout.constructor().getDeclaringClass().getSimpleName(), e);
+        }
+    }
+
+    // 값 앞에 null 여부 표시 (문자열은 길이+1, 0 이면 null)
+    private static void writeValue(Writer writer, Class<?> type, Object value) {
+        if (type == String.class) {
+            if (value == null) {
+                writer.writeVarLong(0);
+            } else {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                writer.writeVarLong(bytes.length + 1L);
+                writer.writeBytes(bytes);
+            }
+            return;
+        }
+
+        if (value == null) {
+            writer.writeByte(0);
+            return;
+        }
+        writer.writeByte(1);
+        if (type == Integer.class || type == Long.class) {
+            writer.writeZigZag(((Number) value).longValue());
+        } else if (type == LocalDateTime.class) {
+            LocalDateTime time = (LocalDateTime) value;
+            writer.writeZigZag(time.toEpochSecond(ZoneOffset.UTC));
+            writer.writeVarLong(time.getNano());
+        } else {
+            throw new IllegalStateException("바이너리 인코딩을 지원하지 않는 필드 타입: " + type.getName());
+        }
+    }
+
+    private static Object readValue(Reader reader, Class<?> type) {
+        if (type == String.class) {
+            int length = (int) reader.readVarLong();
+            return length == 0 ? null : reader.readString(length - 1);
+        }
+
+        if (reader.readByte() == 0) {
+            return null;
+        }
+        if (type == Integer.class) {
+            return (int) reader.readZigZag();
+        }
+        if (type == Long.class) {
+            return reader.readZigZag();
+        }
+        long epochSecond = reader.readZigZag();
+        return LocalDateTime.ofEpochSecond(epochSecond, (int) reader.readVarLong(), ZoneOffset.UTC);
+    }
+
+    // 기동 시점에 지원하지 않는 필드 타입이 있으면 바로 실패 (발행 시점에 발견되지 않도록)
+    private static RecordLayout layoutOf(int typeId, Class<? extends Record> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Class<?> fieldType = components[i].getType();
+            if (fieldType != String.class && fieldType != Integer.class && fieldType != Long.class
+                    && fieldType != LocalDateTime.class) {
+                throw new IllegalStateException("바이너리 인코딩을 지원하지 않는 필드: " + type.getSimpleName() + "." + components[i].getName());
+            }
+            parameterTypes[i] = fieldType;
+        }
+        try {
+            return new RecordLayout(typeId, components, type.getDeclaredConstructor(parameterTypes));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("레코드 생성자를 찾을 수 없습니다: " + type.getName(), e);
+        }
+    }
+
+    private byte[] toJsonBytes(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON 변환 실패", e);
+        }
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON 변환 실패", e);
+        }
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        private Writer(int size) {
+            super(size);
+        }
+
+        private void writeByte(int value) {
+            write(value);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Reader(byte[] data, int offset) {
+            this.buffer = ByteBuffer.wrap(data);
+            this.position = offset;
+        }
+
+        private int readByte() {
+            return buffer.get(position++) & 0xFF;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("잘못된 varint");
+        }
+
+        private long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private String readString(int length) {
+            String value = new String(buffer.array(), position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.repository.TripOutboxPartitionRepository;
+import com.example.trip_service.repository.TripOutboxPartitionRepository.DailyPartition;
+import com.example.trip_service.repository.TripOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 발행 완료 Outbox 이벤트 정리
+// 1) 일 단위 파티션 테이블이면 보관 기간이 지난 파티션을 통째로 DROP 하고, 미래 날짜 파티션을 미리 만들어 둠
+// 2) 파티션이 없거나(전환 전/H2) 미발행 이벤트가 남아 DROP 하지 못한 날짜는 청크 단위 DELETE
+//    한 번에 batch-size 건씩 짧은 트랜잭션으로 지우고 쉬어가며, 선점 쿼리(FOR UPDATE SKIP LOCKED)와 잠금 경합을 줄임
+@Component
+@Slf4j
+public class OutboxRetentionJob {
+
+    private final TripOutboxRepository outboxRepository;
+    private final TripOutboxPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxMetrics outboxMetrics;
+    private final int retentionDays;
+    private final int partitionDaysAhead;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration maxDuration;
+
+    public OutboxRetentionJob(TripOutboxRepository outboxRepository,
+                              TripOutboxPartitionRepository partitionRepository,
+                              TransactionTemplate transactionTemplate,
+                              OutboxMetrics outboxMetrics,
+                              @Value("${trip.outbox.retention.days:3}") int retentionDays,
+                              @Value("${trip.outbox.retention.partition-days-ahead:3}") int partitionDaysAhead,
+                              @Value("${trip.outbox.retention.batch-size:1000}") int batchSize,
+                              @Value("${trip.outbox.retention.batch-pause:100ms}") Duration batchPause,
+                              @Value("${trip.outbox.retention.max-duration:10m}") Duration maxDuration) {
+        this.outboxRepository = outboxRepository;
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxMetrics = outboxMetrics;
+        this.retentionDays = retentionDays;
+        this.partitionDaysAhead = partitionDaysAhead;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxDuration = maxDuration;
+    }
+
+    // 파티션 DDL 은 한 인스턴스에서만 실행. 청크 삭제가 max-duration 까지 이어질 수 있어 잠금도 그보다 길게 유지
+    @Scheduled(cron = "${trip.outbox.retention.cron:0 0 3 * * *}")
+    @SchedulerLock(name = "Outbox_cleanupOldEvents", lockAtLeastFor = "PT30S", lockAtMostFor = "PT15M")
+    public void cleanupOldEvents() {
+        LocalDate today = LocalDate.now();
+        LocalDate firstRetainedDay = today.minusDays(retentionDays);
+
+        if (partitionRepository.isPartitioned()) {
+            managePartitions(today, firstRetainedDay);
+        }
+
+        long deleted = deleteInChunks(firstRetainedDay.atStartOfDay());
+        if (deleted > 0) {
+            log.info("🧹 [Outbox Cleanup] 처리 완료된 지 {}일 지난 이벤트 {}건을 청크 삭제했습니다.", retentionDays, deleted);
+        }
+    }
+
+    void managePartitions(LocalDate today, LocalDate firstRetainedDay) {
+        List<DailyPartition> partitions = partitionRepository.findDailyPartitions();
+
+        for (DailyPartition partition : partitions) {
+            if (!partition.day().isBefore(firstRetainedDay)) continue;
+
+            long unpublished = partitionRepository.countUnpublished(partition);
+            if (unpublished > 0) {
+                // 발행되지 않은 이벤트를 같이 버리지 않도록 남겨두고, DONE 행만 청크 삭제로 정리
+                log.warn("⚠️ [Outbox Cleanup] 파티션 {} 에 미발행 이벤트 {}건이 남아 DROP 을 미룹니다.", partition.name(), unpublished);
+                continue;
+            }
+            partitionRepository.dropPartition(partition);
+            outboxMetrics.countPartitionDropped();
+            log.info("🧹 [Outbox Cleanup] 보관 기간이 지난 파티션 {} 을 DROP 했습니다.", partition.name());
+        }
+
+        Set<LocalDate> existing = partitions.stream().map(DailyPartition::day).collect(Collectors.toSet());
+        LocalDate lastDay = partitions.isEmpty() ? today.minusDays(1) : partitions.get(partitions.size() - 1).day();
+        List<LocalDate> missing = today.datesUntil(today.plusDays(partitionDaysAhead + 1L))
+                                       .filter(day -> day.isAfter(lastDay) && !existing.contains(day))
+                                       .toList();
+        if (!missing.isEmpty()) {
+            partitionRepository.addDailyPartitions(missing);
+            log.info("📅 [Outbox Cleanup] Outbox 파티션 {}개를 추가했습니다. ({} ~ {})",
+                    missing.size(), missing.get(0), missing.get(missing.size() - 1));
+        }
+    }
+
+    // 남은 건이 없거나 max-duration 이 지나면 멈춤 (남은 건은 다음 실행에서 이어서 삭제)
+    long deleteInChunks(LocalDateTime cutoff) {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long total = 0;
+
+        while (System.nanoTime() < deadline) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = outboxRepository.findDoneIdsCreatedBefore(cutoff, batchSize);
+                return ids.isEmpty() ? 0 : outboxRepository.deleteByIdsAndStatus(ids, OutboxStatus.DONE);
+            });
+            if (deleted == null || deleted == 0) break;
+
+            total += deleted;
+            outboxMetrics.countChunkDeleted(deleted);
+
+            try {
+                Thread.sleep(batchPause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
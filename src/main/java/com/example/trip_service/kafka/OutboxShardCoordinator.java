@@ -0,0 +1,310 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.OutboxShardLeaseStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Outbox 샤드(TripOutbox.SHARD_COUNT 개)를 살아있는 릴레이 인스턴스들에 나눠 맡기고, 맡은 샤드마다 발행 워커 1개를 실행
+// - 인스턴스별 몫 = ceil(샤드 수 / 살아있는 릴레이 수). 몫보다 많으면 반납, 적으면 빈 샤드를 가져감
+// - 샤드 하나는 한 워커만 발행하므로 같은 여정 이벤트는 순서대로 나가고, 처리량은 인스턴스 수에 비례
+// - 커밋 직후 알림(nudge)을 받으면 바로 발행, 없으면 빈 폴링마다 간격을 두 배로 늘리며 폴링
+// - 샤드를 내놓을 때는 워커에 중단만 요청하고, 진행 중인 배치가 끝나 워커가 종료될 때 반납 (그동안 임대는 계속 연장)
+@Component
+@Slf4j
+public class OutboxShardCoordinator {
+
+    private final OutboxShardLeaseStore leaseStore;
+    private final OutboxMessageRelay relay;
+    private final String instanceId;
+    private final Duration leaseTtl;
+    private final long minPollIntervalMs;
+    private final long maxPollIntervalMs;
+
+    private final Map<Integer, ShardWorker> workers = new ConcurrentHashMap<>();
+    // 중단을 요청했지만 진행 중인 배치를 마무리하고 있는 워커
+    private final Map<Integer, ShardWorker> draining = new ConcurrentHashMap<>();
+    private final AtomicInteger workerSequence = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-shard-" + workerSequence.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final MeterRegistry meterRegistry;
+    private Disposable nudgeSubscription;
+
+    // 종료 시 워커가 진행 중인 배치를 마무리할 때까지 기다리는 최대 시간 (server.shutdown 대기 시간과 같음)
+    private static final Duration SHUTDOWN_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    public OutboxShardCoordinator(OutboxShardLeaseStore leaseStore,
+                                  OutboxMessageRelay relay,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${trip.outbox.shard.instance-id:${HOSTNAME:}}") String instanceId,
+                                  @Value("${trip.outbox.shard.lease-ttl:10s}") Duration leaseTtl,
+                                  @Value("${trip.outbox.relay.poll.min-interval-ms:500}") long minPollIntervalMs,
+                                  @Value("${trip.outbox.relay.poll.max-interval-ms:5000}") long maxPollIntervalMs) {
+        this.leaseStore = leaseStore;
+        this.relay = relay;
+        this.meterRegistry = meterRegistry;
+        // 같은 호스트에서 재기동해도 이전 임대와 구분되도록 임의 접미사를 붙임
+        this.instanceId = (instanceId == null || instanceId.isBlank() ? "relay" : instanceId)
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.leaseTtl = leaseTtl;
+        this.minPollIntervalMs = minPollIntervalMs;
+        this.maxPollIntervalMs = maxPollIntervalMs;
+
+        Gauge.builder("trip.outbox.shard.owned", workers, Map::size)
+             .description("이 인스턴스가 발행을 맡은 Outbox 샤드 수")
+             .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        nudgeSubscription = leaseStore.subscribeNudges(this::wakeIfOwned);
+    }
+
+    // 종료 시 샤드를 바로 반납해 다른 인스턴스가 임대 만료를 기다리지 않고 이어받도록 함
+    @PreDestroy
+    void stop() {
+        if (nudgeSubscription != null) {
+            nudgeSubscription.dispose();
+        }
+        for (Integer shard : new ArrayList<>(workers.keySet())) {
+            stopWorker(shard, true);
+        }
+        awaitDrained();
+        try {
+            leaseStore.leave(instanceId);
+        } catch (Exception e) {
+            log.warn("Outbox 릴레이 생존 목록 제거 실패. Error: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${trip.outbox.shard.rebalance-interval-ms:2000}")
+    public void rebalance() {
+        try {
+            leaseStore.heartbeat(instanceId, leaseTtl);
+
+            // 1. 임대 연장. 실패한 샤드는 이미 다른 인스턴스가 가져간 것이므로 발행 중단
+            for (Integer shard : new ArrayList<>(workers.keySet())) {
+                if (!leaseStore.renew(shard, instanceId, leaseTtl)) {
+                    log.warn("⚠️ [Outbox-Shard] 샤드 {} 임대를 잃어 발행을 중단합니다.", shard);
+                    stopWorker(shard, false);
+                    count("lost");
+                }
+            }
+            renewDraining();
+
+            int liveRelays = Math.max(1, leaseStore.liveOwners().size());
+            int fairShare = (TripOutbox.SHARD_COUNT + liveRelays - 1) / liveRelays;
+
+            // 2. 몫보다 많이 가진 샤드 반납 (새 인스턴스가 가져가도록)
+            List<Integer> owned = new ArrayList<>(new TreeSet<>(workers.keySet()));
+            for (int i = owned.size() - 1; i >= fairShare; i--) {
+                stopWorker(owned.get(i), true);
+                count("released");
+            }
+
+            // 3. 몫보다 적으면 빈 샤드를 가져감. 인스턴스마다 시작 위치를 달리해 같은 샤드를 두고 경합하지 않도록 함
+            int offset = Math.floorMod(instanceId.hashCode(), TripOutbox.SHARD_COUNT);
+            for (int i = 0; i < TripOutbox.SHARD_COUNT && workers.size() < fairShare; i++) {
+                int shard = (offset + i) % TripOutbox.SHARD_COUNT;
+                if (!workers.containsKey(shard) && !draining.containsKey(shard)
+                        && leaseStore.tryAcquire(shard, instanceId, leaseTtl)) {
+                    startWorker(shard);
+                    count("acquired");
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ [Outbox-Shard] 샤드 재분배 실패. 보유 중인 샤드는 계속 발행합니다. Error: {}", e.getMessage(), e);
+        }
+    }
+
+    // 트랜잭션 커밋 직후 호출. 내가 맡은 샤드면 워커를 바로 깨우고, 아니면 소유 인스턴스에 알림
+    public void nudge(int shard) {
+        if (wakeIfOwned(shard)) {
+            return;
+        }
+        try {
+            leaseStore.publishNudge(shard);
+        } catch (Exception e) {
+            log.warn("Outbox 샤드 알림 실패 (다음 폴링 때 발행). Shard: {}, Error: {}", shard, e.getMessage());
+        }
+    }
+
+    public Set<Integer> ownedShards() {
+        return Set.copyOf(workers.keySet());
+    }
+
+    public boolean owns(int shard) {
+        return workers.containsKey(shard);
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    private boolean wakeIfOwned(int shard) {
+        ShardWorker worker = workers.get(shard);
+        if (worker == null) {
+            return false;
+        }
+        worker.wake();
+        return true;
+    }
+
+    private void startWorker(int shard) {
+        ShardWorker worker = new ShardWorker(shard);
+        executor.submit(worker);
+        workers.put(shard, worker);
+        log.info("🧩 [Outbox-Shard] 샤드 {} 발행 시작 | 인스턴스: {}", shard, instanceId);
+    }
+
+    // 진행 중인 배치가 끝난 뒤 반납해야 다음 소유자가 같은 여정 이벤트를 앞질러 보내지 않음
+    // 배치는 전송 대기로 최대 수 분 걸릴 수 있으므로 기다리지 않고 중단만 요청 -> 워커가 종료될 때 반납 (rebalance 가 막히지 않음)
+    private void stopWorker(int shard, boolean release) {
+        ShardWorker worker = workers.remove(shard);
+        if (worker == null) {
+            return;
+        }
+        worker.releaseOnExit = release;
+        draining.put(shard, worker);
+        worker.running = false;
+        worker.wake();
+    }
+
+    // 마무리 중인 워커의 샤드는 반납 전까지 계속 내 임대여야 함. 연장에 실패하면 이미 다른 인스턴스가 가져간 것이므로 반납하지 않음
+    private void renewDraining() {
+        draining.forEach((shard, worker) -> {
+            if (worker.releaseOnExit && !leaseStore.renew(shard, instanceId, leaseTtl) && draining.get(shard) == worker) {
+                worker.releaseOnExit = false;
+                log.warn("⚠️ [Outbox-Shard] 마무리 중인 샤드 {} 임대를 잃었습니다.", shard);
+                count("lost");
+            }
+        });
+    }
+
+    private void awaitDrained() {
+        long deadline = System.nanoTime() + SHUTDOWN_DRAIN_TIMEOUT.toNanos();
+        long renewIntervalNanos = leaseTtl.toNanos() / 3;
+        long nextRenew = System.nanoTime() + renewIntervalNanos;
+        while (!draining.isEmpty() && System.nanoTime() < deadline) {
+            if (System.nanoTime() >= nextRenew) {
+                try {
+                    renewDraining();
+                } catch (Exception e) {
+                    log.warn("Outbox 샤드 임대 연장 실패. Error: {}", e.getMessage());
+                }
+                nextRenew = System.nanoTime() + renewIntervalNanos;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!draining.isEmpty()) {
+            log.warn("Outbox 샤드 {} 워커가 종료 대기 시간 안에 끝나지 않았습니다.", draining.keySet());
+        }
+    }
+
+    private void release(int shard) {
+        try {
+            leaseStore.release(shard, instanceId);
+        } catch (Exception e) {
+            log.warn("Outbox 샤드 {} 반납 실패 (임대 만료 후 다른 인스턴스가 가져감). Error: {}", shard, e.getMessage());
+        }
+        log.info("🧩 [Outbox-Shard] 샤드 {} 반납 | 인스턴스: {}", shard, instanceId);
+    }
+
+    private void count(String action) {
+        meterRegistry.counter("trip.outbox.shard.rebalance", "action", action).increment();
+    }
+
+    private class ShardWorker implements Runnable {
+
+        private final int shard;
+        private final Semaphore signal = new Semaphore(0);
+        private volatile boolean running = true;
+        private volatile boolean releaseOnExit;
+        private volatile boolean nudged;
+
+        private ShardWorker(int shard) {
+            this.shard = shard;
+        }
+
+        private void wake() {
+            nudged = true;
+            signal.release();
+        }
+
+        @Override
+        public void run() {
+            try {
+                publishUntilStopped();
+            } finally {
+                draining.remove(shard, this);
+                if (releaseOnExit) {
+                    release(shard);
+                }
+            }
+        }
+
+        private void publishUntilStopped() {
+            long idleIntervalMs = minPollIntervalMs;
+            while (running) {
+                String path = nudged ? "dispatch" : "poll";
+                nudged = false;
+                signal.drainPermits();
+
+                long waitMs = idleIntervalMs;
+                try {
+                    int claimed = relay.publishShard(shard, instanceId, path);
+                    if (claimed >= OutboxMessageRelay.BATCH_SIZE) {
+                        // 밀린 이벤트가 더 있을 수 있으므로 바로 다음 배치
+                        idleIntervalMs = minPollIntervalMs;
+                        continue;
+                    }
+                    if (claimed > 0) {
+                        idleIntervalMs = minPollIntervalMs;
+                        waitMs = minPollIntervalMs;
+                    } else {
+                        idleIntervalMs = Math.min(idleIntervalMs * 2, maxPollIntervalMs);
+                    }
+                } catch (Exception e) {
+                    log.error("❌ [Outbox-Shard] 샤드 {} 발행 실패. 다음 주기에 재시도합니다. Error: {}", shard, e.getMessage(), e);
+                }
+
+                try {
+                    signal.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,59 +2,117 @@ package com.example.trip_service.kafka;
 
 import com.example.trip_service.entity.FailedEvent;
 import com.example.trip_service.entity.FailedEventStatus;
-import com.example.trip_service.repository.FailedEventRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.trip_service.repository.FailedEventBatchRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// DLT 메시지를 failed_event 로 적재 (관리자 재발행 대상)
+// - 배치 리스너: poll 한 번의 레코드를 insert-chunk-size 단위 다중 행 INSERT 로 저장
+// - 데이터 오류(제약 위반, 길이 초과)로 INSERT 가 실패하면 그 청크만 한 행씩 다시 저장해 문제 행(poison)만 로그를 남기고 건너뜀
+// - 커넥션 실패/일시 오류는 BatchListenerFailedException 으로 던져 앞 청크까지만 커밋하고, 에러 핸들러 백오프 후 실패한 청크부터 다시 받음
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class TripEventDltConsumer {
 
-    private final FailedEventRepository failedEventRepository;
+    public static final String MATCHING_DLT = "matching_events.DLT";
+    public static final String PAYMENT_DLT = "payment_events.DLT";
+    public static final String DRIVER_LOCATION_DLT = "driver_location_events.DLT";
+    // 컨슈머 수를 파티션 수로 정할 때 조회 대상 (KafkaConsumerConfig)
+    public static final List<String> TOPICS = List.of(MATCHING_DLT, PAYMENT_DLT, DRIVER_LOCATION_DLT);
+
+    private final FailedEventBatchRepository failedEventBatchRepository;
+    private final int insertChunkSize;
+
+    public TripEventDltConsumer(FailedEventBatchRepository failedEventBatchRepository,
+                                @Value("${trip.failed-event.dlt.insert-chunk-size:500}") int insertChunkSize) {
+        this.failedEventBatchRepository = failedEventBatchRepository;
+        this.insertChunkSize = Math.max(1, insertChunkSize);
+    }
 
     @KafkaListener(
-            topics = {
-                    "matching_events.DLT",
-                    "payment_events.DLT",
-                    "driver_location_events.DLT"
-            },
+            topics = {MATCHING_DLT, PAYMENT_DLT, DRIVER_LOCATION_DLT},
             groupId = "${spring.kafka.consumer.group-id}.dlt",
             containerFactory = "dltKafkaListenerContainerFactory"
     )
-    @Transactional
-    public void consumeDlt(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String originalDltTopic,
-            @Header(value = KafkaHeaders.RECEIVED_KEY, required = false) String key,
-            @Header(value = "kafka_dlt_exception_message", required = false) String exceptionMessage
-    ) {
-        log.warn("[DLT 수신] 토픽: {}, 메시지: {}", originalDltTopic, message);
-
-        if (exceptionMessage == null) {
-            exceptionMessage = "Unknown Error";
+    public void consumeDlt(List<ConsumerRecord<String, String>> records) {
+        List<FailedEvent> events = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, String>> sources = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                log.error("🚨 [DLT 처리 실패] payload 가 없는 레코드. 건너뜁니다. topic={} / partition={} / offset={}",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            log.debug("[DLT 수신] 토픽: {}, 메시지: {}", record.topic(), record.value());
+            events.add(toFailedEvent(record));
+            sources.add(record);
         }
 
-        FailedEvent failedEvent = FailedEvent.builder()
-                                             .topic(originalDltTopic)
-                                             .kafkaKey(key)
-                                             .payload(message)
-                                             .errorMessage(truncate(exceptionMessage, 1000))
-                                             .status(FailedEventStatus.PENDING)
-                                             .build();
+        int saved = 0;
+        for (int from = 0; from < events.size(); from += insertChunkSize) {
+            int to = Math.min(from + insertChunkSize, events.size());
+            saved += saveChunk(events.subList(from, to), sources.subList(from, to));
+        }
+        log.warn("[DLT 수신] {}건 적재 (수신 {}건)", saved, records.size());
+    }
+
+    private int saveChunk(List<FailedEvent> chunk, List<ConsumerRecord<String, String>> sources) {
+        try {
+            return failedEventBatchRepository.insertAll(chunk);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("⚠️ [DLT 적재] {}건 일괄 INSERT 실패. 한 건씩 다시 저장합니다. Error: {}", chunk.size(), e.getMessage());
+        } catch (RuntimeException e) {
+            throw redeliverFrom(sources.get(0), e);
+        }
+
+        int saved = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            FailedEvent event = chunk.get(i);
+            try {
+                saved += failedEventBatchRepository.insertAll(List.of(event));
+            } catch (DataIntegrityViolationException e) {
+                log.error("🚨 [DLT 처리 실패] DB 저장 불가. 로그만 남기고 넘어갑니다. Topic: {}, Payload: {}",
+                        event.getTopic(), event.getPayload(), e);
+            } catch (RuntimeException e) {
+                throw redeliverFrom(sources.get(i), e);
+            }
+        }
+        return saved;
+    }
+
+    // 데이터 문제가 아니므로 건너뛰지 않음. 이 레코드 앞까지는 저장되었으므로 여기서부터 다시 받음
+    private BatchListenerFailedException redeliverFrom(ConsumerRecord<String, String> record, RuntimeException cause) {
+        log.warn("⚠️ [DLT 적재] DB 오류로 저장 중단. 백오프 후 다시 받습니다. topic={} / partition={} / offset={} / Error: {}",
+                record.topic(), record.partition(), record.offset(), cause.getMessage());
+        return new BatchListenerFailedException("DLT 적재 실패: " + cause.getMessage(), cause, record);
+    }
 
-        failedEventRepository.save(failedEvent);
+    private FailedEvent toFailedEvent(ConsumerRecord<String, String> record) {
+        Header exceptionMessage = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        return FailedEvent.builder()
+                          .topic(record.topic())
+                          .kafkaKey(record.key())
+                          .payload(record.value())
+                          .errorMessage(truncate(exceptionMessage == null || exceptionMessage.value() == null
+                                  ? "Unknown Error"
+                                  : new String(exceptionMessage.value(), StandardCharsets.UTF_8), 1000))
+                          .status(FailedEventStatus.PENDING)
+                          .build();
     }
 
     private String truncate(String str, int max) {
         if (str == null) return "";
         return str.length() > max ? str.substring(0, max) : str;
     }
-}
\ No newline at end of file
+}
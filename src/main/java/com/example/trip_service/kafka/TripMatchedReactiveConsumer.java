@@ -4,9 +4,11 @@ import com.example.trip_service.kafka.dto.TripMatchedEvent;
 import com.example.trip_service.service.TripService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
 import org.springframework.stereotype.Component;
@@ -17,9 +19,11 @@ import reactor.kafka.receiver.ReceiverRecord;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// 같은 tripId 레코드는 항상 같은 레인(tripId 해시)으로 보내 순서대로 처리하고, 레인끼리는 병렬 처리
+// 오프셋은 ack만 하고 실제 커밋은 ReceiverOptions(commitInterval/commitBatchSize/maxDeferredCommits) 설정에 따라 묶어서 수행
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class TripMatchedReactiveConsumer implements CommandLineRunner, DisposableBean {
 
@@ -27,39 +31,81 @@ public class TripMatchedReactiveConsumer implements CommandLineRunner, Disposabl
     private final TripService tripService;
     private final ReactiveKafkaProducerTemplate<String, String> reactiveKafkaProducerTemplate;
     private final ObjectMapper objectMapper;
+    private final int lanes;
+
+    // 수신했지만 아직 ack 되지 않은 레코드 수
+    private final AtomicInteger inFlight = new AtomicInteger();
     private Disposable subscription;
 
+    private record ParsedRecord(ReceiverRecord<String, String> record, TripMatchedEvent event) {
+        // 파싱 실패 레코드는 Kafka 키 기준으로 레인 배정 (어차피 스킵되므로 순서 의미 없음)
+        String orderingKey() {
+            if (event != null && event.tripId() != null) return event.tripId();
+            return record.key() != null ? record.key() : "";
+        }
+    }
+
+    public TripMatchedReactiveConsumer(KafkaReceiver<String, String> tripMatchedKafkaReceiver,
+                                       TripService tripService,
+                                       ReactiveKafkaProducerTemplate<String, String> reactiveKafkaProducerTemplate,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${trip.matched.consumer.lanes:256}") int lanes) {
+        this.tripMatchedKafkaReceiver = tripMatchedKafkaReceiver;
+        this.tripService = tripService;
+        this.reactiveKafkaProducerTemplate = reactiveKafkaProducerTemplate;
+        this.objectMapper = objectMapper;
+        this.lanes = lanes;
+
+        Gauge.builder("trip.matched.consumer.in.flight", inFlight, AtomicInteger::get)
+             .description("수신 후 아직 처리(ack)되지 않은 배차 이벤트 수")
+             .register(meterRegistry);
+    }
+
     @Override
     public void run(String... args) {
-        log.info("🚀 [Reactive Kafka] 배차 이벤트 리스너 시작 (Concurrency: 256, Manual Parsing)");
+        log.info("🚀 [Reactive Kafka] 배차 이벤트 리스너 시작 (Lanes: {}, tripId 단위 순차 처리)", lanes);
 
         this.subscription = tripMatchedKafkaReceiver.receive()
-                                                    .flatMap(record -> {
-                                                        return processRecord(record)
-                                                                // 메인 스트림 구독 끊김을 방지하는 최상위 방어막 추가
-                                                                .onErrorResume(e -> {
-                                                                    log.error("🔥 [Critical] 처리 중 잡히지 않은 최상위 예외 발생. 스트림 보호를 위해 스킵합니다. Payload: {}", record.value(), e);
-                                                                    return Mono.empty();
-                                                                })
-                                                                .doOnSuccess(v -> record.receiverOffset().acknowledge());
-                                                    }, 256)
+                                                    .doOnNext(record -> inFlight.incrementAndGet())
+                                                    .map(this::parse)
+                                                    .groupBy(parsed -> Math.floorMod(parsed.orderingKey().hashCode(), lanes))
+                                                    // 레인 수만큼 동시 구독해야 groupBy가 멈추지 않음. 레인 안에서는 concatMap으로 순차 처리
+                                                    .flatMap(lane -> lane.concatMap(this::processAndAck), lanes)
                                                     .subscribe(
                                                             null,
                                                             e -> log.error("💀 [Fatal Error] Consumer 구독이 비정상 종료되었습니다. 앱 재시작이 필요합니다.", e)
                                                     );
     }
 
-    private Mono<Void> processRecord(ReceiverRecord<String, String> record) {
-        TripMatchedEvent event;
-
+    private ParsedRecord parse(ReceiverRecord<String, String> record) {
         try {
-            String jsonPayload = record.value();
-            event = objectMapper.readValue(jsonPayload, TripMatchedEvent.class);
-        } catch (JsonProcessingException e) {
+            return new ParsedRecord(record, objectMapper.readValue(record.value(), TripMatchedEvent.class));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
             log.error("🗑️ [Bad Request] JSON 파싱 실패. 메시지를 스킵합니다. Payload: {}", record.value());
+            return new ParsedRecord(record, null);
+        }
+    }
+
+    private Mono<Void> processAndAck(ParsedRecord parsed) {
+        ReceiverRecord<String, String> record = parsed.record();
+
+        return processRecord(parsed)
+                // 메인 스트림 구독 끊김을 방지하는 최상위 방어막 추가
+                .onErrorResume(e -> {
+                    log.error("🔥 [Critical] 처리 중 잡히지 않은 최상위 예외 발생. 스트림 보호를 위해 스킵합니다. Payload: {}", record.value(), e);
+                    return Mono.empty();
+                })
+                .doOnSuccess(v -> record.receiverOffset().acknowledge())
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private Mono<Void> processRecord(ParsedRecord parsed) {
+        ReceiverRecord<String, String> record = parsed.record();
+        TripMatchedEvent event = parsed.event();
+
+        if (event == null) {
             return Mono.empty();
-        } catch (Exception e) {
-            return Mono.error(e);
         }
 
         return Mono.defer(() -> tripService.createTripFromEvent(event))
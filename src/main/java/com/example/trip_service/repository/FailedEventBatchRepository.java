@@ -0,0 +1,43 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.entity.FailedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// DLT 적재용 다중 행 INSERT (IDENTITY 키라 JPA saveAll 은 행마다 INSERT 를 따로 보냄)
+@Repository
+@RequiredArgsConstructor
+public class FailedEventBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO failed_event (topic, kafka_key, payload, error_message, status, created_at, updated_at) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // events 전체를 INSERT 한 번으로 저장. 한 행이라도 실패하면 전부 저장되지 않음
+    public int insertAll(List<FailedEvent> events) {
+        if (events.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> args = new ArrayList<>(events.size() * 7);
+        for (FailedEvent event : events) {
+            args.add(event.getTopic());
+            args.add(event.getKafkaKey());
+            args.add(event.getPayload());
+            args.add(event.getErrorMessage());
+            args.add(event.getStatus().name());
+            args.add(now);
+            args.add(now);
+        }
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(events.size(), ROW_PLACEHOLDER));
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.entity.FailedEventReplayJob;
+import com.example.trip_service.entity.ReplayJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FailedEventReplayJobRepository extends JpaRepository<FailedEventReplayJob, Long> {
+
+    // 토픽의 진행 중(RUNNING/PAUSED) 작업
+    Optional<FailedEventReplayJob> findByActiveTopic(String topic);
+
+    List<FailedEventReplayJob> findAllByStatus(ReplayJobStatus status);
+
+    @Query("SELECT j.status FROM FailedEventReplayJob j WHERE j.id = :id")
+    Optional<ReplayJobStatus> findStatusById(@Param("id") Long id);
+
+    // 상태는 건드리지 않음 (실행 중에 들어온 pause/cancel 을 덮어쓰지 않도록)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE FailedEventReplayJob j SET j.lastEventId = :lastEventId, " +
+            "j.processedCount = j.processedCount + :processed, j.failedCount = j.failedCount + :failed, " +
+            "j.currentRate = :rate WHERE j.id = :id")
+    void recordProgress(@Param("id") Long id,
+                        @Param("lastEventId") long lastEventId,
+                        @Param("processed") long processed,
+                        @Param("failed") long failed,
+                        @Param("rate") double rate);
+
+    // RUNNING <-> PAUSED. from 상태일 때만 전이하고 바뀐 행 수(0 이면 이미 다른 상태)를 반환
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE FailedEventReplayJob j SET j.status = :to WHERE j.id = :id AND j.status IN :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<ReplayJobStatus> from,
+                   @Param("to") ReplayJobStatus to);
+
+    // CANCELED/COMPLETED. activeTopic 을 비워 같은 토픽의 새 작업을 받을 수 있게 함
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE FailedEventReplayJob j SET j.status = :to, j.activeTopic = null, j.finishedAt = :finishedAt " +
+            "WHERE j.id = :id AND j.status IN :from")
+    int finish(@Param("id") Long id,
+               @Param("from") Collection<ReplayJobStatus> from,
+               @Param("to") ReplayJobStatus to,
+               @Param("finishedAt") LocalDateTime finishedAt);
+}
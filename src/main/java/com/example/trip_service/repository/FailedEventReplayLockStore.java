@@ -0,0 +1,14 @@
+package com.example.trip_service.repository;
+
+import java.time.Duration;
+
+// 토픽별 재발행 단일 실행 잠금 (여러 인스턴스 중 한 곳에서만 같은 토픽을 재발행)
+public interface FailedEventReplayLockStore {
+
+    boolean tryAcquire(String topic, String owner, Duration ttl);
+
+    // 내 잠금일 때만 연장. 만료되어 다른 인스턴스로 넘어갔으면 false
+    boolean renew(String topic, String owner, Duration ttl);
+
+    void release(String topic, String owner);
+}
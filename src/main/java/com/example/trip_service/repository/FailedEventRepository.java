@@ -3,8 +3,7 @@ package com.example.trip_service.repository;
 
 import com.example.trip_service.entity.FailedEvent;
 import com.example.trip_service.entity.FailedEventStatus;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,10 +13,29 @@ import java.util.List;
 
 public interface FailedEventRepository extends JpaRepository<FailedEvent, Long> {
 
-    Slice<FailedEvent> findAllByTopicAndStatus(String topic, FailedEventStatus status, Pageable pageable);
+    // 키셋 페이징 (idx_failed_event_topic_status_id): 마지막으로 읽은 id 다음부터 읽으므로
+    // 재발행에 실패해 PENDING 으로 남은 건을 같은 재발행 안에서 다시 읽지 않음
+    @Query("""
+            select f from FailedEvent f
+             where f.topic = :topic and f.status = :status and f.id > :afterId
+             order by f.id
+            """)
+    List<FailedEvent> findReplayChunk(@Param("topic") String topic,
+                                      @Param("status") FailedEventStatus status,
+                                      @Param("afterId") long afterId,
+                                      Limit limit);
+
+    // 재발행 작업을 이어서 실행할 때 커서 이전에 실패/보류된 key (뒤 이벤트를 보내지 않아 순서 유지)
+    @Query("""
+            select distinct f.kafkaKey from FailedEvent f
+             where f.topic = :topic and f.status = :status and f.id <= :upToId and f.kafkaKey is not null
+            """)
+    List<String> findKafkaKeysUpTo(@Param("topic") String topic,
+                                   @Param("status") FailedEventStatus status,
+                                   @Param("upToId") long upToId);
 
     @Modifying(clearAutomatically = true)
     @Query("UPDATE FailedEvent f SET f.status = :status WHERE f.id IN :ids")
     void updateStatus(@Param("ids") List<Long> ids, @Param("status") FailedEventStatus status);
 
-}
\ No newline at end of file
+}
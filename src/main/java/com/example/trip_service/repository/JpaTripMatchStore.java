@@ -0,0 +1,62 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.service.JpaBlockingExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "trip.persistence.match-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaTripMatchStore implements TripMatchStore {
+
+    private final TripRepository tripRepository;
+    private final JpaBlockingExecutor jpaExecutor;
+
+    @Override
+    public Mono<Boolean> existsByTripId(String tripId) {
+        return jpaExecutor.call(() -> tripRepository.existsByTripId(tripId));
+    }
+
+    @Override
+    public Mono<Trip> insert(Trip trip) {
+        return jpaExecutor.call(() -> {
+            try {
+                return tripRepository.save(trip);
+            } catch (DataIntegrityViolationException e) {
+                // 아주 짧은 찰나에 동시 요청이 들어왔을 때를 대비한 2차 방어선
+                log.warn("동시성 이슈로 인한 중복 Trip ID 감지 (무시): {}", trip.getTripId());
+                return tripRepository.findByTripId(trip.getTripId()).orElse(trip);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Integer> applyEnrichment(String tripId, TripEnrichment enrichment) {
+        return jpaExecutor.call(() -> tripRepository.updateEnrichment(
+                tripId,
+                enrichment.originAddress(),
+                enrichment.destinationAddress(),
+                enrichment.userName(),
+                enrichment.driverName(),
+                enrichment.vehicleModel(),
+                enrichment.licensePlate(),
+                LocalDateTime.now()
+        ));
+    }
+
+    @Override
+    public Mono<TripDetailsRow> findDetails(String tripId) {
+        return jpaExecutor.call(() -> tripRepository.findDetailsByTripId(tripId))
+                          .flatMap(Mono::justOrEmpty);
+    }
+}
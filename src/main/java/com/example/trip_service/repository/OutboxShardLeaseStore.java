@@ -0,0 +1,32 @@
+package com.example.trip_service.repository;
+
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+// Outbox 샤드 임대(어느 릴레이 인스턴스가 어느 샤드를 발행하는지)와 릴레이 생존 목록 저장소
+// 임대는 TTL 이 있어 소유자가 죽으면 만료 후 다른 인스턴스가 가져감
+public interface OutboxShardLeaseStore {
+
+    // 비어있는 샤드만 가져감
+    boolean tryAcquire(int shard, String owner, Duration ttl);
+
+    // 아직 내 임대일 때만 연장. false 면 이미 만료되어 다른 인스턴스가 가져간 것
+    boolean renew(int shard, String owner, Duration ttl);
+
+    void release(int shard, String owner);
+
+    // 릴레이 생존 신호. 살아있는 릴레이 수로 인스턴스별 몫(샤드 수 / 릴레이 수)을 계산
+    void heartbeat(String owner, Duration ttl);
+
+    void leave(String owner);
+
+    Set<String> liveOwners();
+
+    // 다른 인스턴스가 소유한 샤드에 새 이벤트가 커밋되었음을 알림
+    void publishNudge(int shard);
+
+    Disposable subscribeNudges(IntConsumer listener);
+}
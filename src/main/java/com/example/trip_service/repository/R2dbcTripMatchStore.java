@@ -0,0 +1,130 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.entity.TripStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// 스레드 홉 없이 이벤트 루프에서 바로 INSERT/SELECT 하는 R2DBC 구현
+// 컬럼은 JPA 엔티티(Trip)가 관리하는 trips 테이블과 동일하며, 감사 컬럼(created_at/updated_at)은 직접 채움
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "trip.persistence.match-store", havingValue = "r2dbc")
+public class R2dbcTripMatchStore implements TripMatchStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO trips (trip_id, user_id, driver_id, status, origin_address, destination_address, matched_at,
+                               user_name, driver_name, vehicle_model, license_plate, enrichment_status, version,
+                               created_at, updated_at)
+            VALUES (:tripId, :userId, :driverId, :status, :originAddress, :destinationAddress, :matchedAt,
+                    :userName, :driverName, :vehicleModel, :licensePlate, :enrichmentStatus, 0, :now, :now)
+            """;
+
+    private static final String ENRICH_SQL = """
+            UPDATE trips
+               SET origin_address = :originAddress, destination_address = :destinationAddress,
+                   user_name = :userName, driver_name = :driverName, vehicle_model = :vehicleModel,
+                   license_plate = :licensePlate, enrichment_status = 'DONE', version = version + 1, updated_at = :now
+             WHERE trip_id = :tripId
+            """;
+
+    private static final String DETAILS_SQL = """
+            SELECT trip_id, status, origin_address, destination_address, fare, matched_at, started_at, ended_at,
+                   user_id, user_name, driver_id, driver_name, license_plate, vehicle_model, version
+              FROM trips
+             WHERE trip_id = :tripId
+            """;
+
+    private final DatabaseClient tripDatabaseClient;
+
+    @Override
+    public Mono<Boolean> existsByTripId(String tripId) {
+        return tripDatabaseClient.sql("SELECT 1 FROM trips WHERE trip_id = :tripId LIMIT 1")
+                                 .bind("tripId", tripId)
+                                 .map(row -> 1)
+                                 .first()
+                                 .hasElement();
+    }
+
+    @Override
+    public Mono<Trip> insert(Trip trip) {
+        DatabaseClient.GenericExecuteSpec spec = tripDatabaseClient.sql(INSERT_SQL)
+                                                                   .bind("tripId", trip.getTripId())
+                                                                   .bind("userId", trip.getUserId())
+                                                                   .bind("driverId", trip.getDriverId())
+                                                                   .bind("status", trip.getStatus().name())
+                                                                   .bind("originAddress", trip.getOriginAddress())
+                                                                   .bind("destinationAddress", trip.getDestinationAddress())
+                                                                   .bind("matchedAt", trip.getMatchedAt())
+                                                                   .bind("now", LocalDateTime.now());
+        spec = bindNullable(spec, "userName", trip.getUserName());
+        spec = bindNullable(spec, "driverName", trip.getDriverName());
+        spec = bindNullable(spec, "vehicleModel", trip.getVehicleModel());
+        spec = bindNullable(spec, "licensePlate", trip.getLicensePlate());
+        spec = bindNullable(spec, "enrichmentStatus",
+                trip.getEnrichmentStatus() == null ? null : trip.getEnrichmentStatus().name());
+
+        return spec.fetch()
+                   .rowsUpdated()
+                   .thenReturn(trip)
+                   .onErrorResume(DataIntegrityViolationException.class, e -> {
+                       log.warn("동시성 이슈로 인한 중복 Trip ID 감지 (무시): {}", trip.getTripId());
+                       return Mono.just(trip);
+                   });
+    }
+
+    @Override
+    public Mono<Integer> applyEnrichment(String tripId, TripEnrichment enrichment) {
+        DatabaseClient.GenericExecuteSpec spec = tripDatabaseClient.sql(ENRICH_SQL)
+                                                                   .bind("tripId", tripId)
+                                                                   .bind("originAddress", enrichment.originAddress())
+                                                                   .bind("destinationAddress", enrichment.destinationAddress())
+                                                                   .bind("now", LocalDateTime.now());
+        spec = bindNullable(spec, "userName", enrichment.userName());
+        spec = bindNullable(spec, "driverName", enrichment.driverName());
+        spec = bindNullable(spec, "vehicleModel", enrichment.vehicleModel());
+        spec = bindNullable(spec, "licensePlate", enrichment.licensePlate());
+
+        return spec.fetch()
+                   .rowsUpdated()
+                   .map(Long::intValue);
+    }
+
+    @Override
+    public Mono<TripDetailsRow> findDetails(String tripId) {
+        return tripDatabaseClient.sql(DETAILS_SQL)
+                                 .bind("tripId", tripId)
+                                 .map(row -> new TripDetailsRow(
+                                         row.get("trip_id", String.class),
+                                         TripStatus.valueOf(row.get("status", String.class)),
+                                         row.get("origin_address", String.class),
+                                         row.get("destination_address", String.class),
+                                         row.get("fare", Integer.class),
+                                         row.get("matched_at", LocalDateTime.class),
+                                         row.get("started_at", LocalDateTime.class),
+                                         row.get("ended_at", LocalDateTime.class),
+                                         row.get("user_id", String.class),
+                                         row.get("user_name", String.class),
+                                         row.get("driver_id", String.class),
+                                         row.get("driver_name", String.class),
+                                         row.get("license_plate", String.class),
+                                         row.get("vehicle_model", String.class),
+                                         row.get("version", Long.class)
+                                 ))
+                                 .one();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+}
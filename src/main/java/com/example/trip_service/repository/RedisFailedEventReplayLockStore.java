@@ -0,0 +1,55 @@
+package com.example.trip_service.repository;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+// trip:failed-event:replay:{topic} = 실행 중인 인스턴스 ID (SET NX PX)
+// 재발행은 청크마다 잠금을 연장해야 해서 연장을 지원하지 않는 ShedLock Redis 잠금 대신 직접 관리
+@Repository
+public class RedisFailedEventReplayLockStore implements FailedEventReplayLockStore {
+
+    private static final String LOCK_KEY_PREFIX = "trip:failed-event:replay:";
+
+    // KEYS[1]=잠금 키, ARGV[1]=소유자, ARGV[2]=TTL(ms). 내 잠금일 때만 연장
+    private static final RedisScript<Long> RENEW_IF_OWNER = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS[1]=잠금 키, ARGV[1]=소유자. 내 잠금일 때만 삭제
+    private static final RedisScript<Long> RELEASE_IF_OWNER = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisFailedEventReplayLockStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(String topic, String owner, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY_PREFIX + topic, owner, ttl));
+    }
+
+    @Override
+    public boolean renew(String topic, String owner, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW_IF_OWNER, List.of(LOCK_KEY_PREFIX + topic),
+                owner, String.valueOf(ttl.toMillis()));
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public void release(String topic, String owner) {
+        redisTemplate.execute(RELEASE_IF_OWNER, List.of(LOCK_KEY_PREFIX + topic), owner);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.trip_service.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+// 샤드 임대: trip:outbox:shard:{n} = 소유 인스턴스 ID (SET NX PX)
+// 생존 목록: trip:outbox:relays ZSET (score = 만료 시각 ms)
+// 샤드 알림: trip:outbox:nudge 채널로 샤드 번호 발행
+@Repository
+@Slf4j
+public class RedisOutboxShardLeaseStore implements OutboxShardLeaseStore {
+
+    private static final String LEASE_KEY_PREFIX = "trip:outbox:shard:";
+    private static final String RELAYS_KEY = "trip:outbox:relays";
+    private static final String NUDGE_CHANNEL = "trip:outbox:nudge";
+
+    // KEYS[1]=임대 키, ARGV[1]=소유자, ARGV[2]=TTL(ms). 내 임대일 때만 연장
+    private static final RedisScript<Long> RENEW_IF_OWNER = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS[1]=임대 키, ARGV[1]=소유자. 내 임대일 때만 삭제
+    private static final RedisScript<Long> RELEASE_IF_OWNER = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    public RedisOutboxShardLeaseStore(StringRedisTemplate redisTemplate,
+                                      ReactiveRedisTemplate<String, String> reactiveRedisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(int shard, String owner, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LEASE_KEY_PREFIX + shard, owner, ttl));
+    }
+
+    @Override
+    public boolean renew(int shard, String owner, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW_IF_OWNER, List.of(LEASE_KEY_PREFIX + shard),
+                owner, String.valueOf(ttl.toMillis()));
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public void release(int shard, String owner) {
+        redisTemplate.execute(RELEASE_IF_OWNER, List.of(LEASE_KEY_PREFIX + shard), owner);
+    }
+
+    @Override
+    public void heartbeat(String owner, Duration ttl) {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(RELAYS_KEY, owner, now + ttl.toMillis());
+        redisTemplate.opsForZSet().removeRangeByScore(RELAYS_KEY, 0, now);
+    }
+
+    @Override
+    public void leave(String owner) {
+        redisTemplate.opsForZSet().remove(RELAYS_KEY, owner);
+    }
+
+    @Override
+    public Set<String> liveOwners() {
+        Set<String> owners = redisTemplate.opsForZSet().rangeByScore(RELAYS_KEY, System.currentTimeMillis(), Double.MAX_VALUE);
+        return owners == null ? Set.of() : owners;
+    }
+
+    @Override
+    public void publishNudge(int shard) {
+        redisTemplate.convertAndSend(NUDGE_CHANNEL, String.valueOf(shard));
+    }
+
+    // 구독이 끊기면 다시 연결. 알림을 놓쳐도 샤드 폴링이 발행하므로 지연만 늘어남
+    @Override
+    public Disposable subscribeNudges(IntConsumer listener) {
+        // 기동 시 Redis 에 연결할 수 없어도 예외 대신 재시도로 넘기도록 구독 시점에 리스너 생성
+        return Flux.defer(() -> reactiveRedisTemplate.listenTo(ChannelTopic.of(NUDGE_CHANNEL)))
+                   .doOnNext(message -> {
+                       try {
+                           listener.accept(Integer.parseInt(message.getMessage()));
+                       } catch (NumberFormatException e) {
+                           log.warn("잘못된 Outbox 샤드 알림 무시: {}", message.getMessage());
+                       }
+                   })
+                   .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                   .subscribe();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.Trip;
+import reactor.core.publisher.Mono;
+
+// 배차 이벤트 컨슈머 경로(여정 생성/중복 확인) 전용 저장소
+// trip.persistence.match-store 설정으로 JPA(블로킹 + 전용 스케줄러) 또는 R2DBC(논블로킹) 구현을 선택
+public interface TripMatchStore {
+
+    Mono<Boolean> existsByTripId(String tripId);
+
+    // 유니크 제약 위반(동시 중복 생성)은 예외 대신 저장된(또는 전달받은) 여정으로 정상 완료
+    Mono<Trip> insert(Trip trip);
+
+    // persist-first 모드에서 먼저 저장된 여정에 주소/이름/차량 정보를 채움 (갱신된 행 수 반환)
+    Mono<Integer> applyEnrichment(String tripId, TripEnrichment enrichment);
+
+    // 보강 후 읽기 모델 갱신용 (버전 포함)
+    Mono<TripDetailsRow> findDetails(String tripId);
+}
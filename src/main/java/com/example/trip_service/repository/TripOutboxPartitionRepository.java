@@ -0,0 +1,92 @@
+package com.example.trip_service.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// trip_outbox 일 단위 파티션 관리 (MySQL RANGE COLUMNS(created_at), db/outbox/trip_outbox_partitioning.sql 로 전환)
+// 파티션 이름: p{yyyyMMdd} = 해당 날짜 하루치, pmax = 아직 만들지 않은 미래 날짜
+// 파티션을 쓰지 않는 DB(H2 등)나 전환 전 테이블에서는 isPartitioned() 가 false 이고 청크 삭제만 사용
+@Repository
+@RequiredArgsConstructor
+public class TripOutboxPartitionRepository {
+
+    public static final String MAX_PARTITION = "pmax";
+    private static final Pattern DAILY_PARTITION = Pattern.compile("p(\\d{8})");
+    private static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record DailyPartition(String name, LocalDate day) {
+    }
+
+    public boolean isPartitioned() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trip_outbox' AND PARTITION_NAME = ?",
+                Integer.class, MAX_PARTITION);
+        return count != null && count > 0;
+    }
+
+    // 날짜 순 일 단위 파티션 (pmax 제외)
+    public List<DailyPartition> findDailyPartitions() {
+        return jdbcTemplate.queryForList(
+                                   "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                                   "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trip_outbox' AND PARTITION_NAME IS NOT NULL " +
+                                   "ORDER BY PARTITION_ORDINAL_POSITION",
+                                   String.class)
+                           .stream()
+                           .map(TripOutboxPartitionRepository::parse)
+                           .filter(Objects::nonNull)
+                           .toList();
+    }
+
+    // pmax 를 쪼개 미래 날짜 파티션 추가. 며칠 앞서 만들어 두므로 pmax 는 보통 비어있어 데이터 이동 없이 끝남
+    public void addDailyPartitions(List<LocalDate> days) {
+        if (days.isEmpty()) return;
+
+        String partitions = days.stream()
+                                .map(day -> "PARTITION " + nameOf(day) + " VALUES LESS THAN ('" + day.plusDays(1) + "')")
+                                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("ALTER TABLE trip_outbox REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" +
+                partitions + ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    // 아직 발행이 끝나지 않은(READY/PUBLISHING) 이벤트 수. 0 일 때만 파티션을 버릴 수 있음
+    public long countUnpublished(DailyPartition partition) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trip_outbox PARTITION (" + partition.name() + ") WHERE status <> 'DONE'",
+                Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // 행 단위 DELETE 와 달리 undo 로그/행 잠금 없이 파일 단위로 제거됨
+    public void dropPartition(DailyPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE trip_outbox DROP PARTITION " + partition.name());
+    }
+
+    public static String nameOf(LocalDate day) {
+        return "p" + day.format(PARTITION_DATE);
+    }
+
+    // 이름 규칙에 맞는 파티션만 다룸 (DDL 에 이름을 그대로 넣기 때문)
+    private static DailyPartition parse(String name) {
+        Matcher matcher = DAILY_PARTITION.matcher(name);
+        if (!matcher.matches()) return null;
+        return new DailyPartition(name, LocalDate.parse(matcher.group(1), PARTITION_DATE));
+    }
+}
@@ -12,29 +12,77 @@ import java.util.List;
 
 public interface TripOutboxRepository extends JpaRepository<TripOutbox, Long> {
 
-    // 동시성 제어 : 다른 스레드/서버가 잡고 있는 행은 건너뛰고(SKIP LOCKED) 가져옴
-    @Query(value = "SELECT * FROM trip_outbox " +
-            "WHERE status = 'READY' " +
-            "ORDER BY created_at ASC " +
+    // 샤드 단위 선점: 샤드 임대를 가진 릴레이만 호출하므로 같은 여정 이벤트를 두 릴레이가 동시에 보내지 않음
+    // 임대가 넘어가는 사이 이전 소유자가 아직 보내는 중(PUBLISHING)인 여정은 뒤 이벤트를 건너뛰어 순서 유지
+    // 다른 샤드에 앞선 READY 이벤트가 있는 여정도 건너뜀: shard 컬럼 추가 전 행(shard=0)이나 SHARD_COUNT 변경 전 행이 먼저 나가야 함
+    @Query(value = "SELECT * FROM trip_outbox o " +
+            "WHERE o.shard = :shard AND o.status = 'READY' " +
+            "AND NOT EXISTS (SELECT 1 FROM trip_outbox p " +
+            "                WHERE p.aggregate_id = o.aggregate_id AND p.id < o.id " +
+            "                  AND (p.status = 'PUBLISHING' OR (p.status = 'READY' AND p.shard <> o.shard))) " +
+            "ORDER BY o.id " +
             "LIMIT :limit " +
             "FOR UPDATE SKIP LOCKED",
             nativeQuery = true)
-    List<TripOutbox> findEventsForPublishing(@Param("limit") int limit);
+    List<TripOutbox> findEventsForPublishingInShard(@Param("shard") int shard, @Param("limit") int limit);
 
     @Modifying(clearAutomatically = true)
     @Query("UPDATE TripOutbox t SET t.status = :status WHERE t.id IN :ids")
     void updateStatus(@Param("ids") List<Long> ids, @Param("status") OutboxStatus status);
 
-    // 오랫동안 PUBLISHING 상태로 멈춘 건들 READY로 원복
+    // 선점: 소유 릴레이와 만료 시각을 함께 기록
     @Modifying(clearAutomatically = true)
-    @Query("UPDATE TripOutbox t SET t.status = :newStatus WHERE t.status = :oldStatus AND t.createdAt < :cutoffTime")
-    int resetStuckEvents(@Param("oldStatus") OutboxStatus oldStatus,
-                         @Param("newStatus") OutboxStatus newStatus,
-                         @Param("cutoffTime") LocalDateTime cutoffTime);
+    @Query("UPDATE TripOutbox t SET t.status = :status, t.claimedBy = :owner, t.leaseUntil = :leaseUntil WHERE t.id IN :ids")
+    void claim(@Param("ids") List<Long> ids,
+               @Param("status") OutboxStatus status,
+               @Param("owner") String owner,
+               @Param("leaseUntil") LocalDateTime leaseUntil);
 
+    // 발행이 길어질 때 아직 내 선점인 건만 만료 시각 연장
     @Modifying(clearAutomatically = true)
-    @Query("DELETE FROM TripOutbox t WHERE t.status = :status AND t.createdAt < :cutoffTime")
-    int deleteOldEvents(@Param("status") OutboxStatus status,
-                        @Param("cutoffTime") LocalDateTime cutoffTime);
+    @Query("UPDATE TripOutbox t SET t.leaseUntil = :leaseUntil " +
+            "WHERE t.id IN :ids AND t.claimedBy = :owner AND t.status = :claimedStatus")
+    int renewLease(@Param("ids") List<Long> ids,
+                   @Param("claimedStatus") OutboxStatus claimedStatus,
+                   @Param("owner") String owner,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // 발행 결과 반영. 선점이 만료되어 다른 릴레이가 회수/재선점한 건은 건드리지 않음
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TripOutbox t SET t.status = :newStatus, t.claimedBy = null, t.leaseUntil = null " +
+            "WHERE t.id IN :ids AND t.claimedBy = :owner AND t.status = :claimedStatus")
+    int completeClaim(@Param("ids") List<Long> ids,
+                      @Param("claimedStatus") OutboxStatus claimedStatus,
+                      @Param("owner") String owner,
+                      @Param("newStatus") OutboxStatus newStatus);
+
+    // 선점 만료(릴레이 종료/장애)된 건을 READY로 원복
+    // lease_until 이 없는 건은 선점 만료 도입 전 방식으로 선점된 것이므로 기존처럼 생성 후 일정 시간이 지난 경우에만 원복
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TripOutbox t SET t.status = :newStatus, t.claimedBy = null, t.leaseUntil = null " +
+            "WHERE t.status = :claimedStatus " +
+            "AND (t.leaseUntil < :now OR (t.leaseUntil IS NULL AND t.createdAt < :legacyCutoff))")
+    int rescueExpiredLeases(@Param("claimedStatus") OutboxStatus claimedStatus,
+                            @Param("newStatus") OutboxStatus newStatus,
+                            @Param("now") LocalDateTime now,
+                            @Param("legacyCutoff") LocalDateTime legacyCutoff);
+
+    // 적체 게이지용: idx_outbox_status_created 에서 상태별 건수를 세되, 적체가 매우 클 때도 cap 건에서 멈춤
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM trip_outbox WHERE status = :status LIMIT :cap) t",
+            nativeQuery = true)
+    long countByStatusUpTo(@Param("status") String status, @Param("cap") int cap);
+
+    // (status, created_at) 인덱스의 첫 항목만 읽음
+    @Query("SELECT MIN(t.createdAt) FROM TripOutbox t WHERE t.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxStatus status);
+
+    // 보관 기간이 지난 발행 완료 이벤트를 청크 단위로 삭제 (idx_outbox_status_created 범위 스캔)
+    @Query(value = "SELECT id FROM trip_outbox WHERE status = 'DONE' AND created_at < :cutoffTime LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findDoneIdsCreatedBefore(@Param("cutoffTime") LocalDateTime cutoffTime, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM TripOutbox t WHERE t.id IN :ids AND t.status = :status")
+    int deleteByIdsAndStatus(@Param("ids") List<Long> ids, @Param("status") OutboxStatus status);
 
 }
\ No newline at end of file
@@ -1,25 +1,185 @@
 package com.example.trip_service.repository;
 
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripSummaryRow;
+import com.example.trip_service.entity.EnrichmentStatus;
 import com.example.trip_service.entity.Trip;
 import com.example.trip_service.entity.TripStatus;
-import jakarta.persistence.LockModeType;
-import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TripRepository extends JpaRepository<Trip, Long> {
     Optional<Trip> findByTripId(String tripId);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0")})
-    @Query("select t from Trip t where t.tripId = :tripId")
-    Optional<Trip> findByTripIdWithLock(@Param("tripId") String tripId);
+    boolean existsByTripId(String tripId);
 
-    // 이 기사가 'IN_PROGRESS' 상태인 여정을 가지고 있는지 확인 (존재하면 true)
-    boolean existsByDriverIdAndStatus(String driverId, TripStatus status);
+    // 상세 조회 전용: 락 없이 필요한 컬럼만 DTO로 조회
+    // 결과를 Redis 읽기 모델에 다시 채우므로 readOnly를 두지 않음 (복제 지연된 행이 읽기 모델에 남지 않도록 primary에서 읽음)
+    @Query("""
+            select new com.example.trip_service.dto.TripDetailsRow(
+                       t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare,
+                       t.matchedAt, t.startedAt, t.endedAt,
+                       t.userId, t.userName, t.driverId, t.driverName, t.licensePlate, t.vehicleModel,
+                       t.version)
+              from Trip t
+             where t.tripId = :tripId
+            """)
+    Optional<TripDetailsRow> findDetailsByTripId(@Param("tripId") String tripId);
+
+    // 대량 상세 조회용: IN 절 한 번으로 여러 여정 조회 (읽기 모델에 다시 채우므로 마찬가지로 primary)
+    @Query("""
+            select new com.example.trip_service.dto.TripDetailsRow(
+                       t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare,
+                       t.matchedAt, t.startedAt, t.endedAt,
+                       t.userId, t.userName, t.driverId, t.driverName, t.licensePlate, t.vehicleModel,
+                       t.version)
+              from Trip t
+             where t.tripId in :tripIds
+            """)
+    List<TripDetailsRow> findDetailsByTripIdIn(@Param("tripIds") Collection<String> tripIds);
+
+    // 여정 이력 키셋 페이지네이션: (matched_at, id) 역순으로 커서 다음 행부터 조회 -> 깊은 페이지도 인덱스 범위 탐색 한 번
+    @Query("""
+            select new com.example.trip_service.dto.TripSummaryRow(
+                       t.id, t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare, t.matchedAt)
+              from Trip t
+             where t.userId = :userId
+             order by t.matchedAt desc, t.id desc
+            """)
+    List<TripSummaryRow> findUserHistoryFirstPage(@Param("userId") String userId, Limit limit);
+
+    @Query("""
+            select new com.example.trip_service.dto.TripSummaryRow(
+                       t.id, t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare, t.matchedAt)
+              from Trip t
+             where t.userId = :userId
+               and (t.matchedAt < :cursorMatchedAt or (t.matchedAt = :cursorMatchedAt and t.id < :cursorId))
+             order by t.matchedAt desc, t.id desc
+            """)
+    List<TripSummaryRow> findUserHistoryAfter(@Param("userId") String userId,
+                                              @Param("cursorMatchedAt") LocalDateTime cursorMatchedAt,
+                                              @Param("cursorId") Long cursorId,
+                                              Limit limit);
+
+    @Query("""
+            select new com.example.trip_service.dto.TripSummaryRow(
+                       t.id, t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare, t.matchedAt)
+              from Trip t
+             where t.driverId = :driverId
+             order by t.matchedAt desc, t.id desc
+            """)
+    List<TripSummaryRow> findDriverHistoryFirstPage(@Param("driverId") String driverId, Limit limit);
+
+    @Query("""
+            select new com.example.trip_service.dto.TripSummaryRow(
+                       t.id, t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare, t.matchedAt)
+              from Trip t
+             where t.driverId = :driverId
+               and (t.matchedAt < :cursorMatchedAt or (t.matchedAt = :cursorMatchedAt and t.id < :cursorId))
+             order by t.matchedAt desc, t.id desc
+            """)
+    List<TripSummaryRow> findDriverHistoryAfter(@Param("driverId") String driverId,
+                                                @Param("cursorMatchedAt") LocalDateTime cursorMatchedAt,
+                                                @Param("cursorId") Long cursorId,
+                                                Limit limit);
+
+    // ETag 확인용: (trip_id, version) 인덱스만 읽음
+    // 복제본의 이전 버전과 비교하면 변경된 여정에 304를 줄 수 있으므로 primary에서 읽음
+    @Query("select t.version from Trip t where t.tripId = :tripId")
+    Optional<Long> findVersionByTripId(@Param("tripId") String tripId);
+
+    // 읽기 모델 재구성용: trip_id(유니크 인덱스) 기준 키셋 페이지 조회
+    // 결과를 읽기 모델에 채우므로 상세 조회와 마찬가지로 readOnly 없이 primary 에서 읽음
+    @Query("""
+            select new com.example.trip_service.dto.TripDetailsRow(
+                       t.tripId, t.status, t.originAddress, t.destinationAddress, t.fare,
+                       t.matchedAt, t.startedAt, t.endedAt,
+                       t.userId, t.userName, t.driverId, t.driverName, t.licensePlate, t.vehicleModel,
+                       t.version)
+              from Trip t
+             where t.status in :statuses and t.tripId > :afterTripId
+             order by t.tripId
+            """)
+    List<TripDetailsRow> findDetailsPageByStatusIn(@Param("statuses") Collection<TripStatus> statuses,
+                                                   @Param("afterTripId") String afterTripId,
+                                                   Limit limit);
+
+    // 락 없는 상태 전이: 현재 상태가 from 중 하나일 때만 한 문장으로 변경 (갱신된 행 수 1 = 성공, 0 = 중복 요청/충돌/미존재)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Trip t
+               set t.status = :target, t.version = t.version + 1, t.updatedAt = :now
+             where t.tripId = :tripId and t.status in :from
+            """)
+    int compareAndSetStatus(@Param("tripId") String tripId,
+                            @Param("from") Collection<TripStatus> from,
+                            @Param("target") TripStatus target,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Trip t
+               set t.status = :target, t.startedAt = :now, t.version = t.version + 1, t.updatedAt = :now
+             where t.tripId = :tripId and t.status in :from
+            """)
+    int compareAndSetStatusAndStartedAt(@Param("tripId") String tripId,
+                                        @Param("from") Collection<TripStatus> from,
+                                        @Param("target") TripStatus target,
+                                        @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Trip t
+               set t.status = :target, t.endedAt = :now, t.version = t.version + 1, t.updatedAt = :now
+             where t.tripId = :tripId and t.status in :from
+            """)
+    int compareAndSetStatusAndEndedAt(@Param("tripId") String tripId,
+                                      @Param("from") Collection<TripStatus> from,
+                                      @Param("target") TripStatus target,
+                                      @Param("now") LocalDateTime now);
+
+    // persist-first 모드의 후속 보강: 엔티티를 읽지 않고 부가 정보 컬럼만 한 번에 갱신
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Trip t
+               set t.originAddress = :originAddress, t.destinationAddress = :destinationAddress,
+                   t.userName = :userName, t.driverName = :driverName,
+                   t.vehicleModel = :vehicleModel, t.licensePlate = :licensePlate,
+                   t.enrichmentStatus = com.example.trip_service.entity.EnrichmentStatus.DONE,
+                   t.version = t.version + 1, t.updatedAt = :now
+             where t.tripId = :tripId
+            """)
+    int updateEnrichment(@Param("tripId") String tripId,
+                         @Param("originAddress") String originAddress,
+                         @Param("destinationAddress") String destinationAddress,
+                         @Param("userName") String userName,
+                         @Param("driverName") String driverName,
+                         @Param("vehicleModel") String vehicleModel,
+                         @Param("licensePlate") String licensePlate,
+                         @Param("now") LocalDateTime now);
+
+    // 보강 큐에서 빠진 여정 재스캔 (재기동, 큐 포화, 재시도 초과). 방금 저장된 여정을 놓치지 않도록 primary 에서 읽음
+    List<Trip> findByEnrichmentStatusAndMatchedAtBeforeOrderByMatchedAt(EnrichmentStatus enrichmentStatus,
+                                                                         LocalDateTime before,
+                                                                         Limit limit);
+
+    // 여러 기사 중 해당 상태의 여정을 가진 기사 ID ((driver_id, status) 인덱스)
+    @Transactional(readOnly = true)
+    @Query("select distinct t.driverId from Trip t where t.driverId in :driverIds and t.status = :status")
+    List<String> findDriverIdsByDriverIdInAndStatus(@Param("driverIds") Collection<String> driverIds,
+                                                    @Param("status") TripStatus status);
+
+    // Redis 집합 대조용: 방금 운행 시작한 기사를 놓치지 않도록 readOnly를 두지 않음 (복제본이 아닌 primary에서 읽음)
+    @Query("select distinct t.driverId from Trip t where t.status = :status")
+    List<String> findDriverIdsByStatus(@Param("status") TripStatus status);
 }
@@ -0,0 +1,235 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.FailedEventReplayJob;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.entity.ReplayJobStatus;
+import com.example.trip_service.exception.ReplayJobNotFoundException;
+import com.example.trip_service.exception.ReplayJobStateConflictException;
+import com.example.trip_service.repository.FailedEventReplayJobRepository;
+import com.example.trip_service.repository.FailedEventReplayLockStore;
+import com.example.trip_service.repository.FailedEventRepository;
+import com.example.trip_service.service.FailedEventReplayService.ChunkResult;
+import com.example.trip_service.service.FailedEventReplayService.ReplaySession;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// DLT 재발행을 HTTP 요청 스레드 밖의 작업으로 실행
+// - 토픽당 진행 중인 작업은 하나 (DB 유니크 activeTopic). 같은 토픽을 다시 요청하면 진행 중인 작업을 돌려줌
+// - 실제 실행은 토픽별 Redis 잠금을 잡은 인스턴스 한 곳에서만. 청크마다 잠금을 연장하고 상태(pause/cancel)를 확인
+// - 청크마다 RESOLVED 처리와 같은 트랜잭션에서 키셋 커서/진행 건수를 저장 -> 파드가 재시작되면 다른 인스턴스가 커서부터 이어서 실행
+@Service
+@Slf4j
+public class FailedEventReplayJobService {
+
+    private static final List<ReplayJobStatus> ACTIVE = List.of(ReplayJobStatus.RUNNING, ReplayJobStatus.PAUSED);
+
+    private final FailedEventReplayService replayService;
+    private final FailedEventReplayJobRepository jobRepository;
+    private final FailedEventRepository failedEventRepository;
+    private final FailedEventReplayLockStore lockStore;
+    private final String instanceId;
+    private final Duration lockTtl;
+
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger workerSequence = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "failed-event-replay-" + workerSequence.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+
+    public FailedEventReplayJobService(FailedEventReplayService replayService,
+                                       FailedEventReplayJobRepository jobRepository,
+                                       FailedEventRepository failedEventRepository,
+                                       FailedEventReplayLockStore lockStore,
+                                       @Value("${trip.failed-event.replay.job.instance-id:${HOSTNAME:}}") String instanceId,
+                                       @Value("${trip.failed-event.replay.job.lock-ttl:60s}") Duration lockTtl) {
+        this.replayService = replayService;
+        this.jobRepository = jobRepository;
+        this.failedEventRepository = failedEventRepository;
+        this.lockStore = lockStore;
+        // 같은 호스트에서 재기동해도 이전 잠금과 구분되도록 임의 접미사를 붙임
+        this.instanceId = (instanceId == null || instanceId.isBlank() ? "replay" : instanceId)
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.lockTtl = lockTtl;
+    }
+
+    // 종료 시 실행 중인 작업은 RUNNING 으로 남겨 두고 멈춤 (다른 인스턴스가 잠금 만료 후 커서부터 이어받음)
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        executor.shutdown();
+    }
+
+    public FailedEventReplayJob submit(String topic) {
+        FailedEventReplayJob active = jobRepository.findByActiveTopic(topic).orElse(null);
+        if (active != null) {
+            log.info("ℹ️ [Replay Job] 토픽({})은 이미 재발행 작업(ID: {}, {})이 있습니다.", topic, active.getId(), active.getStatus());
+            return active;
+        }
+
+        FailedEventReplayJob job;
+        try {
+            job = jobRepository.saveAndFlush(FailedEventReplayJob.builder().topic(topic).build());
+        } catch (DataIntegrityViolationException e) {
+            // 동시에 들어온 같은 토픽 요청이 먼저 작업을 만든 경우
+            return jobRepository.findByActiveTopic(topic)
+                                .orElseThrow(() -> new ReplayJobStateConflictException("토픽 [" + topic + "] 재발행 작업을 만들지 못했습니다. 다시 시도해 주세요."));
+        }
+
+        log.info("🚀 [Replay Job] 토픽({}) 재발행 작업(ID: {}) 등록", topic, job.getId());
+        launch(job.getId());
+        return job;
+    }
+
+    public FailedEventReplayJob get(Long jobId) {
+        return jobRepository.findById(jobId)
+                            .orElseThrow(() -> new ReplayJobNotFoundException("재발행 작업 없음: " + jobId));
+    }
+
+    // 실행 중인 청크가 끝나면 멈춤 (커서는 그 청크까지 저장됨)
+    public FailedEventReplayJob pause(Long jobId) {
+        if (jobRepository.transition(jobId, List.of(ReplayJobStatus.RUNNING), ReplayJobStatus.PAUSED) == 0) {
+            throw conflict(jobId, "RUNNING 상태인 작업만 일시 정지할 수 있습니다.");
+        }
+        log.info("⏸️ [Replay Job] 재발행 작업(ID: {}) 일시 정지", jobId);
+        return get(jobId);
+    }
+
+    public FailedEventReplayJob resume(Long jobId) {
+        if (jobRepository.transition(jobId, List.of(ReplayJobStatus.PAUSED), ReplayJobStatus.RUNNING) == 0) {
+            throw conflict(jobId, "PAUSED 상태인 작업만 재개할 수 있습니다.");
+        }
+        log.info("▶️ [Replay Job] 재발행 작업(ID: {}) 재개", jobId);
+        launch(jobId);
+        return get(jobId);
+    }
+
+    public FailedEventReplayJob cancel(Long jobId) {
+        if (jobRepository.finish(jobId, ACTIVE, ReplayJobStatus.CANCELED, LocalDateTime.now()) == 0) {
+            throw conflict(jobId, "RUNNING/PAUSED 상태인 작업만 취소할 수 있습니다.");
+        }
+        log.info("🛑 [Replay Job] 재발행 작업(ID: {}) 취소", jobId);
+        return get(jobId);
+    }
+
+    // 재시작/장애로 실행하던 인스턴스가 사라진 RUNNING 작업을 이어받음 (토픽 잠금을 잡은 한 곳에서만 실행됨)
+    @Scheduled(fixedDelayString = "${trip.failed-event.replay.job.adopt-interval-ms:30000}", initialDelay = 10000)
+    public void adoptOrphanedJobs() {
+        try {
+            for (FailedEventReplayJob job : jobRepository.findAllByStatus(ReplayJobStatus.RUNNING)) {
+                if (!runningJobs.contains(job.getId())) {
+                    launch(job.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("재발행 작업 이어받기 조회 실패. Error: {}", e.getMessage());
+        }
+    }
+
+    private void launch(Long jobId) {
+        if (stopping || !runningJobs.add(jobId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    runningJobs.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    void run(Long jobId) {
+        FailedEventReplayJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ReplayJobStatus.RUNNING) return;
+
+        String topic = job.getTopic();
+        if (!lockStore.tryAcquire(topic, instanceId, lockTtl)) {
+            log.debug("토픽({}) 재발행은 다른 인스턴스가 실행 중입니다. (작업 ID: {})", topic, jobId);
+            return;
+        }
+
+        try {
+            long cursor = job.getLastEventId();
+            // 청크 하나가 전송 대기로 lockTtl 보다 오래 걸릴 수 있으므로 대기 중에도 잠금 연장
+            ReplaySession session = replayService.newSession(cursor == 0
+                    ? List.of()
+                    : failedEventRepository.findKafkaKeysUpTo(topic, FailedEventStatus.PENDING, cursor),
+                    () -> renewDuringChunk(topic, jobId), lockTtl.dividedBy(3));
+            if (cursor > 0) {
+                log.info("🔁 [Replay Job] 재발행 작업(ID: {}) 을 커서 {} 부터 이어서 실행합니다.", jobId, cursor);
+            }
+
+            while (!stopping) {
+                ReplayJobStatus status = jobRepository.findStatusById(jobId).orElse(ReplayJobStatus.CANCELED);
+                if (status != ReplayJobStatus.RUNNING) {
+                    log.info("ℹ️ [Replay Job] 재발행 작업(ID: {}) {} -> 실행 중단 (커서: {})", jobId, status, cursor);
+                    return;
+                }
+                if (!lockStore.renew(topic, instanceId, lockTtl)) {
+                    log.warn("⚠️ [Replay Job] 토픽({}) 재발행 잠금을 잃어 작업(ID: {}) 실행을 중단합니다.", topic, jobId);
+                    return;
+                }
+
+                ChunkResult chunk = replayService.replayChunk(topic, cursor, session, result ->
+                        jobRepository.recordProgress(jobId, result.lastId(), result.resolved(), result.failed(), rateOf(result)));
+                if (chunk == null) {
+                    jobRepository.finish(jobId, List.of(ReplayJobStatus.RUNNING), ReplayJobStatus.COMPLETED, LocalDateTime.now());
+                    log.info("✅ [Replay Job] 재발행 작업(ID: {}) 완료", jobId);
+                    return;
+                }
+                cursor = chunk.lastId();
+                if (Thread.currentThread().isInterrupted()) {
+                    // 중단된 청크는 보낸 건까지만 커서에 반영됨. RUNNING 으로 남겨 이어받기 주기에 커서부터 다시 실행
+                    log.warn("⚠️ [Replay Job] 재발행 작업(ID: {}) 실행 스레드가 중단되었습니다. (커서: {})", jobId, cursor);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // RUNNING 으로 남겨 다음 이어받기 주기에 커서부터 다시 실행
+            log.error("❌ [Replay Job] 재발행 작업(ID: {}) 실행 실패. 이어받기 주기에 다시 시도합니다.", jobId, e);
+        } finally {
+            lockStore.release(topic, instanceId);
+        }
+    }
+
+    // 실패해도 청크는 마저 끝내고, 다음 청크 전 잠금 확인에서 실행을 멈춤
+    private void renewDuringChunk(String topic, Long jobId) {
+        try {
+            if (!lockStore.renew(topic, instanceId, lockTtl)) {
+                log.warn("⚠️ [Replay Job] 청크 전송 대기 중 토픽({}) 재발행 잠금을 잃었습니다. (작업 ID: {})", topic, jobId);
+            }
+        } catch (Exception e) {
+            log.warn("재발행 잠금 연장 실패. Topic: {}, Error: {}", topic, e.getMessage());
+        }
+    }
+
+    private static double rateOf(ChunkResult chunk) {
+        double seconds = chunk.elapsed().toNanos() / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : (chunk.resolved() + chunk.failed()) / seconds;
+    }
+
+    private ReplayJobStateConflictException conflict(Long jobId, String message) {
+        get(jobId); // 없는 작업이면 404
+        return new ReplayJobStateConflictException(message);
+    }
+}
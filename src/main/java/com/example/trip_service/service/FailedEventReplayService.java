@@ -3,84 +3,236 @@ package com.example.trip_service.service;
 import com.example.trip_service.entity.FailedEvent;
 import com.example.trip_service.entity.FailedEventStatus;
 import com.example.trip_service.repository.FailedEventRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+// DLT 로 빠진 이벤트 재발행
+// - id 키셋 페이징으로 청크를 읽고, 청크 안의 이벤트를 비동기로 보내 프로듀서 배치를 활용 (동시 전송 수는 max-in-flight 로 제한)
+// - 토큰 버킷(rate-per-second)으로 초당 재발행 수를 제한해 다운스트림 컨슈머가 몰리지 않게 함
+// - 같은 kafkaKey 는 앞 이벤트 ack 후에 보내고, 한 번 실패한 key 의 뒤 이벤트는 이번 재발행에서 보내지 않음 (순서 유지)
+// - 청크마다 성공 건을 UPDATE 한 번으로 RESOLVED 처리. 실패 건은 PENDING 으로 남아 다음 재발행에서 다시 시도
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class FailedEventReplayService {
 
+    // 프로듀서 delivery.timeout.ms(120s) 안에 모든 전송이 성공/실패로 끝나므로 그보다 길게만 대기
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(150);
+
     private final FailedEventRepository failedEventRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final int ratePerSecond;
+
+    public FailedEventReplayService(FailedEventRepository failedEventRepository,
+                                    KafkaTemplate<String, String> kafkaTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${trip.failed-event.replay.chunk-size:1000}") int chunkSize,
+                                    @Value("${trip.failed-event.replay.max-in-flight:1000}") int maxInFlight,
+                                    @Value("${trip.failed-event.replay.rate-per-second:5000}") int ratePerSecond) {
+        this.failedEventRepository = failedEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    // 한 번의 재발행 동안 유지되는 상태: 동시 전송 상한, 속도 제한, 실패한 key
+    // heartbeat: 전송 자리/결과를 기다리는 동안 heartbeatInterval 마다 실행 (재발행 작업의 잠금 연장)
+    public static final class ReplaySession {
+
+        private final Semaphore inFlight;
+        private final TokenBucket rateLimiter;
+        private final Set<String> failedKeys;
+        private final Runnable heartbeat;
+        private final long heartbeatIntervalMs;
+
+        private ReplaySession(int maxInFlight, int ratePerSecond, Collection<String> failedKeys,
+                              Runnable heartbeat, Duration heartbeatInterval) {
+            this.inFlight = new Semaphore(maxInFlight);
+            this.rateLimiter = new TokenBucket(ratePerSecond);
+            this.failedKeys = new HashSet<>(failedKeys);
+            this.heartbeat = heartbeat;
+            this.heartbeatIntervalMs = Math.max(1, heartbeatInterval.toMillis());
+        }
+    }
+
+    // lastId: 이 청크에서 마지막으로 보냈거나 건너뛴 id (다음 청크의 키셋 커서). 중단되면 보내지 못한 뒤쪽은 포함하지 않음
+    public record ChunkResult(long lastId, int resolved, int failed, Duration elapsed) {
+    }
 
-    private static final int CHUNK_SIZE = 1000;
+    // failedKeys: 이전에 실패해 뒤 이벤트를 보내지 않아야 하는 key (중단된 재발행을 이어갈 때)
+    public ReplaySession newSession(Collection<String> failedKeys) {
+        return newSession(failedKeys, () -> { }, SEND_TIMEOUT);
+    }
+
+    public ReplaySession newSession(Collection<String> failedKeys, Runnable heartbeat, Duration heartbeatInterval) {
+        return new ReplaySession(maxInFlight, ratePerSecond, failedKeys, heartbeat, heartbeatInterval);
+    }
 
     public int retryAllByTopic(String targetTopic) {
+        ReplaySession session = newSession(List.of());
+        long lastId = 0;
         int totalProcessed = 0;
-        boolean hasNext = true;
+        int totalFailed = 0;
 
         log.info("🚀 [Bulk Retry] 토픽({}) 재발행 시작...", targetTopic);
 
-        while (hasNext) {
-            Pageable pageable = PageRequest.of(0, CHUNK_SIZE, Sort.by(Sort.Direction.ASC, "id"));
-            Slice<FailedEvent> slice = failedEventRepository.findAllByTopicAndStatus(
-                    targetTopic,
-                    FailedEventStatus.PENDING,
-                    pageable
-            );
+        ChunkResult result;
+        while ((result = replayChunk(targetTopic, lastId, session, chunk -> { })) != null) {
+            lastId = result.lastId();
+            totalProcessed += result.resolved();
+            totalFailed += result.failed();
 
-            List<FailedEvent> events = slice.getContent();
-            if (events.isEmpty()) break;
+            if (Thread.currentThread().isInterrupted()) break;
+        }
 
-            List<Long> successIds = new ArrayList<>();
+        log.info("✅ [Bulk Retry] 완료. 총 {}건 재발행됨. 실패/보류 {}건은 PENDING 으로 남김.", totalProcessed, totalFailed);
+        return totalProcessed;
+    }
 
-            for (FailedEvent event : events) {
-                try {
-                    // Key를 반드시 포함해서 보내야 원래 파티션으로 가서 순서가 유지됨
-                    if (event.getKafkaKey() != null) {
-                        kafkaTemplate.send(event.getTopic(), event.getKafkaKey(), event.getPayload()).get();
-                    } else {
-                        kafkaTemplate.send(event.getTopic(), event.getPayload()).get();
-                    }
-
-                    successIds.add(event.getId());
-
-                } catch (Exception e) {
-                    log.error("❌ 재발행 개별 실패 (ID: {}). 건너뜁니다.", event.getId(), e);
-                }
+    // afterId 다음 청크를 재발행. 성공 건 RESOLVED 처리와 같은 트랜잭션에서 afterChunk 를 실행 (재발행 작업의 커서 저장)
+    // 더 읽을 건이 없으면 null
+    public ChunkResult replayChunk(String topic, long afterId, ReplaySession session, Consumer<ChunkResult> afterChunk) {
+        long start = System.nanoTime();
+        List<FailedEvent> events = failedEventRepository.findReplayChunk(
+                topic, FailedEventStatus.PENDING, afterId, Limit.of(chunkSize));
+        if (events.isEmpty()) return null;
+
+        SequencedMap<FailedEvent, CompletableFuture<Boolean>> results = sendChunk(events, session);
+
+        List<Long> successIds = new ArrayList<>();
+        results.forEach((event, result) -> {
+            if (Boolean.TRUE.equals(result.getNow(false))) {
+                successIds.add(event.getId());
+            } else if (event.getKafkaKey() != null) {
+                session.failedKeys.add(event.getKafkaKey());
             }
+        });
 
+        // 중단되면 results 에는 시도한 건까지만 있으므로 커서도 거기까지만 옮김 (보내지 못한 건은 다음 실행에서 다시 읽음)
+        long lastId = results.isEmpty() ? afterId : results.lastEntry().getKey().getId();
+        ChunkResult chunk = new ChunkResult(lastId, successIds.size(),
+                results.size() - successIds.size(), Duration.ofNanos(System.nanoTime() - start));
+        transactionTemplate.execute(status -> {
             if (!successIds.isEmpty()) {
-                transactionTemplate.execute(status -> {
-                    failedEventRepository.updateStatus(successIds, FailedEventStatus.RESOLVED);
-                    return null;
-                });
-                totalProcessed += successIds.size();
+                failedEventRepository.updateStatus(successIds, FailedEventStatus.RESOLVED);
             }
+            afterChunk.accept(chunk);
+            return null;
+        });
+        return chunk;
+    }
+
+    private SequencedMap<FailedEvent, CompletableFuture<Boolean>> sendChunk(List<FailedEvent> events, ReplaySession session) {
+        Semaphore inFlight = session.inFlight;
+        Map<String, CompletableFuture<Boolean>> lastByKey = new HashMap<>();
+        SequencedMap<FailedEvent, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+
+        try {
+            for (FailedEvent event : events) {
+                String key = event.getKafkaKey();
+                if (key != null && session.failedKeys.contains(key)) {
+                    // 앞선 청크에서 같은 key 가 실패 -> 순서를 지키기 위해 보내지 않음
+                    results.put(event, CompletableFuture.completedFuture(false));
+                    continue;
+                }
+
+                // 앞선 전송이 끝나 자리가 날 때까지 기다리는 동안에도 heartbeat
+                while (!inFlight.tryAcquire(session.heartbeatIntervalMs, TimeUnit.MILLISECONDS)) {
+                    session.heartbeat.run();
+                }
+                session.rateLimiter.acquire();
+
+                CompletableFuture<Boolean> previous = key == null ? null : lastByKey.get(key);
+                CompletableFuture<Boolean> result = previous == null
+                        ? send(event)
+                        // 프로듀서 콜백 스레드에서 send 를 호출하지 않도록 비동기로 이어감 (버퍼가 찼을 때 블로킹 방지)
+                        : previous.thenComposeAsync(ok -> ok ? send(event) : CompletableFuture.completedFuture(false));
+                result.whenComplete((ok, ex) -> inFlight.release());
 
-            if (successIds.isEmpty()) {
-                log.warn("⚠️ 이번 청크에서 재발행 성공한 건이 없습니다. 무한 루프 방지를 위해 중단합니다.");
-                break;
+                if (key != null) lastByKey.put(key, result);
+                results.put(event, result);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ [Bulk Retry] 재발행이 중단되었습니다. 보낸 건까지만 반영합니다.");
+        }
 
-            hasNext = slice.hasNext();
+        awaitResults(results.values(), session);
+        return results;
+    }
+
+    // Key를 반드시 포함해서 보내야 원래 파티션으로 가서 순서가 유지됨
+    private CompletableFuture<Boolean> send(FailedEvent event) {
+        try {
+            return (event.getKafkaKey() != null
+                    ? kafkaTemplate.send(event.getTopic(), event.getKafkaKey(), event.getPayload())
+                    : kafkaTemplate.send(event.getTopic(), event.getPayload()))
+                    .handle((result, ex) -> {
+                        if (ex != null) {
+                            log.error("❌ 재발행 개별 실패 (ID: {}). 건너뜁니다. Error: {}", event.getId(), ex.getMessage());
+                            return false;
+                        }
+                        return true;
+                    });
+        } catch (Exception e) {
+            log.error("❌ 재발행 개별 실패 (ID: {}). 건너뜁니다.", event.getId(), e);
+            return CompletableFuture.completedFuture(false);
         }
+    }
 
-        log.info("✅ [Bulk Retry] 완료. 총 {}건 재발행됨.", totalProcessed);
-        return totalProcessed;
+    // 결과를 기다리는 동안 heartbeatInterval 마다 heartbeat 실행 (OutboxMessageRelay 의 선점 연장과 같은 방식)
+    private void awaitResults(Iterable<CompletableFuture<Boolean>> results, ReplaySession session) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        results.forEach(futures::add);
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        long deadline = System.nanoTime() + SEND_TIMEOUT.toNanos();
+
+        while (true) {
+            try {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                all.get(Math.max(1, Math.min(session.heartbeatIntervalMs, remainingMs)), TimeUnit.MILLISECONDS);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // 개별 결과는 handle 에서 false 로 바뀌므로 오지 않음
+                return;
+            } catch (TimeoutException e) {
+                if (System.nanoTime() >= deadline) {
+                    // 끝나지 않은 건은 실패로 보고 PENDING 유지
+                    log.warn("⚠️ [Bulk Retry] 재발행 결과 대기 시간 초과. 끝나지 않은 건은 다음 재발행에서 다시 시도합니다.");
+                    return;
+                }
+                session.heartbeat.run();
+            }
+        }
     }
 
     @Transactional
@@ -96,4 +248,35 @@ public class FailedEventReplayService {
         log.info("🗑️ 에러 메시지(ID: {}) 폐기 완료.", eventId);
     }
 
-}
\ No newline at end of file
+    // 초당 ratePerSecond 개씩 채워지고 최대 1초치까지 쌓이는 토큰 버킷 (0 이하면 제한 없음)
+    // 재발행 요청 스레드 하나에서만 사용
+    static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(int ratePerSecond) {
+            this.tokensPerNano = ratePerSecond / 1e9;
+            this.capacity = Math.max(1, ratePerSecond);
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        void acquire() throws InterruptedException {
+            if (tokensPerNano <= 0) return;
+
+            while (true) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+                lastRefillNanos = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                TimeUnit.NANOSECONDS.sleep((long) Math.ceil((1 - tokens) / tokensPerNano));
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.repository.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// 운행 중(IN_PROGRESS) 기사 집합을 Redis Set(drivers:in-progress)으로 관리하여 배차 서비스의 후보 기사 확인을 DB 없이 처리
+// - 운행 시작/종료/취소 커밋 후 SADD/SREM
+// - 주기적으로 DB와 대조하여 누락/잔존 멤버 보정. 보정이 한 번도 안 돌았거나 오래 멈추면(synced 마커 만료) DB로 대체
+@Component
+@Slf4j
+public class InProgressDriverRegistry {
+
+    private static final String KEY = "drivers:in-progress";
+    private static final String SYNCED_MARKER_KEY = "drivers:in-progress:synced";
+
+    private final StringRedisTemplate redisTemplate;
+    private final TripRepository tripRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration syncedMarkerTtl;
+
+    public InProgressDriverRegistry(StringRedisTemplate redisTemplate,
+                                    TripRepository tripRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${trip.driver-in-progress.reconcile-interval-ms:60000}") long reconcileIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.tripRepository = tripRepository;
+        this.meterRegistry = meterRegistry;
+        // 보정 주기 3번을 연속으로 놓치면 Redis 집합을 신뢰하지 않음
+        this.syncedMarkerTtl = Duration.ofMillis(reconcileIntervalMs * 3);
+    }
+
+    // 트랜잭션 커밋 이후 호출 전용
+    public void markInProgress(String driverId) {
+        try {
+            redisTemplate.opsForSet().add(KEY, driverId);
+        } catch (Exception e) {
+            log.error("운행 중 기사 등록 실패 (다음 보정 때 반영). Driver ID: {}", driverId, e);
+        }
+    }
+
+    public void unmarkInProgress(String driverId) {
+        try {
+            redisTemplate.opsForSet().remove(KEY, driverId);
+        } catch (Exception e) {
+            log.error("운행 중 기사 해제 실패 (다음 보정 때 반영). Driver ID: {}", driverId, e);
+        }
+    }
+
+    // SMISMEMBER 한 번으로 여러 기사 확인. Redis 집합을 신뢰할 수 없으면 (driver_id, status) 인덱스로 DB 일괄 조회
+    public Map<String, Boolean> areInProgress(List<String> driverIds) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (driverIds.isEmpty()) {
+            return result;
+        }
+
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(SYNCED_MARKER_KEY))) {
+                Map<Object, Boolean> members = redisTemplate.opsForSet().isMember(KEY, driverIds.toArray());
+                if (members != null) {
+                    driverIds.forEach(id -> result.put(id, Boolean.TRUE.equals(members.get(id))));
+                    countLookup("cache", driverIds.size());
+                    return result;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("운행 중 기사 집합 조회 실패. DB로 대체합니다. Error: {}", e.getMessage());
+        }
+
+        Set<String> inProgress = new HashSet<>(tripRepository.findDriverIdsByDriverIdInAndStatus(driverIds, TripStatus.IN_PROGRESS));
+        driverIds.forEach(id -> result.put(id, inProgress.contains(id)));
+        countLookup("db", driverIds.size());
+        return result;
+    }
+
+    // 순서: Redis 멤버를 먼저 읽고 DB를 나중에 읽음
+    // - DB에만 있는 기사 -> 추가 (방금 종료된 기사가 잠깐 남더라도 "배차 안 함" 쪽이라 안전)
+    // - Redis에만 있는 기사 -> 제거 (Redis를 먼저 읽었으므로 그 이후 운행 시작한 기사는 제거 대상이 아님)
+    @Scheduled(fixedDelayString = "${trip.driver-in-progress.reconcile-interval-ms:60000}", initialDelay = 5000)
+    @SchedulerLock(name = "InProgressDriver_reconcile", lockAtLeastFor = "PT10S", lockAtMostFor = "PT50S")
+    public void reconcile() {
+        try {
+            Set<String> cached = redisTemplate.opsForSet().members(KEY);
+            Set<String> actual = new HashSet<>(tripRepository.findDriverIdsByStatus(TripStatus.IN_PROGRESS));
+
+            Set<String> missing = new HashSet<>(actual);
+            Set<String> stale = new HashSet<>();
+            if (cached != null) {
+                missing.removeAll(cached);
+                stale.addAll(cached);
+                stale.removeAll(actual);
+            }
+
+            if (!missing.isEmpty()) {
+                redisTemplate.opsForSet().add(KEY, missing.toArray(String[]::new));
+            }
+            if (!stale.isEmpty()) {
+                redisTemplate.opsForSet().remove(KEY, stale.toArray());
+            }
+            redisTemplate.opsForValue().set(SYNCED_MARKER_KEY, "1", syncedMarkerTtl);
+
+            meterRegistry.counter("trip.driver.in_progress.reconciled", "type", "missing").increment(missing.size());
+            meterRegistry.counter("trip.driver.in_progress.reconciled", "type", "stale").increment(stale.size());
+            if (!missing.isEmpty() || !stale.isEmpty()) {
+                log.warn("🔧 운행 중 기사 집합 보정: 추가 {}명, 제거 {}명 (총 {}명)", missing.size(), stale.size(), actual.size());
+            }
+        } catch (Exception e) {
+            log.error("운행 중 기사 집합 보정 실패", e);
+        }
+    }
+
+    private void countLookup(String source, int count) {
+        meterRegistry.counter("trip.driver.in_progress.lookup", "source", source).increment(count);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.trip_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+// 리액티브 파이프라인 안의 블로킹 JPA 작업을 전용 스케줄러로 넘겨 실행
+// 커넥션 풀 크기만큼만 동시에 DB에 들어가도록 세마포어로 제한 (가상 스레드 모드에서 DB 폭주 방지)
+public class JpaBlockingExecutor {
+
+    private final Scheduler scheduler;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    public JpaBlockingExecutor(Scheduler scheduler, int maxConcurrency, MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+
+        Gauge.builder("trip.jpa.executor.active", this, executor -> executor.maxConcurrency - executor.permits.availablePermits())
+             .description("현재 DB 작업을 수행 중인 블로킹 작업 수")
+             .register(meterRegistry);
+        Gauge.builder("trip.jpa.executor.queued", permits, Semaphore::getQueueLength)
+             .description("DB 동시성 한도 때문에 대기 중인 블로킹 작업 수")
+             .register(meterRegistry);
+    }
+
+    public <T> Mono<T> call(Callable<T> task) {
+        return Mono.fromCallable(() -> {
+                       permits.acquire();
+                       try {
+                           return task.call();
+                       } finally {
+                           permits.release();
+                       }
+                   })
+                   .subscribeOn(scheduler);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.trip_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 최근에 본 ID를 기억하는 회전식(2세대) 블룸 필터
+// "없음"은 확실하고 "있음"은 오탐일 수 있음. rotationInterval마다 오래된 세대를 버려서 메모리를 일정하게 유지
+public class RecentIdBloomFilter {
+
+    private final int bitSize;
+    private final int hashCount;
+    private final long rotationMillis;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile long rotatedAt;
+
+    public RecentIdBloomFilter(int expectedInsertions, double falsePositiveProbability, Duration rotationInterval) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("falsePositiveProbability must be in (0, 1): " + falsePositiveProbability);
+        }
+
+        // m = -n * ln(p) / (ln2)^2, k = m / n * ln2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bitSize = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.rotationMillis = rotationInterval.toMillis();
+
+        this.current = new Generation(bitSize);
+        this.previous = new Generation(bitSize);
+        this.rotatedAt = System.currentTimeMillis();
+    }
+
+    public boolean mightContain(String id) {
+        rotateIfNeeded();
+        long[] hashes = hash(id);
+        return current.contains(hashes) || previous.contains(hashes);
+    }
+
+    public void put(String id) {
+        rotateIfNeeded();
+        current.put(hash(id));
+    }
+
+    private void rotateIfNeeded() {
+        long now = System.currentTimeMillis();
+        if (now - rotatedAt < rotationMillis) return;
+
+        synchronized (this) {
+            if (now - rotatedAt < rotationMillis) return;
+            previous = current;
+            current = new Generation(bitSize);
+            rotatedAt = now;
+        }
+    }
+
+    // 64비트 해시 두 개로 k개의 인덱스를 만드는 double hashing
+    private long[] hash(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h1 ^= b;
+            h1 *= 0x100000001b3L;
+        }
+        long h2 = mix(h1 ^ id.hashCode());
+        h1 = mix(h1);
+
+        long[] indexes = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            indexes[i] = Math.floorMod(h1 + i * h2, (long) bitSize);
+        }
+        return indexes;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+
+        private Generation(int bitSize) {
+            this.words = new AtomicLongArray((bitSize + 63) / 64);
+        }
+
+        private boolean contains(long[] indexes) {
+            for (long index : indexes) {
+                long mask = 1L << (index & 63);
+                if ((words.get((int) (index >>> 6)) & mask) == 0) return false;
+            }
+            return true;
+        }
+
+        private void put(long[] indexes) {
+            for (long index : indexes) {
+                int word = (int) (index >>> 6);
+                long mask = 1L << (index & 63);
+                long prev;
+                do {
+                    prev = words.get(word);
+                    if ((prev & mask) != 0) break;
+                } while (!words.compareAndSet(word, prev, prev | mask));
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.exception.IdempotentReplayException;
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.exception.TripNotFoundException;
+import com.example.trip_service.exception.TripStatusConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+// 상태 전이 API(arrive/start/complete/cancel)의 Idempotency-Key 처리
+// 1) 첫 요청: Redis에 PENDING 기록(SET NX) 후 전이 실행 -> 결과(204 또는 404/409 + 메시지)를 짧은 TTL로 저장
+// 2) 재요청: 저장된 결과를 그대로 응답 (MySQL 접근 없음)
+// 3) 첫 요청이 아직 처리 중인 동시 재요청: 결과가 저장될 때까지 짧게 대기했다가 응답, 시간 초과 시 409
+// 예상하지 못한 오류(5xx)는 결과를 저장하지 않고 키를 지워 재시도가 다시 실행되도록 함
+@Service
+@Slf4j
+public class TransitionIdempotencyService {
+
+    private static final String KEY_PREFIX = "trip:idempotency:";
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private record IdempotencyRecord(boolean pending, int status, String message, String fingerprint) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final Duration parkTimeout;
+    private final Duration pollInterval;
+
+    public TransitionIdempotencyService(StringRedisTemplate redisTemplate,
+                                        ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${trip.transition.idempotency.ttl:10m}") Duration ttl,
+                                        @Value("${trip.transition.idempotency.pending-ttl:30s}") Duration pendingTtl,
+                                        @Value("${trip.transition.idempotency.park-timeout:3s}") Duration parkTimeout,
+                                        @Value("${trip.transition.idempotency.poll-interval:50ms}") Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.parkTimeout = parkTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    // 키가 없으면 그대로 실행. 저장된 결과로 응답했으면 true (성공 재응답), 저장된 실패는 IdempotentReplayException
+    // fingerprint: 같은 키로 다른 요청 본문을 보내는 오용을 구분하기 위한 값 (본문 없는 전이는 빈 문자열)
+    public boolean execute(String tripId, String action, String idempotencyKey, String fingerprint, Runnable transition) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            transition.run();
+            return false;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidTripQueryException("Idempotency-Key는 " + MAX_KEY_LENGTH + "자 이하여야 합니다.");
+        }
+
+        String key = KEY_PREFIX + tripId + ":" + action + ":" + idempotencyKey;
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(key, serialize(new IdempotencyRecord(true, 0, null, fingerprint)), pendingTtl);
+        } catch (DataAccessException e) {
+            // Redis 장애 시에도 전이 자체는 조건부 UPDATE로 멱등하므로 그대로 실행
+            log.warn("Idempotency-Key 확인 실패. 키 없이 처리합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+            record(action, "unavailable");
+            transition.run();
+            return false;
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            runAndStore(key, action, fingerprint, transition);
+            return false;
+        }
+        return replay(key, tripId, action, idempotencyKey, fingerprint, transition);
+    }
+
+    private void runAndStore(String key, String action, String fingerprint, Runnable transition) {
+        try {
+            transition.run();
+            store(key, new IdempotencyRecord(false, HttpStatus.NO_CONTENT.value(), null, fingerprint));
+            record(action, "executed");
+        } catch (TripNotFoundException e) {
+            store(key, new IdempotencyRecord(false, HttpStatus.NOT_FOUND.value(), e.getMessage(), fingerprint));
+            record(action, "executed");
+            throw e;
+        } catch (TripStatusConflictException e) {
+            store(key, new IdempotencyRecord(false, HttpStatus.CONFLICT.value(), e.getMessage(), fingerprint));
+            record(action, "executed");
+            throw e;
+        } catch (RuntimeException e) {
+            release(key);
+            record(action, "failed");
+            throw e;
+        }
+    }
+
+    // 재요청이 다시 실행할 수 있도록 처리 중 표시 삭제. Redis 장애로 못 지우면 pendingTtl 이후 만료되므로 원래 예외를 그대로 던짐
+    private void release(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency-Key 처리 중 표시 삭제 실패. Key: {}, Error: {}", key, e.getMessage());
+        }
+    }
+
+    // 저장된 결과가 나올 때까지 대기. 첫 요청이 실패로 키를 지웠으면 이번 요청이 다시 실행
+    private boolean replay(String key, String tripId, String action, String idempotencyKey, String fingerprint, Runnable transition) {
+        long deadline = System.nanoTime() + parkTimeout.toNanos();
+        boolean parked = false;
+
+        while (true) {
+            String value;
+            try {
+                value = redisTemplate.opsForValue().get(key);
+            } catch (DataAccessException e) {
+                // 키 선점 뒤 Redis 장애: 전이는 조건부 UPDATE로 멱등하므로 키 없이 실행 (execute의 장애 처리와 같음)
+                log.warn("Idempotency-Key 결과 조회 실패. 키 없이 처리합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+                record(action, "unavailable");
+                transition.run();
+                return false;
+            }
+            if (value == null) {
+                return execute(tripId, action, idempotencyKey, fingerprint, transition);
+            }
+
+            IdempotencyRecord stored = deserialize(value);
+            if (!Objects.equals(stored.fingerprint(), fingerprint)) {
+                record(action, "key_reused");
+                throw new IdempotentReplayException(HttpStatus.UNPROCESSABLE_ENTITY, "같은 Idempotency-Key로 다른 요청을 보낼 수 없습니다.");
+            }
+
+            if (!stored.pending()) {
+                record(action, parked ? "parked_replayed" : "replayed");
+                log.info("♻️ Idempotency-Key 재요청을 저장된 결과로 응답. TripID: {}, Action: {}, Status: {}", tripId, action, stored.status());
+                if (stored.status() == HttpStatus.NO_CONTENT.value()) {
+                    return true;
+                }
+                throw new IdempotentReplayException(HttpStatus.valueOf(stored.status()), stored.message());
+            }
+
+            if (System.nanoTime() >= deadline) {
+                record(action, "in_progress");
+                throw new IdempotentReplayException(HttpStatus.CONFLICT, "같은 Idempotency-Key 요청이 아직 처리 중입니다.");
+            }
+            parked = true;
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotentReplayException(HttpStatus.CONFLICT, "같은 Idempotency-Key 요청이 아직 처리 중입니다.");
+            }
+        }
+    }
+
+    private void store(String key, IdempotencyRecord outcome) {
+        try {
+            redisTemplate.opsForValue().set(key, serialize(outcome), ttl);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency-Key 결과 저장 실패. Key: {}, Error: {}", key, e.getMessage());
+        }
+    }
+
+    private void record(String action, String result) {
+        meterRegistry.counter("trip.transition.idempotency", "action", action, "result", result).increment();
+    }
+
+    private String serialize(IdempotencyRecord value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IdempotencyRecord deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
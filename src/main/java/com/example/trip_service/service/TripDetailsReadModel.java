@@ -0,0 +1,201 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.dto.TripDetailsResponse;
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripDetailsSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 여정 상세 조회용 CQRS 읽기 모델 (Redis Hash: trip:details:{tripId} -> version, payload)
+// 쓰기는 DB 커밋 이후에만 수행하고, 행 버전(@Version)이 더 높을 때만 덮어써서 순서가 뒤바뀐 쓰기가 상태를 되돌리지 못하게 함
+@Component
+@Slf4j
+public class TripDetailsReadModel {
+
+    private static final String KEY_PREFIX = "trip:details:";
+    private static final String VERSION_FIELD = "version";
+    private static final String PAYLOAD_FIELD = "payload";
+
+    // KEYS[1]=키, ARGV[1]=버전, ARGV[2]=payload, ARGV[3]=TTL(초). 저장된 버전보다 높을 때만 갱신
+    private static final RedisScript<Long> WRITE_IF_NEWER = RedisScript.of("""
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current and tonumber(current) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], 'payload', ARGV[2])
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    public TripDetailsReadModel(StringRedisTemplate redisTemplate,
+                                ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${trip.read-model.enabled:true}") boolean enabled,
+                                @Value("${trip.read-model.ttl:6h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.ttl = ttl;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Redis 장애/미스는 빈 값으로 돌려주고 호출 측에서 DB로 대체
+    public Optional<TripDetailsSnapshot> find(String tripId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            List<Object> values = redisTemplate.opsForHash()
+                                               .multiGet(KEY_PREFIX + tripId, List.of(VERSION_FIELD, PAYLOAD_FIELD));
+            if (values == null || values.get(0) == null || values.get(1) == null) {
+                countRead("miss");
+                return Optional.empty();
+            }
+
+            TripDetailsResponse details = objectMapper.readValue((String) values.get(1), TripDetailsResponse.class);
+            countRead("hit");
+            return Optional.of(new TripDetailsSnapshot(details, Long.parseLong((String) values.get(0))));
+        } catch (Exception e) {
+            countRead("error");
+            log.warn("여정 상세 읽기 모델 조회 실패. DB로 대체합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // 여러 여정을 파이프라인 HMGET 한 번의 왕복으로 조회. 미스/장애 건은 결과에서 빠지고 호출 측에서 DB로 대체
+    public Map<String, TripDetailsSnapshot> findAll(List<String> tripIds) {
+        Map<String, TripDetailsSnapshot> snapshots = new HashMap<>();
+        if (!enabled || tripIds.isEmpty()) {
+            return snapshots;
+        }
+
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String tripId : tripIds) {
+                    connection.hashCommands().hMGet(
+                            (KEY_PREFIX + tripId).getBytes(StandardCharsets.UTF_8),
+                            VERSION_FIELD.getBytes(StandardCharsets.UTF_8),
+                            PAYLOAD_FIELD.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+
+            for (int i = 0; i < tripIds.size(); i++) {
+                List<?> values = (List<?>) results.get(i);
+                if (values == null || values.get(0) == null || values.get(1) == null) {
+                    continue;
+                }
+                TripDetailsResponse details = objectMapper.readValue((String) values.get(1), TripDetailsResponse.class);
+                snapshots.put(tripIds.get(i), new TripDetailsSnapshot(details, Long.parseLong((String) values.get(0))));
+            }
+        } catch (Exception e) {
+            log.warn("여정 상세 읽기 모델 일괄 조회 실패. DB로 대체합니다. Count: {}, Error: {}", tripIds.size(), e.getMessage());
+        }
+
+        meterRegistry.counter("trip.details.read_model.read", "result", "hit").increment(snapshots.size());
+        meterRegistry.counter("trip.details.read_model.read", "result", "miss").increment(tripIds.size() - snapshots.size());
+        return snapshots;
+    }
+
+    // 조건부 조회(If-None-Match)용: payload 없이 버전 필드만 읽음
+    public Optional<Long> findVersion(String tripId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            Object version = redisTemplate.opsForHash().get(KEY_PREFIX + tripId, VERSION_FIELD);
+            return Optional.ofNullable(version).map(v -> Long.parseLong((String) v));
+        } catch (Exception e) {
+            log.warn("여정 상세 읽기 모델 버전 조회 실패. DB로 대체합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // 트랜잭션 커밋 이후(afterCommit) 호출 전용. 실패해도 DB 트랜잭션에는 영향 없음
+    public void write(TripDetailsRow row) {
+        if (!enabled) return;
+
+        try {
+            Long applied = redisTemplate.execute(WRITE_IF_NEWER, List.of(KEY_PREFIX + row.tripId()),
+                    String.valueOf(row.version()), toPayload(row), String.valueOf(ttl.toSeconds()));
+            countWrite(applied);
+        } catch (Exception e) {
+            logWriteFailure(row, e);
+            try {
+                redisTemplate.delete(KEY_PREFIX + row.tripId());
+            } catch (Exception deleteEx) {
+                log.error("여정 상세 읽기 모델 무효화 실패. TripID: {}", row.tripId(), deleteEx);
+            }
+        }
+    }
+
+    public Mono<Void> writeAsync(TripDetailsRow row) {
+        if (!enabled) return Mono.empty();
+
+        return Mono.fromCallable(() -> toPayload(row))
+                   .flatMap(payload -> reactiveRedisTemplate.execute(WRITE_IF_NEWER, List.of(KEY_PREFIX + row.tripId()),
+                                                                    List.of(String.valueOf(row.version()), payload, String.valueOf(ttl.toSeconds())))
+                                                            .next())
+                   .doOnNext(this::countWrite)
+                   .then()
+                   .onErrorResume(e -> {
+                       logWriteFailure(row, e);
+                       return reactiveRedisTemplate.delete(KEY_PREFIX + row.tripId())
+                                                   .onErrorResume(deleteEx -> {
+                                                       log.error("여정 상세 읽기 모델 무효화 실패. TripID: {}", row.tripId(), deleteEx);
+                                                       return Mono.empty();
+                                                   })
+                                                   .then();
+                   });
+    }
+
+    private String toPayload(TripDetailsRow row) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(TripDetailsResponse.fromRow(row));
+    }
+
+    // 갱신 실패 시 오래된 스냅샷이 남아 있으면 안 되므로 호출 측에서 키 삭제 시도 (다음 조회는 DB에서 다시 채움)
+    private void logWriteFailure(TripDetailsRow row, Throwable e) {
+        meterRegistry.counter("trip.details.read_model.write", "result", "error").increment();
+        log.error("여정 상세 읽기 모델 갱신 실패. TripID: {}, Version: {}, Error: {}", row.tripId(), row.version(), e.getMessage());
+    }
+
+    private void countWrite(Long applied) {
+        String result = applied != null && applied == 1L ? "applied" : "stale";
+        meterRegistry.counter("trip.details.read_model.write", "result", result).increment();
+    }
+
+    private void countRead(String result) {
+        meterRegistry.counter("trip.details.read_model.read", "result", result).increment();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.repository.TripRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// 콜드 스타트(Redis 초기화/유실) 시 진행 중인 여정의 상세 읽기 모델을 DB에서 다시 채움
+// 버전 비교 쓰기라서 서비스 트래픽과 동시에 돌아도 최신 상태를 덮어쓰지 않음
+@Component
+@Slf4j
+public class TripDetailsReadModelRebuilder implements CommandLineRunner {
+
+    // 자주 조회되는 진행 중 여정만 대상. 종료된 여정은 조회 시 DB 폴백으로 채워짐
+    private static final Set<TripStatus> ACTIVE_STATUSES = EnumSet.of(
+            TripStatus.MATCHED, TripStatus.ARRIVED, TripStatus.IN_PROGRESS,
+            TripStatus.PAYMENT_PENDING, TripStatus.PAYMENT_FAILED);
+
+    private final TripRepository tripRepository;
+    private final TripDetailsReadModel detailsReadModel;
+    private final boolean rebuildOnStartup;
+    private final int pageSize;
+
+    public TripDetailsReadModelRebuilder(TripRepository tripRepository,
+                                         TripDetailsReadModel detailsReadModel,
+                                         @Value("${trip.read-model.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                                         @Value("${trip.read-model.rebuild-page-size:500}") int pageSize) {
+        this.tripRepository = tripRepository;
+        this.detailsReadModel = detailsReadModel;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!rebuildOnStartup || !detailsReadModel.isEnabled()) {
+            return;
+        }
+
+        // 기동을 막지 않도록 백그라운드에서 실행
+        Mono.fromCallable(this::rebuild)
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                    count -> log.info("♻️ 여정 상세 읽기 모델 재구성 완료: {}건", count),
+                    e -> log.error("여정 상세 읽기 모델 재구성 실패", e)
+            );
+    }
+
+    public int rebuild() {
+        int total = 0;
+        String afterTripId = "";
+
+        while (true) {
+            List<TripDetailsRow> page = tripRepository.findDetailsPageByStatusIn(ACTIVE_STATUSES, afterTripId, Limit.of(pageSize));
+            page.forEach(detailsReadModel::write);
+            total += page.size();
+
+            if (page.size() < pageSize) {
+                return total;
+            }
+            afterTripId = page.get(page.size() - 1).tripId();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.client.DriverServiceClient;
+import com.example.trip_service.client.NaverMapsClient;
+import com.example.trip_service.client.UserServiceClient;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.EnrichmentStatus;
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.kafka.dto.TripMatchedEvent;
+import com.example.trip_service.repository.TripMatchStore;
+import com.example.trip_service.repository.TripRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 여정 부가 정보(주소, 사용자/기사 이름, 차량) 조회 및 비동기 보강 처리
+// persist-first 모드: 여정은 좌표/ID만으로 먼저 저장하고, 보강은 제한된 크기의 재시도 큐에서 후속 UPDATE로 처리
+// 큐는 메모리에만 있으므로 재기동/큐 포화/재시도 초과로 빠진 여정은 enrichment_status = PENDING 재스캔으로 다시 넣음
+@Service
+@Slf4j
+public class TripEnrichmentService implements CommandLineRunner, DisposableBean {
+
+    public enum CreationMode {
+        ENRICH_FIRST,   // 외부 API 조회가 끝난 뒤 여정 저장 (기존 방식)
+        PERSIST_FIRST   // 여정을 즉시 저장하고 부가 정보는 나중에 채움
+    }
+
+    private record EnrichmentTask(TripMatchedEvent event, int attempt) {
+        EnrichmentTask next() {
+            return new EnrichmentTask(event, attempt + 1);
+        }
+    }
+
+    private final NaverMapsClient naverMapsClient;
+    private final UserServiceClient userServiceClient;
+    private final DriverServiceClient driverServiceClient;
+    private final TripMatchStore matchStore;
+    private final TripDetailsReadModel detailsReadModel;
+    private final TripRepository tripRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final CreationMode creationMode;
+    private final int queueCapacity;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration rescanAfter;
+    private final int rescanBatchSize;
+    private final Timer visibleTimer;
+
+    // 재시도 대기 중인 작업까지 포함한 미완료 보강 작업 수 (queueCapacity로 상한)
+    private final AtomicInteger pending = new AtomicInteger();
+    // 이 인스턴스 큐에 들어 있는 tripId (재스캔이 같은 여정을 다시 넣지 않도록)
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Sinks.Many<EnrichmentTask> tasks = Sinks.many().unicast().onBackpressureBuffer();
+    private Disposable subscription;
+
+    public TripEnrichmentService(NaverMapsClient naverMapsClient,
+                                 UserServiceClient userServiceClient,
+                                 DriverServiceClient driverServiceClient,
+                                 TripMatchStore matchStore,
+                                 TripDetailsReadModel detailsReadModel,
+                                 TripRepository tripRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${trip.creation.mode:enrich-first}") String creationMode,
+                                 @Value("${trip.creation.enrichment.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${trip.creation.enrichment.concurrency:64}") int concurrency,
+                                 @Value("${trip.creation.enrichment.max-attempts:5}") int maxAttempts,
+                                 @Value("${trip.creation.enrichment.retry-backoff:2s}") Duration retryBackoff,
+                                 @Value("${trip.creation.enrichment.rescan-after:2m}") Duration rescanAfter,
+                                 @Value("${trip.creation.enrichment.rescan-batch-size:1000}") int rescanBatchSize) {
+        this.naverMapsClient = naverMapsClient;
+        this.userServiceClient = userServiceClient;
+        this.driverServiceClient = driverServiceClient;
+        this.matchStore = matchStore;
+        this.detailsReadModel = detailsReadModel;
+        this.tripRepository = tripRepository;
+        this.meterRegistry = meterRegistry;
+        this.creationMode = CreationMode.valueOf(creationMode.trim().toUpperCase().replace('-', '_'));
+        this.queueCapacity = queueCapacity;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.rescanAfter = rescanAfter;
+        this.rescanBatchSize = rescanBatchSize;
+
+        this.visibleTimer = Timer.builder("trip.matched.visible")
+                                 .description("배차 시각(matchedAt)부터 여정이 저장되어 조회 가능해질 때까지 걸린 시간")
+                                 .tag("mode", creationMode)
+                                 .publishPercentileHistogram()
+                                 .register(meterRegistry);
+
+        Gauge.builder("trip.enrichment.pending", pending, AtomicInteger::get)
+             .description("아직 완료되지 않은 여정 보강 작업 수 (재시도 대기 포함)")
+             .register(meterRegistry);
+    }
+
+    public boolean isPersistFirst() {
+        return creationMode == CreationMode.PERSIST_FIRST;
+    }
+
+    // 보강 전 임시 값: 주소 컬럼은 NOT NULL 이므로 좌표 문자열을 넣고, 이름/차량 정보는 비워둠
+    public TripEnrichment placeholder(TripMatchedEvent event) {
+        return new TripEnrichment(
+                formatCoordinate(event.origin()),
+                formatCoordinate(event.destination()),
+                null, null, null, null
+        );
+    }
+
+    public void recordVisible(TripMatchedEvent event) {
+        if (event.matchedAt() == null) return;
+        Duration elapsed = Duration.between(event.matchedAt(), LocalDateTime.now());
+        if (!elapsed.isNegative()) {
+            visibleTimer.record(elapsed);
+        }
+    }
+
+    public Mono<TripEnrichment> fetch(TripMatchedEvent event) {
+        Mono<String> originMono = naverMapsClient.reverseGeocode(
+                                                         event.origin().longitude(), event.origin().latitude())
+                                                 .onErrorReturn("출발지 주소 확인 불가");
+
+        Mono<String> destMono = naverMapsClient.reverseGeocode(
+                                                       event.destination().longitude(), event.destination().latitude())
+                                               .onErrorReturn("목적지 주소 확인 불가");
+
+        Mono<UserServiceClient.InternalUserInfo> userMono =
+                userServiceClient.getUserInfo(event.userId());
+
+        Mono<DriverServiceClient.InternalDriverInfo> driverMono =
+                driverServiceClient.getDriverInfo(event.driverId());
+
+        return Mono.zip(originMono, destMono, userMono, driverMono)
+                   .map(tuple -> new TripEnrichment(
+                           tuple.getT1(),
+                           tuple.getT2(),
+                           tuple.getT3().name(),
+                           tuple.getT4().name(),
+                           tuple.getT4().vehicle().model(),
+                           tuple.getT4().vehicle().licensePlate()
+                   ));
+    }
+
+    // 보강 작업 접수. 큐가 가득 차면 버리고 false (여정은 PENDING 으로 저장되어 있으므로 재스캔이 다시 넣음)
+    public boolean submit(TripMatchedEvent event) {
+        if (!inFlight.add(event.tripId())) {
+            return true; // 이미 큐에 있음
+        }
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            inFlight.remove(event.tripId());
+            countResult("dropped");
+            log.warn("⚠️ 여정 보강 큐 포화로 작업을 버립니다. 재스캔 때 다시 시도합니다. TripID: {}", event.tripId());
+            return false;
+        }
+        emit(new EnrichmentTask(event, 1));
+        return true;
+    }
+
+    // 보강되지 않은 채 rescan-after 이상 지난 여정을 다시 큐에 넣음 (기동 직후 한 번 + 주기적으로, 한 인스턴스에서만)
+    @Scheduled(fixedDelayString = "${trip.creation.enrichment.rescan-interval-ms:300000}", initialDelay = 30000)
+    @SchedulerLock(name = "Trip_rescanPendingEnrichment", lockAtMostFor = "PT5M")
+    public void rescanPending() {
+        int capacity = Math.min(rescanBatchSize, queueCapacity - pending.get());
+        if (capacity <= 0) return;
+
+        List<Trip> trips = tripRepository.findByEnrichmentStatusAndMatchedAtBeforeOrderByMatchedAt(
+                EnrichmentStatus.PENDING, LocalDateTime.now().minus(rescanAfter), Limit.of(capacity));
+        int resubmitted = 0;
+        for (Trip trip : trips) {
+            TripMatchedEvent event = toEvent(trip);
+            if (event == null) continue;
+            if (!submit(event)) break;
+            resubmitted++;
+        }
+        if (resubmitted > 0) {
+            meterRegistry.counter("trip.enrichment", "result", "rescanned").increment(resubmitted);
+            log.info("🔁 보강되지 않은 여정 {}건을 다시 큐에 넣었습니다.", resubmitted);
+        }
+    }
+
+    // PENDING 동안 주소 컬럼에는 placeholder(위도,경도)가 들어 있으므로 좌표를 복원해 배차 이벤트를 다시 만듦
+    private TripMatchedEvent toEvent(Trip trip) {
+        try {
+            return new TripMatchedEvent(trip.getTripId(), trip.getUserId(), trip.getDriverId(),
+                    parseCoordinate(trip.getOriginAddress()), parseCoordinate(trip.getDestinationAddress()),
+                    trip.getMatchedAt());
+        } catch (RuntimeException e) {
+            log.error("🚨 보강 대기 여정의 좌표를 읽을 수 없습니다. TripID: {}, Origin: {}", trip.getTripId(), trip.getOriginAddress());
+            return null;
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        this.subscription = tasks.asFlux()
+                                 .flatMap(this::process, concurrency)
+                                 .subscribe(
+                                         null,
+                                         e -> log.error("🔥 [Critical] 여정 보강 워커 스트림 종료됨!", e)
+                                 );
+    }
+
+    private Mono<Void> process(EnrichmentTask task) {
+        String tripId = task.event().tripId();
+
+        return fetch(task.event())
+                .flatMap(enrichment -> matchStore.applyEnrichment(tripId, enrichment))
+                // 보강으로 버전이 올라갔으므로 읽기 모델도 최신 행으로 갱신
+                .flatMap(updated -> matchStore.findDetails(tripId)
+                                              .flatMap(detailsReadModel::writeAsync)
+                                              .thenReturn(updated))
+                .doOnSuccess(updated -> {
+                    finish(tripId);
+                    countResult("success");
+                    log.info("여정 보강 완료. TripID: {}", tripId);
+                })
+                .onErrorResume(e -> {
+                    if (task.attempt() >= maxAttempts) {
+                        finish(tripId);
+                        countResult("exhausted");
+                        log.error("🚨 여정 보강 재시도 초과. 재스캔 때 다시 시도합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+                        return Mono.empty();
+                    }
+
+                    countResult("retry");
+                    log.warn("🔄 여정 보강 실패, 재시도 예약 ({}/{}). TripID: {}, Error: {}",
+                            task.attempt(), maxAttempts, tripId, e.getMessage());
+                    Mono.delay(retryBackoff.multipliedBy(task.attempt()))
+                        .subscribe(tick -> emit(task.next()));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // 여러 스레드(컨슈머, 재시도 타이머)에서 동시에 넣으므로 직렬화 실패 시 잠깐 재시도
+    private void emit(EnrichmentTask task) {
+        tasks.emitNext(task, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private void finish(String tripId) {
+        pending.decrementAndGet();
+        inFlight.remove(tripId);
+    }
+
+    // 재스캔 때 다시 읽으므로 로케일과 무관하게 소수점은 '.'
+    private static String formatCoordinate(TripMatchedEvent.Location location) {
+        return String.format(Locale.ROOT, "%.6f,%.6f", location.latitude(), location.longitude());
+    }
+
+    private static TripMatchedEvent.Location parseCoordinate(String placeholder) {
+        String[] latLng = placeholder.split(",");
+        return new TripMatchedEvent.Location(Double.parseDouble(latLng[1].trim()), Double.parseDouble(latLng[0].trim()));
+    }
+
+    private void countResult(String result) {
+        meterRegistry.counter("trip.enrichment", "result", result).increment();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null && !subscription.isDisposed()) {
+            log.info("🛑 [Shutdown] 여정 보강 워커를 종료합니다. 미완료 작업: {}건", pending.get());
+            subscription.dispose();
+        }
+    }
+}
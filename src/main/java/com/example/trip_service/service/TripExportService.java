@@ -0,0 +1,253 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+// 정산용 여정 대량 추출
+// JPA 엔티티/DTO를 만들지 않고 forward-only JDBC 커서에서 한 행씩 읽어 바로 출력 스트림에 기록 -> 건수와 무관하게 힙 사용량 일정
+// 출력 스트림(서블릿 응답)이 느린 클라이언트 때문에 블로킹되면 커서도 그만큼 늦게 진행 (백프레셔)
+@Service
+@Slf4j
+public class TripExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new InvalidTripQueryException("format은 ndjson 또는 csv 이어야 합니다.");
+            }
+        }
+    }
+
+    private static final String EXPORT_SQL = """
+            SELECT trip_id, status, user_id, driver_id, origin_address, destination_address,
+                   fare, matched_at, started_at, ended_at
+              FROM trips
+             WHERE matched_at >= ? AND matched_at < ?
+             ORDER BY matched_at, id
+            """;
+
+    private static final String[] COLUMNS = {
+            "tripId", "status", "userId", "driverId", "originAddress", "destinationAddress",
+            "fare", "matchedAt", "startedAt", "endedAt"
+    };
+
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int fetchSize;
+    private final int maxRangeDays;
+
+    public TripExportService(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${trip.export.fetch-size:1000}") int fetchSize,
+                             @Value("${trip.export.max-range-days:31}") int maxRangeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.fetchSize = fetchSize;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    // 스트리밍 시작 후에는 400으로 응답할 수 없으므로 컨트롤러에서 먼저 검증
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidTripQueryException("from은 to보다 이전 날짜여야 합니다.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxRangeDays) {
+            throw new InvalidTripQueryException("추출 기간은 최대 " + maxRangeDays + "일입니다.");
+        }
+    }
+
+    // [from, to) 기간에 배차된 여정을 matched_at 순으로 기록하고 기록한 행 수를 반환
+    // readOnly 트랜잭션: 복제본 라우팅 활성화 시 긴 스캔이 primary 커넥션을 잡지 않음
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, Format format, OutputStream out) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Counter rowCounter = meterRegistry.counter("trip.export.rows", "format", format.extension());
+        String result = "success";
+
+        try {
+            OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+            RowWriter writer = format == Format.NDJSON ? new NdjsonRowWriter(buffered) : new CsvRowWriter(buffered);
+            writer.begin();
+
+            long[] rows = {0};
+            jdbcTemplate.query(connection -> prepareStreaming(connection, from, to), (RowCallbackHandler) rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    // 클라이언트 연결 끊김 등: 커서를 닫고 중단
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+
+            writer.finish();
+            rowCounter.increment(rows[0]);
+            log.info("📦 여정 추출 완료. 기간: {} ~ {}, 형식: {}, 건수: {}", from, to, format.extension(), rows[0]);
+            return rows[0];
+        } catch (IOException e) {
+            result = "failure";
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            result = "failure";
+            log.warn("여정 추출 중단. 기간: {} ~ {}, Error: {}", from, to, e.getMessage());
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("trip.export", "format", format.extension(), "result", result));
+        }
+    }
+
+    private PreparedStatement prepareStreaming(Connection connection, LocalDate from, LocalDate to) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // MySQL Connector/J는 양수 fetch size를 무시하고 결과 전체를 메모리에 올림 -> Integer.MIN_VALUE로 행 단위 스트리밍
+        boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+        ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+        ps.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+        return ps;
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            // 스트림 종료(gzip trailer 등)는 호출자 책임. 행 구분은 직접 줄바꿈으로 (기본 구분자는 공백)
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                                         .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof Timestamp timestamp) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: 구분자/따옴표/줄바꿈이 있으면 큰따옴표로 감싸고 내부 따옴표는 두 번
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
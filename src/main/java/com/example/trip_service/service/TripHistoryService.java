@@ -0,0 +1,82 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.dto.TripHistoryResponse;
+import com.example.trip_service.dto.TripSummaryResponse;
+import com.example.trip_service.dto.TripSummaryRow;
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+// 사용자/기사별 여정 이력 조회 (키셋 페이지네이션)
+// 커서 = base64url("matchedAt|id") : 마지막으로 받은 행 다음부터 조회하므로 OFFSET과 달리 페이지 깊이와 무관하게 일정한 비용
+@Service
+@RequiredArgsConstructor
+public class TripHistoryService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final TripRepository tripRepository;
+
+    @Transactional(readOnly = true)
+    public TripHistoryResponse getHistory(String userId, String driverId, String cursor, Integer size) {
+        boolean byUser = userId != null && !userId.isBlank();
+        boolean byDriver = driverId != null && !driverId.isBlank();
+        if (byUser == byDriver) {
+            throw new InvalidTripQueryException("userId 또는 driverId 중 하나만 지정해야 합니다.");
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidTripQueryException("size는 1 이상 " + MAX_PAGE_SIZE + " 이하여야 합니다.");
+        }
+
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        Limit limit = Limit.of(pageSize + 1);
+        List<TripSummaryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = byUser ? tripRepository.findUserHistoryFirstPage(userId, limit)
+                          : tripRepository.findDriverHistoryFirstPage(driverId, limit);
+        } else {
+            Cursor decoded = Cursor.decode(cursor);
+            rows = byUser ? tripRepository.findUserHistoryAfter(userId, decoded.matchedAt(), decoded.id(), limit)
+                          : tripRepository.findDriverHistoryAfter(driverId, decoded.matchedAt(), decoded.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<TripSummaryRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? Cursor.from(page.get(page.size() - 1)).encode() : null;
+
+        return new TripHistoryResponse(page.stream().map(TripSummaryResponse::fromRow).toList(), nextCursor);
+    }
+
+    record Cursor(LocalDateTime matchedAt, Long id) {
+
+        static Cursor from(TripSummaryRow row) {
+            return new Cursor(row.matchedAt(), row.id());
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new InvalidTripQueryException("잘못된 cursor 값입니다.");
+            }
+        }
+
+        String encode() {
+            String raw = matchedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.trip_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// 배차 이벤트 중복 여부를 DB 조회 없이 1차로 걸러내는 멱등성 가드
+// 1) 로컬 블룸 필터: "처음 본 tripId"를 메모리에서 즉시 판별
+// 2) Redis SETNX 마커: 재기동/다른 파드에서 이미 받은 이벤트인지 확인
+// 둘 중 하나라도 "봤을 수도 있음"이면 DB를 조회하고, 최종 방어선은 trip_id 유니크 제약
+@Component
+@Slf4j
+public class TripMatchedIdempotencyGuard {
+
+    private static final String MARKER_KEY_PREFIX = "trip:matched:seen:";
+
+    public enum Verdict {
+        NEW,            // 처음 본 이벤트 -> DB 조회 생략
+        FILTER_HIT,     // 블룸 필터가 "봤을 수도 있음" -> DB 확인 필요
+        MARKER_HIT,     // Redis 마커가 이미 존재 -> DB 확인 필요
+        UNAVAILABLE     // 가드 비활성/Redis 장애 -> DB 확인 필요
+    }
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final RecentIdBloomFilter filter;
+    private final boolean enabled;
+    private final Duration markerTtl;
+
+    private final Counter dbLookupAvoided;
+    private final Counter filterTruePositive;
+    private final Counter filterFalsePositive;
+    private final Counter markerTruePositive;
+    private final Counter markerFalsePositive;
+
+    public TripMatchedIdempotencyGuard(ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${trip.matched.idempotency.enabled:true}") boolean enabled,
+                                       @Value("${trip.matched.idempotency.marker-ttl:24h}") Duration markerTtl,
+                                       @Value("${trip.matched.idempotency.filter.expected-insertions:200000}") int expectedInsertions,
+                                       @Value("${trip.matched.idempotency.filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                                       @Value("${trip.matched.idempotency.filter.rotation-interval:30m}") Duration rotationInterval) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.enabled = enabled;
+        this.markerTtl = markerTtl;
+        this.filter = new RecentIdBloomFilter(expectedInsertions, falsePositiveProbability, rotationInterval);
+
+        this.dbLookupAvoided = Counter.builder("trip.matched.idempotency.db.lookup.avoided")
+                                      .description("멱등성 가드가 신규 이벤트로 판정하여 생략한 DB 조회 수")
+                                      .register(meterRegistry);
+        this.filterTruePositive = positiveCounter(meterRegistry, "filter", "duplicate");
+        this.filterFalsePositive = positiveCounter(meterRegistry, "filter", "false_positive");
+        this.markerTruePositive = positiveCounter(meterRegistry, "marker", "duplicate");
+        this.markerFalsePositive = positiveCounter(meterRegistry, "marker", "false_positive");
+    }
+
+    public Mono<Verdict> check(String tripId) {
+        if (!enabled) {
+            return Mono.just(Verdict.UNAVAILABLE);
+        }
+
+        if (filter.mightContain(tripId)) {
+            return Mono.just(Verdict.FILTER_HIT);
+        }
+        filter.put(tripId);
+
+        return reactiveRedisTemplate.opsForValue()
+                                    .setIfAbsent(MARKER_KEY_PREFIX + tripId, "1", markerTtl)
+                                    .map(acquired -> {
+                                        if (Boolean.TRUE.equals(acquired)) {
+                                            dbLookupAvoided.increment();
+                                            return Verdict.NEW;
+                                        }
+                                        return Verdict.MARKER_HIT;
+                                    })
+                                    .defaultIfEmpty(Verdict.UNAVAILABLE)
+                                    .onErrorResume(e -> {
+                                        log.warn("멱등성 마커 확인 실패. DB 조회로 대체합니다. TripID: {}, Error: {}", tripId, e.getMessage());
+                                        return Mono.just(Verdict.UNAVAILABLE);
+                                    });
+    }
+
+    // "봤을 수도 있음" 판정 후 실제 DB 조회 결과를 기록하여 오탐률을 측정
+    public void recordLookup(Verdict verdict, boolean existed) {
+        switch (verdict) {
+            case FILTER_HIT -> (existed ? filterTruePositive : filterFalsePositive).increment();
+            case MARKER_HIT -> (existed ? markerTruePositive : markerFalsePositive).increment();
+            default -> {
+            }
+        }
+    }
+
+    private static Counter positiveCounter(MeterRegistry meterRegistry, String source, String outcome) {
+        return Counter.builder("trip.matched.idempotency.positive")
+                      .description("멱등성 가드가 중복 가능성으로 판정한 건의 실제 DB 조회 결과")
+                      .tag("source", source)
+                      .tag("outcome", outcome)
+                      .register(meterRegistry);
+    }
+}
@@ -1,25 +1,32 @@
 package com.example.trip_service.service;
 
-import com.example.trip_service.client.DriverServiceClient;
-import com.example.trip_service.client.NaverMapsClient;
-import com.example.trip_service.client.UserServiceClient;
 import com.example.trip_service.dto.CancelTripRequest;
 import com.example.trip_service.dto.CompleteTripRequest;
 import com.example.trip_service.dto.TripDetailsResponse;
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripDetailsSnapshot;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.EnrichmentStatus;
 import com.example.trip_service.entity.Trip;
 import com.example.trip_service.entity.TripOutbox;
 import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.entity.TripTransition;
+import com.example.trip_service.exception.InvalidTripQueryException;
 import com.example.trip_service.exception.TripNotFoundException;
+import com.example.trip_service.exception.TripStatusConflictException;
+import com.example.trip_service.kafka.OutboxDispatcher;
+import com.example.trip_service.kafka.OutboxPayloadCodec;
 import com.example.trip_service.kafka.dto.*;
+import com.example.trip_service.repository.TripMatchStore;
 import com.example.trip_service.repository.TripOutboxRepository;
 import com.example.trip_service.repository.TripRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DeadlockLoserDataAccessException;
-import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.dao.TransientDataAccessException;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -31,11 +38,13 @@ import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -43,92 +52,104 @@ import java.util.List;
 public class TripService {
     private static final String DRIVER_TRIP_KEY_PREFIX = "driver:trip:";
     private static final String KAFKA_TOPIC = "trip_events";
+    private static final int BATCH_GET_CHUNK_SIZE = 100;
 
     private final TripRepository tripRepository;
-    private final NaverMapsClient naverMapsClient;
-    private final UserServiceClient userServiceClient;
-    private final DriverServiceClient driverServiceClient;
     private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
     private final TripOutboxRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final OutboxPayloadCodec outboxPayloadCodec;
+    private final TripMatchedIdempotencyGuard idempotencyGuard;
+    private final TripMatchStore matchStore;
+    private final TripEnrichmentService enrichmentService;
+    private final TripDetailsReadModel detailsReadModel;
+    private final MeterRegistry meterRegistry;
+    private final InProgressDriverRegistry inProgressDriverRegistry;
+
+    @Value("${trip.details.batch-get.max-size:500}")
+    private int batchGetMaxSize;
 
     public Mono<Trip> createTripFromEvent(TripMatchedEvent event) {
         log.info("배차 완료 이벤트 수신. Trip ID: {}", event.tripId());
-        return Mono.fromCallable(() -> tripRepository.findByTripId(event.tripId()))
-                   .subscribeOn(Schedulers.boundedElastic())
-                   .flatMap(optionalTrip -> {
-                       if (optionalTrip.isPresent()) {
-                           log.info("이미 처리된 Trip ID 입니다. (중복 처리 생략): {}", event.tripId());
-                           return Mono.just(optionalTrip.get());
-                       }
-                       return processNewTrip(event);
-                   });
+        return idempotencyGuard.check(event.tripId())
+                               .flatMap(verdict -> {
+                                   // 처음 보는 tripId면 DB 조회 없이 바로 생성 (중복은 유니크 제약이 최종 방어)
+                                   if (verdict == TripMatchedIdempotencyGuard.Verdict.NEW) {
+                                       return processNewTrip(event);
+                                   }
+                                   return matchStore.existsByTripId(event.tripId())
+                                                    .flatMap(exists -> {
+                                                        idempotencyGuard.recordLookup(verdict, exists);
+                                                        if (exists) {
+                                                            log.info("이미 처리된 Trip ID 입니다. (중복 처리 생략): {}", event.tripId());
+                                                            return Mono.empty();
+                                                        }
+                                                        return processNewTrip(event);
+                                                    });
+                               });
     }
 
     private Mono<Trip> processNewTrip(TripMatchedEvent event) {
-        Mono<String> originMono = naverMapsClient.reverseGeocode(
-                                                         event.origin().longitude(), event.origin().latitude())
-                                                 .onErrorReturn("출발지 주소 확인 불가");
-
-        Mono<String> destMono = naverMapsClient.reverseGeocode(
-                                                       event.destination().longitude(), event.destination().latitude())
-                                               .onErrorReturn("목적지 주소 확인 불가");
-
-        Mono<UserServiceClient.InternalUserInfo> userMono =
-                userServiceClient.getUserInfo(event.userId());
-
-        Mono<DriverServiceClient.InternalDriverInfo> driverMono =
-                driverServiceClient.getDriverInfo(event.driverId());
-
-        return Mono.zip(originMono, destMono, userMono, driverMono)
-                   .flatMap(tuple -> {
-                       String originAddress = tuple.getT1();
-                       String destinationAddress = tuple.getT2();
-                       var userInfo = tuple.getT3();
-                       var driverInfo = tuple.getT4();
-
-                       Trip trip = Trip.builder()
-                                       .tripId(event.tripId())
-                                       .userId(event.userId())
-                                       .driverId(event.driverId())
-                                       .originAddress(originAddress)
-                                       .destinationAddress(destinationAddress)
-                                       .matchedAt(event.matchedAt())
-                                       .userName(userInfo.name())
-                                       .driverName(driverInfo.name())
-                                       .vehicleModel(driverInfo.vehicle().model())
-                                       .licensePlate(driverInfo.vehicle().licensePlate())
-                                       .build();
-
-                       return Mono.fromCallable(() -> {
-                                      try {
-                                          return tripRepository.save(trip);
-                                      } catch (DataIntegrityViolationException e) {
-                                          // 아주 짧은 찰나에 동시 요청이 들어왔을 때를 대비한 2차 방어선
-                                          log.warn("동시성 이슈로 인한 중복 Trip ID 감지 (무시): {}", event.tripId());
-                                          return tripRepository.findByTripId(event.tripId()).orElse(trip);
-                                      }
-                                  })
-                                  .subscribeOn(Schedulers.boundedElastic())
-                                  .flatMap(savedTrip -> {
-                                      String key = DRIVER_TRIP_KEY_PREFIX + event.driverId();
-                                      return reactiveRedisTemplate.opsForValue()
-                                                                  .set(key, savedTrip.getTripId(), Duration.ofHours(3))
-                                                                  .doOnSuccess(v -> log.info("Redis 캐싱 완료. Driver: {}", event.driverId()))
-                                                                  .onErrorResume(e -> {
-                                                                      log.error("Redis 캐싱 실패. Error: {}", e.getMessage());
-                                                                      return Mono.empty();
-                                                                  })
-                                                                  .thenReturn(savedTrip);
-                                  });
-                   });
+        if (enrichmentService.isPersistFirst()) {
+            return persistFirst(event);
+        }
+        return enrichmentService.fetch(event)
+                                .flatMap(enrichment -> matchStore.insert(buildTrip(event, enrichment, null)))
+                                .flatMap(this::cacheDriverTrip)
+                                .flatMap(this::writeDetailsReadModel)
+                                .doOnSuccess(savedTrip -> enrichmentService.recordVisible(event));
+    }
+
+    // 외부 API 응답을 기다리지 않고 좌표/ID만으로 먼저 저장 -> 도착/조회 API가 바로 여정을 찾을 수 있음
+    // 주소/이름/차량 정보는 TripEnrichmentService 재시도 큐에서 후속 UPDATE로 채움 (큐에서 빠지면 enrichment_status 재스캔이 다시 넣음)
+    private Mono<Trip> persistFirst(TripMatchedEvent event) {
+        return matchStore.insert(buildTrip(event, enrichmentService.placeholder(event), EnrichmentStatus.PENDING))
+                         .flatMap(this::cacheDriverTrip)
+                         .flatMap(this::writeDetailsReadModel)
+                         .doOnSuccess(savedTrip -> {
+                             enrichmentService.recordVisible(event);
+                             enrichmentService.submit(event);
+                         });
+    }
+
+    private Trip buildTrip(TripMatchedEvent event, TripEnrichment enrichment, EnrichmentStatus enrichmentStatus) {
+        return Trip.builder()
+                   .tripId(event.tripId())
+                   .userId(event.userId())
+                   .driverId(event.driverId())
+                   .originAddress(enrichment.originAddress())
+                   .destinationAddress(enrichment.destinationAddress())
+                   .matchedAt(event.matchedAt())
+                   .userName(enrichment.userName())
+                   .driverName(enrichment.driverName())
+                   .vehicleModel(enrichment.vehicleModel())
+                   .licensePlate(enrichment.licensePlate())
+                   .enrichmentStatus(enrichmentStatus)
+                   .build();
+    }
+
+    private Mono<Trip> cacheDriverTrip(Trip savedTrip) {
+        String key = DRIVER_TRIP_KEY_PREFIX + savedTrip.getDriverId();
+        return reactiveRedisTemplate.opsForValue()
+                                    .set(key, savedTrip.getTripId(), Duration.ofHours(3))
+                                    .doOnSuccess(v -> log.info("Redis 캐싱 완료. Driver: {}", savedTrip.getDriverId()))
+                                    .onErrorResume(e -> {
+                                        log.error("Redis 캐싱 실패. Error: {}", e.getMessage());
+                                        return Mono.empty();
+                                    })
+                                    .thenReturn(savedTrip);
+    }
+
+    private Mono<Trip> writeDetailsReadModel(Trip savedTrip) {
+        return detailsReadModel.writeAsync(TripDetailsRow.fromEntity(savedTrip))
+                               .thenReturn(savedTrip);
     }
 
     @Transactional
     @Retryable(
             retryFor = {
-                    PessimisticLockingFailureException.class, // 락 타임아웃
                     DeadlockLoserDataAccessException.class,   // 데드락
                     TransientDataAccessException.class        // DB 네트워크/연결 일시적 장애
             },
@@ -136,15 +157,13 @@ public class TripService {
             backoff = @Backoff(delay = 500)
     )
     public void driverArrived(String tripId) {
-        Trip trip = getTripOrThrow(tripId);
-
-        if (trip.getStatus() == TripStatus.ARRIVED) {
-            log.info("중복 요청(재시도) 감지됨. 성공 응답 반환. TripID: {}", tripId);
+        Optional<Trip> transitioned = transition(tripId, TripTransition.ARRIVE);
+        if (transitioned.isEmpty()) {
             // 서버 처리는 성공했는데, 응답이 가는 도중에 네트워크가 끊길때 : 이미 Outbox에도 저장되었을 것이므로 아무것도 안 하고 리턴
             return;
         }
 
-        trip.arrive();
+        Trip trip = transitioned.get();
         DriverArrivedEvent event = new DriverArrivedEvent(trip.getTripId(), trip.getUserId());
         saveToOutbox(tripId, event);
 
@@ -154,7 +173,6 @@ public class TripService {
     @Transactional
     @Retryable(
             retryFor = {
-                    PessimisticLockingFailureException.class,
                     DeadlockLoserDataAccessException.class,
                     TransientDataAccessException.class
             },
@@ -162,14 +180,14 @@ public class TripService {
             backoff = @Backoff(delay = 500)
     )
     public void startTrip(String tripId) {
-        Trip trip = getTripOrThrow(tripId);
-
-        if (trip.getStatus() == TripStatus.IN_PROGRESS) {
-            log.info("중복 요청(재시도) 감지됨. 성공 응답 반환. TripID: {}", tripId);
+        Optional<Trip> transitioned = transition(tripId, TripTransition.START);
+        if (transitioned.isEmpty()) {
             return;
         }
 
-        trip.start();
+        String driverId = transitioned.get().getDriverId();
+        runAfterCommit(() -> inProgressDriverRegistry.markInProgress(driverId));
+
         log.info("운행 시작 처리 완료: {}", tripId);
     }
 
@@ -177,7 +195,6 @@ public class TripService {
     @Transactional
     @Retryable(
             retryFor = {
-                    PessimisticLockingFailureException.class,
                     DeadlockLoserDataAccessException.class,
                     TransientDataAccessException.class
             },
@@ -185,22 +202,20 @@ public class TripService {
             backoff = @Backoff(delay = 500)
     )
     public void completeTrip(String tripId, CompleteTripRequest request) {
-        Trip trip = getTripOrThrow(tripId);
-
-        if (trip.getStatus() == TripStatus.COMPLETED) {
-            log.info("중복 요청(재시도) 감지됨. 성공 응답 반환. TripID: {}", tripId);
+        Optional<Trip> transitioned = transition(tripId, TripTransition.COMPLETE);
+        if (transitioned.isEmpty()) {
             return;
         }
 
-        LocalDateTime endedAt = trip.complete();
-
+        Trip trip = transitioned.get();
         TripCompletedEvent event = new TripCompletedEvent(
                 trip.getTripId(), trip.getUserId(), trip.getDriverId(),
-                request.distanceMeters(), request.durationSeconds(), endedAt
+                request.distanceMeters(), request.durationSeconds(), trip.getEndedAt()
         );
         saveToOutbox(tripId, event);
 
         scheduleRedisKeyDeletion(trip.getDriverId());
+        runAfterCommit(() -> inProgressDriverRegistry.unmarkInProgress(trip.getDriverId()));
 
         log.info("운행 종료 요청 처리 완료 (결제 대기 중, Outbox 저장됨): {}", tripId);
     }
@@ -212,6 +227,7 @@ public class TripService {
                 trip -> {
                     trip.confirmPayment();
                     trip.updateFare(event.fare());
+                    scheduleDetailsReadModelRefresh(trip);
                     log.info("최종 여정 완료 (결제 성공): {}", trip.getTripId());
                 },
                 () -> log.error("여정 미발견: {}", event.tripId())
@@ -221,7 +237,6 @@ public class TripService {
     @Transactional
     @Retryable(
             retryFor = {
-                    PessimisticLockingFailureException.class,
                     DeadlockLoserDataAccessException.class,
                     TransientDataAccessException.class
             },
@@ -229,29 +244,79 @@ public class TripService {
             backoff = @Backoff(delay = 500)
     )
     public void cancelTrip(String tripId, CancelTripRequest request) {
-        Trip trip = getTripOrThrow(tripId);
-
-        if (trip.getStatus() == TripStatus.CANCELED) {
-            log.info("중복 요청(재시도) 감지됨. 성공 응답 반환. TripID: {}", tripId);
+        Optional<Trip> transitioned = transition(tripId, TripTransition.CANCEL);
+        if (transitioned.isEmpty()) {
             return;
         }
 
-        trip.cancel();
-
+        Trip trip = transitioned.get();
         TripCanceledEvent event = new TripCanceledEvent(
                 trip.getTripId(), trip.getDriverId(), request.canceledBy()
         );
         saveToOutbox(tripId, event);
 
         scheduleRedisKeyDeletion(trip.getDriverId());
+        runAfterCommit(() -> inProgressDriverRegistry.unmarkInProgress(trip.getDriverId()));
 
         log.info("여정 취소 처리 완료 (Outbox 저장됨): {}", tripId);
     }
 
-    @Transactional(readOnly = true)
     public TripDetailsResponse getTripDetails(String tripId) {
-        Trip trip = getTripOrThrow(tripId);
-        return TripDetailsResponse.fromEntity(trip);
+        return getTripDetailsSnapshot(tripId).details();
+    }
+
+    // Redis 읽기 모델 우선 조회, 미스면 DB(락 없는 프로젝션)에서 읽고 읽기 모델을 다시 채움
+    // 캐시 히트 시 커넥션을 잡지 않도록 메서드 트랜잭션은 두지 않음 (미스 조회는 읽기 모델에 다시 쓰므로 primary에서 읽음)
+    public TripDetailsSnapshot getTripDetailsSnapshot(String tripId) {
+        return detailsReadModel.find(tripId)
+                               .orElseGet(() -> {
+                                   TripDetailsRow row = tripRepository.findDetailsByTripId(tripId)
+                                                                      .orElseThrow(() -> new TripNotFoundException("여정 정보 없음: " + tripId));
+                                   detailsReadModel.write(row);
+                                   return new TripDetailsSnapshot(TripDetailsResponse.fromRow(row), row.version());
+                               });
+    }
+
+    // 응답 스트리밍 시작 전에 호출 (스트리밍 중 예외는 400으로 바꿀 수 없음)
+    public List<String> validateBatchGet(List<String> tripIds) {
+        List<String> distinctIds = tripIds.stream().distinct().toList();
+        if (distinctIds.size() > batchGetMaxSize) {
+            throw new InvalidTripQueryException("한 번에 조회할 수 있는 여정은 최대 " + batchGetMaxSize + "건입니다.");
+        }
+        return distinctIds;
+    }
+
+    // 대량 상세 조회: 청크 단위로 읽기 모델 일괄 조회 -> 미스만 IN 쿼리 -> 찾은 순서대로 바로 내보냄 (전체 목록을 메모리에 모으지 않음)
+    // 존재하지 않는 tripId는 결과에서 제외
+    public void streamTripDetails(List<String> distinctIds, Consumer<TripDetailsResponse> sink) {
+
+        for (int from = 0; from < distinctIds.size(); from += BATCH_GET_CHUNK_SIZE) {
+            List<String> chunk = distinctIds.subList(from, Math.min(from + BATCH_GET_CHUNK_SIZE, distinctIds.size()));
+
+            Map<String, TripDetailsSnapshot> cached = detailsReadModel.findAll(chunk);
+            cached.values().forEach(snapshot -> sink.accept(snapshot.details()));
+
+            List<String> misses = chunk.stream().filter(id -> !cached.containsKey(id)).toList();
+            if (misses.isEmpty()) {
+                continue;
+            }
+            for (TripDetailsRow row : tripRepository.findDetailsByTripIdIn(misses)) {
+                detailsReadModel.write(row);
+                sink.accept(TripDetailsResponse.fromRow(row));
+            }
+        }
+    }
+
+    // 조건부 조회(ETag)용 현재 버전. 읽기 모델의 버전 필드 -> 없으면 (trip_id, version) 인덱스 조회
+    public long getTripDetailsVersion(String tripId) {
+        return detailsReadModel.findVersion(tripId)
+                               .or(() -> tripRepository.findVersionByTripId(tripId))
+                               .orElseThrow(() -> new TripNotFoundException("여정 정보 없음: " + tripId));
+    }
+
+    // result: not_modified(304) | modified(If-None-Match 불일치) | unconditional(If-None-Match 없음)
+    public void recordConditionalGet(String result) {
+        meterRegistry.counter("trip.details.conditional", "result", result).increment();
     }
 
     @Transactional
@@ -259,6 +324,7 @@ public class TripService {
         tripRepository.findByTripId(event.tripId()).ifPresentOrElse(
                 trip -> {
                     trip.revertCompletion();
+                    scheduleDetailsReadModelRefresh(trip);
                     log.info("보상 트랜잭션(롤백) 완료: {}", trip.getId());
                 },
                 () -> log.error("보상 트랜잭션 대상 미발견: {}", event.tripId())
@@ -304,31 +370,46 @@ public class TripService {
     }
 
     public boolean isDriverOnTrip(String driverId) {
-        return tripRepository.existsByDriverIdAndStatus(driverId, TripStatus.IN_PROGRESS);
+        return inProgressDriverRegistry.areInProgress(List.of(driverId)).get(driverId);
     }
 
-    private Trip getTripOrThrow(String tripId) {
-        return tripRepository.findByTripIdWithLock(tripId)
-                             .orElseThrow(() -> new TripNotFoundException("여정 정보 없음: " + tripId));
+    public Map<String, Boolean> areDriversOnTrip(List<String> driverIds) {
+        return inProgressDriverRegistry.areInProgress(driverIds.stream().distinct().toList());
+    }
+
+    // 조건부 UPDATE 한 번으로 상태 전이 (행 락 없음). 전이된 여정을 반환하고, 이미 목표 상태면(중복 요청) 빈 값 반환
+    // 갱신 행 수가 0이면 현재 상태를 다시 읽어 중복 요청 / 상태 충돌 / 미존재를 구분
+    private Optional<Trip> transition(String tripId, TripTransition transition) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (transition) {
+            case START -> tripRepository.compareAndSetStatusAndStartedAt(tripId, transition.from(), transition.target(), now);
+            case COMPLETE -> tripRepository.compareAndSetStatusAndEndedAt(tripId, transition.from(), transition.target(), now);
+            default -> tripRepository.compareAndSetStatus(tripId, transition.from(), transition.target(), now);
+        };
+
+        Trip trip = tripRepository.findByTripId(tripId)
+                                  .orElseThrow(() -> new TripNotFoundException("여정 정보 없음: " + tripId));
+        if (updated == 1) {
+            scheduleDetailsReadModelRefresh(trip);
+            return Optional.of(trip);
+        }
+
+        if (trip.getStatus() == transition.target()) {
+            log.info("중복 요청(재시도) 감지됨. 성공 응답 반환. TripID: {}", tripId);
+            return Optional.empty();
+        }
+        throw new TripStatusConflictException(transition.conflictMessage(trip.getStatus()));
     }
 
     private void saveToOutbox(String tripId, Object event) {
         TripOutbox outbox = TripOutbox.builder()
                                       .aggregateId(tripId)
                                       .topic(KAFKA_TOPIC)
-                                      .payload(toJson(event))
+                                      .payloadData(outboxPayloadCodec.encode(event))
                                       .build();
 
         outboxRepository.save(outbox); // 같은 트랜잭션 내에서 저장됨
-    }
-
-    private String toJson(Object object) {
-        try {
-            return objectMapper.writeValueAsString(object);
-        } catch (JsonProcessingException e) {
-            log.error("JSON 변환 오류", e);
-            throw new RuntimeException("JSON 변환 실패", e);
-        }
+        outboxDispatcher.dispatchAfterCommit(outbox); // 커밋되면 폴링을 기다리지 않고 샤드 워커가 바로 발행
     }
 
     private void deleteRedisKeySafely(String driverId) {
@@ -352,4 +433,22 @@ public class TripService {
             deleteRedisKeySafely(driverId);
         }
     }
-}
\ No newline at end of file
+
+    // 커밋된 상태만 읽기 모델에 반영 (롤백되면 쓰지 않음). 버전은 flush 시점에 증가된 값이 엔티티에 반영되어 있음
+    private void scheduleDetailsReadModelRefresh(Trip trip) {
+        runAfterCommit(() -> detailsReadModel.write(TripDetailsRow.fromEntity(trip)));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- trip_outbox 를 created_at 기준 일 단위 파티션으로 전환 (MySQL 8)
+-- 전환 후 OutboxRetentionJob 이 보관 기간이 지난 파티션을 DROP 하고 미래 날짜 파티션을 미리 추가함
+-- 전환하지 않은 테이블은 기존처럼 청크 삭제로만 정리되므로 이 스크립트는 선택 사항
+--
+-- 주의
+-- - 테이블 전체를 다시 쓰므로 트래픽이 적은 시간에 실행하거나 pt-online-schema-change / gh-ost 로 적용
+-- - 파티션 테이블의 모든 유니크 키에는 파티션 컬럼이 있어야 하므로 PK 를 (id, created_at) 로 바꿈
+--   id 는 AUTO_INCREMENT 로 계속 유일하며, 애플리케이션은 id 로만 조회/갱신함
+-- - 아래 날짜는 실행일 기준으로 바꿔서 실행 (오늘 이전 데이터는 p_legacy 에 들어가고, 보관 기간이 지나면 청크 삭제로 정리됨)
+
+ALTER TABLE trip_outbox
+    MODIFY created_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE trip_outbox
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_legacy VALUES LESS THAN ('2026-10-20'),
+        PARTITION p20261020 VALUES LESS THAN ('2026-10-21'),
+        PARTITION p20261021 VALUES LESS THAN ('2026-10-22'),
+        PARTITION p20261022 VALUES LESS THAN ('2026-10-23'),
+        PARTITION p20261023 VALUES LESS THAN ('2026-10-24'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- 확인
+-- SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS
+--   FROM information_schema.PARTITIONS
+--  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trip_outbox'
+--  ORDER BY PARTITION_ORDINAL_POSITION;
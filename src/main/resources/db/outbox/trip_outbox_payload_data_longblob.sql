@@ -0,0 +1,14 @@
+-- trip_outbox.payload_data 를 VARBINARY(8192) 에서 LONGBLOB 으로 변경 (MySQL 8)
+-- ddl-auto: update 는 기존 컬럼 타입을 바꾸지 않으므로 이미 테이블이 있는 환경에서는 배포 전에 실행
+-- 8KB 를 넘는 이벤트(특히 JSON 인코딩, 압축 미사용)가 저장 시 실패하지 않도록 함
+--
+-- 주의
+-- - 테이블을 다시 쓰므로 트래픽이 적은 시간에 실행하거나 pt-online-schema-change / gh-ost 로 적용
+
+ALTER TABLE trip_outbox
+    MODIFY payload_data LONGBLOB NULL;
+
+-- 확인
+-- SELECT COLUMN_NAME, COLUMN_TYPE
+--   FROM information_schema.COLUMNS
+--  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'trip_outbox' AND COLUMN_NAME = 'payload_data';
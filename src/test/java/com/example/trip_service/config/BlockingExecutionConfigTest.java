@@ -0,0 +1,34 @@
+package com.example.trip_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingExecutionConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class, DataSourceAutoConfiguration.class))
+            .withUserConfiguration(BlockingExecutionConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:blocking-execution;DB_CLOSE_DELAY=-1");
+
+    @Test
+    @DisplayName("가상 스레드 모드에서만 Hikari 커넥션 대기 시간을 짧게 줄인다")
+    void shortConnectionTimeoutOnlyInVirtualThreadMode() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                     .run(context -> assertThat(context.getBean(HikariDataSource.class).getConnectionTimeout()).isEqualTo(3000));
+
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false")
+                     .run(context -> assertThat(context.getBean(HikariDataSource.class).getConnectionTimeout()).isEqualTo(30000));
+    }
+}
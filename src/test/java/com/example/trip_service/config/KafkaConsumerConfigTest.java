@@ -0,0 +1,36 @@
+package com.example.trip_service.config;
+
+import com.example.trip_service.kafka.TripEventDltConsumer;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedKafka(partitions = 4, topics = {TripEventDltConsumer.MATCHING_DLT, TripEventDltConsumer.PAYMENT_DLT})
+class KafkaConsumerConfigTest {
+
+    private final KafkaConsumerConfig config = new KafkaConsumerConfig(null);
+
+    @Test
+    @DisplayName("DLT 컨슈머 수는 DLT 토픽의 최대 파티션 수를 따르고 상한을 넘지 않는다 (아직 없는 토픽은 제외)")
+    void dltConcurrencyFollowsPartitionCount(EmbeddedKafkaBroker broker) {
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()));
+
+        assertThat(config.resolveDltConcurrency(kafkaAdmin, 8)).isEqualTo(4);
+        assertThat(config.resolveDltConcurrency(kafkaAdmin, 2)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("브로커에 연결하지 못하면 기본 컨슈머 수로 시작한다")
+    void dltConcurrencyFallsBackWhenBrokerIsUnreachable() {
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1"));
+
+        assertThat(config.resolveDltConcurrency(kafkaAdmin, 8)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.trip_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 두 개의 인메모리 H2를 primary/복제본으로 띄워 readOnly 트랜잭션 라우팅과 지연 기반 primary 대체를 확인
+class ReplicaRoutingDataSourceConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(
+                    DataSourceAutoConfiguration.class,
+                    DataSourceTransactionManagerAutoConfiguration.class,
+                    JdbcTemplateAutoConfiguration.class,
+                    TransactionAutoConfiguration.class))
+            .withUserConfiguration(ReplicaRoutingDataSourceConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                    "spring.datasource.username=sa",
+                    "trip.datasource.replica.enabled=true",
+                    "trip.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                    "trip.datasource.replica.username=sa",
+                    "trip.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+                    "trip.datasource.replica.max-lag=2s");
+
+    @Test
+    @DisplayName("readOnly 트랜잭션은 복제본, 쓰기 트랜잭션은 primary로 라우팅된다")
+    void routesReadOnlyTransactionsToReplica() {
+        contextRunner.run(context -> {
+            seed(context, 0);
+
+            assertThat(whoAmI(context, true)).isEqualTo("replica");
+            assertThat(whoAmI(context, false)).isEqualTo("primary");
+            assertThat(routeCount(context, "replica", "ok")).isEqualTo(1.0);
+        });
+    }
+
+    @Test
+    @DisplayName("복제 지연이 허용치를 넘으면 readOnly 트랜잭션도 primary로 읽고, 회복되면 다시 복제본으로 읽는다")
+    void fallsBackToPrimaryWhenReplicaLags() {
+        contextRunner.run(context -> {
+            seed(context, 30);
+
+            assertThat(whoAmI(context, true)).isEqualTo("primary");
+            assertThat(routeCount(context, "primary", "lag")).isEqualTo(1.0);
+            assertThat(context.getBean(MeterRegistry.class).get("trip.datasource.replica.lag").gauge().value()).isEqualTo(30.0);
+
+            replica(context).update("UPDATE replica_lag SET seconds = 1");
+            context.getBean(ReplicaLagMonitor.class).check();
+
+            assertThat(whoAmI(context, true)).isEqualTo("replica");
+        });
+    }
+
+    @Test
+    @DisplayName("복제본 지연을 측정할 수 없으면 primary로 읽는다")
+    void fallsBackToPrimaryWhenLagIsUnknown() {
+        contextRunner.run(context -> {
+            seed(context, 0);
+            replica(context).update("DROP TABLE replica_lag");
+            context.getBean(ReplicaLagMonitor.class).check();
+
+            assertThat(whoAmI(context, true)).isEqualTo("primary");
+        });
+    }
+
+    private void seed(AssertableApplicationContext context, int lagSeconds) {
+        JdbcTemplate primary = new JdbcTemplate(context.getBean("primaryDataSource", DataSource.class));
+        primary.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        primary.update("DELETE FROM node");
+        primary.update("INSERT INTO node VALUES ('primary')");
+
+        JdbcTemplate replica = replica(context);
+        replica.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        replica.update("DELETE FROM node");
+        replica.update("INSERT INTO node VALUES ('replica')");
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds INT)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (?)", lagSeconds);
+
+        context.getBean(ReplicaLagMonitor.class).check();
+    }
+
+    private JdbcTemplate replica(AssertableApplicationContext context) {
+        return new JdbcTemplate(context.getBean("replicaDataSource", DataSource.class));
+    }
+
+    private String whoAmI(AssertableApplicationContext context, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private double routeCount(AssertableApplicationContext context, String target, String reason) {
+        return context.getBean(MeterRegistry.class).get("trip.datasource.read.route")
+                      .tag("target", target).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.trip_service.controller;
+
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.service.TripExportService;
+import com.example.trip_service.service.TripExportService.Format;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminTripController.class)
+class AdminTripControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TripExportService tripExportService;
+
+    @Test
+    @DisplayName("여정 추출: Accept-Encoding: gzip 이면 gzip으로 압축한 CSV를 스트리밍 (추출 전용 비동기 타임아웃 적용)")
+    void exportTrips_Gzip() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 2);
+        willAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("tripId\r\ntrip-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(tripExportService).export(eq(from), eq(to), eq(Format.CSV), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/admin/trips/export")
+                                          .param("from", "2025-01-01")
+                                          .param("to", "2025-01-02")
+                                          .param("format", "csv")
+                                          .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        // Then
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType("text/csv"))
+                             .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                             .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("tripId\r\ntrip-1\r\n");
+        }
+    }
+
+    @Test
+    @DisplayName("여정 추출: 잘못된 기간이면 스트리밍 전에 400 Bad Request")
+    void exportTrips_InvalidRange() throws Exception {
+        willThrow(new InvalidTripQueryException("from은 to보다 이전 날짜여야 합니다."))
+                .given(tripExportService).validateRange(any(), any());
+
+        mockMvc.perform(get("/admin/trips/export").param("from", "2025-01-02").param("to", "2025-01-01"))
+               .andExpect(status().isBadRequest());
+
+        then(tripExportService).should(never()).export(any(), any(), any(), any());
+    }
+}
@@ -2,12 +2,20 @@ package com.example.trip_service.controller;
 
 import com.example.trip_service.dto.CancelTripRequest;
 import com.example.trip_service.dto.CompleteTripRequest;
+import com.example.trip_service.dto.TripBatchGetRequest;
 import com.example.trip_service.dto.TripDetailsResponse;
 import com.example.trip_service.dto.TripDetailsResponse.DriverInfo;
 import com.example.trip_service.dto.TripDetailsResponse.UserInfo;
+import com.example.trip_service.dto.TripDetailsSnapshot;
+import com.example.trip_service.dto.TripHistoryResponse;
+import com.example.trip_service.dto.TripSummaryResponse;
 import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.service.TransitionIdempotencyService;
+import com.example.trip_service.service.TripHistoryService;
 import com.example.trip_service.service.TripService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,13 +23,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -37,6 +51,21 @@ class TripControllerTest {
     @MockitoBean
     private TripService tripService;
 
+    @MockitoBean
+    private TripHistoryService tripHistoryService;
+
+    @MockitoBean
+    private TransitionIdempotencyService idempotencyService;
+
+    // Idempotency-Key 처리는 TransitionIdempotencyServiceTest에서 검증. 여기서는 전이를 그대로 실행
+    @BeforeEach
+    void setUp() {
+        given(idempotencyService.execute(any(), any(), any(), any(), any())).willAnswer(invocation -> {
+            invocation.<Runnable>getArgument(4).run();
+            return false;
+        });
+    }
+
     @Test
     @DisplayName("기사 도착 처리: 정상 요청 시 204 No Content 반환")
     void driverArrived_Success() throws Exception {
@@ -154,17 +183,118 @@ class TripControllerTest {
                                                           .driver(new DriverInfo("d1", "김기사", "12가3456", "쏘나타"))
                                                           .build();
 
-        given(tripService.getTripDetails(tripId)).willReturn(response);
+        given(tripService.getTripDetailsSnapshot(tripId)).willReturn(new TripDetailsSnapshot(response, 7L));
 
 
         mockMvc.perform(get("/api/trips/{tripId}", tripId)
                        .header("X-User-Id", userId)
                        .contentType(MediaType.APPLICATION_JSON))
                .andExpect(status().isOk())
+               .andExpect(header().string("ETag", "\"7\""))
                .andExpect(jsonPath("$.tripId").value(tripId))
                .andExpect(jsonPath("$.status").value("COMPLETED"))
                .andExpect(jsonPath("$.originAddress").value("서울역"))
                .andExpect(jsonPath("$.user.name").value("홍길동"))
                .andExpect(jsonPath("$.driver.name").value("김기사"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("여정 상세 조회: If-None-Match가 현재 버전과 같으면 본문 조회 없이 304 Not Modified")
+    void getTripDetails_NotModified() throws Exception {
+        String tripId = "trip-123";
+        given(tripService.getTripDetailsVersion(tripId)).willReturn(7L);
+
+        mockMvc.perform(get("/api/trips/{tripId}", tripId)
+                       .header("If-None-Match", "\"7\""))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+
+        then(tripService).should(never()).getTripDetailsSnapshot(anyString());
+        then(tripService).should().recordConditionalGet("not_modified");
+    }
+
+    @Test
+    @DisplayName("여정 일괄 조회: 결과를 한 줄에 하나씩 NDJSON으로 스트리밍한다")
+    void batchGetTripDetails_StreamsNdjson() throws Exception {
+        List<String> tripIds = List.of("trip-1", "trip-2");
+        given(tripService.validateBatchGet(tripIds)).willReturn(tripIds);
+        willAnswer(invocation -> {
+            Consumer<TripDetailsResponse> sink = invocation.getArgument(1);
+            sink.accept(TripDetailsResponse.builder().tripId("trip-1").status(TripStatus.MATCHED).build());
+            sink.accept(TripDetailsResponse.builder().tripId("trip-2").status(TripStatus.IN_PROGRESS).build());
+            return null;
+        }).given(tripService).streamTripDetails(eq(tripIds), any());
+
+        MvcResult result = mockMvc.perform(post("/api/trips/batch-get")
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content(objectMapper.writeValueAsString(new TripBatchGetRequest(tripIds))))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType("application/x-ndjson"))
+                             .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("tripId").asText()).isEqualTo("trip-1");
+        assertThat(objectMapper.readTree(lines[1]).get("status").asText()).isEqualTo("IN_PROGRESS");
+    }
+
+    @Test
+    @DisplayName("여정 일괄 조회: 최대 개수를 넘으면 스트리밍 전에 400 Bad Request")
+    void batchGetTripDetails_TooMany() throws Exception {
+        given(tripService.validateBatchGet(any())).willThrow(new InvalidTripQueryException("최대 500건"));
+
+        mockMvc.perform(post("/api/trips/batch-get")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(new TripBatchGetRequest(List.of("trip-1")))))
+               .andExpect(status().isBadRequest());
+
+        then(tripService).should(never()).streamTripDetails(any(), any());
+    }
+
+    @Test
+    @DisplayName("여정 이력 조회: 사용자 ID와 커서로 조회하면 목록과 다음 커서를 반환")
+    void getTripHistory_Success() throws Exception {
+        // Given
+        TripSummaryResponse summary = new TripSummaryResponse(
+                "trip-1", TripStatus.COMPLETED, "서울역", "강남역", 15000, LocalDateTime.of(2025, 1, 1, 9, 0));
+        given(tripHistoryService.getHistory("user-1", null, "cursor-1", 10))
+                .willReturn(new TripHistoryResponse(List.of(summary), "cursor-2"));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips").param("userId", "user-1").param("cursor", "cursor-1").param("size", "10"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.trips[0].tripId").value("trip-1"))
+               .andExpect(jsonPath("$.trips[0].status").value("COMPLETED"))
+               .andExpect(jsonPath("$.nextCursor").value("cursor-2"));
+    }
+
+    @Test
+    @DisplayName("여정 이력 조회: 잘못된 조회 조건이면 400 Bad Request 반환")
+    void getTripHistory_InvalidQuery() throws Exception {
+        // Given
+        given(tripHistoryService.getHistory(null, null, null, null))
+                .willThrow(new InvalidTripQueryException("userId 또는 driverId 중 하나만 지정해야 합니다."));
+
+        // When & Then
+        mockMvc.perform(get("/api/trips"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("운행 시작 처리: 같은 Idempotency-Key 재요청이 저장된 결과로 응답되면 Idempotent-Replayed 헤더와 204 반환")
+    void startTrip_IdempotentReplay() throws Exception {
+        // Given
+        willReturn(true).given(idempotencyService).execute(eq("trip-123"), eq("start"), eq("key-1"), eq(""), any());
+
+        // When & Then
+        mockMvc.perform(put("/api/trips/{tripId}/start", "trip-123").header("Idempotency-Key", "key-1"))
+               .andExpect(status().isNoContent())
+               .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        then(tripService).should(never()).startTrip(any());
+    }
+}
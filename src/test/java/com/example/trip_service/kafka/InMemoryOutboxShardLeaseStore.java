@@ -0,0 +1,79 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.repository.OutboxShardLeaseStore;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+// 같은 JVM 안의 여러 릴레이가 공유하는 샤드 임대 저장소 (Redis 대신 테스트용)
+class InMemoryOutboxShardLeaseStore implements OutboxShardLeaseStore {
+
+    private record Lease(String owner, long expiresAt) {
+    }
+
+    private final Map<Integer, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Long> relays = new ConcurrentHashMap<>();
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public synchronized boolean tryAcquire(int shard, String owner, Duration ttl) {
+        Lease current = leases.get(shard);
+        if (current != null && current.expiresAt() > System.currentTimeMillis()) {
+            return false;
+        }
+        leases.put(shard, new Lease(owner, System.currentTimeMillis() + ttl.toMillis()));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean renew(int shard, String owner, Duration ttl) {
+        Lease current = leases.get(shard);
+        if (current == null || !current.owner().equals(owner) || current.expiresAt() <= System.currentTimeMillis()) {
+            return false;
+        }
+        leases.put(shard, new Lease(owner, System.currentTimeMillis() + ttl.toMillis()));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(int shard, String owner) {
+        leases.computeIfPresent(shard, (key, lease) -> lease.owner().equals(owner) ? null : lease);
+    }
+
+    @Override
+    public void heartbeat(String owner, Duration ttl) {
+        relays.put(owner, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    @Override
+    public void leave(String owner) {
+        relays.remove(owner);
+    }
+
+    @Override
+    public Set<String> liveOwners() {
+        long now = System.currentTimeMillis();
+        return relays.entrySet().stream()
+                     .filter(entry -> entry.getValue() > now)
+                     .map(Map.Entry::getKey)
+                     .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void publishNudge(int shard) {
+        listeners.forEach(listener -> listener.accept(shard));
+    }
+
+    @Override
+    public Disposable subscribeNudges(IntConsumer listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+class OutboxBacklogMonitorTest {
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("상태별 적체 건수(상한 적용)와 가장 오래된 READY 이벤트의 나이를 게이지로 노출한다")
+    void exposesBacklogGauges() {
+        event("trip-1", OutboxStatus.READY, LocalDateTime.now().minusMinutes(2));
+        event("trip-2", OutboxStatus.READY, LocalDateTime.now());
+        event("trip-3", OutboxStatus.READY, LocalDateTime.now());
+        event("trip-4", OutboxStatus.PUBLISHING, LocalDateTime.now());
+        event("trip-5", OutboxStatus.DONE, LocalDateTime.now().minusDays(1));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OutboxBacklogMonitor monitor = new OutboxBacklogMonitor(outboxRepository, meterRegistry, 2);
+        monitor.sample();
+
+        assertThat(meterRegistry.get("trip.outbox.backlog").tag("status", "READY").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("trip.outbox.backlog").tag("status", "PUBLISHING").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("trip.outbox.oldest_ready.age").gauge().value()).isCloseTo(120, within(5.0));
+    }
+
+    private void event(String tripId, OutboxStatus status, LocalDateTime createdAt) {
+        TripOutbox outbox = outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("{}").build());
+        outboxRepository.flush();
+        jdbcTemplate.update("UPDATE trip_outbox SET status = ?, created_at = ? WHERE id = ?", status.name(), createdAt, outbox.getId());
+    }
+}
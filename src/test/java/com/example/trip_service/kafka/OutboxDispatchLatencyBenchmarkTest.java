@@ -0,0 +1,152 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 임베디드 Kafka로 폴링만 쓰는 방식(샤드별 500ms 주기)과 커밋 직후 샤드 워커를 깨우는 방식의
+// 커밋 -> Kafka ack 지연 분포(trip.outbox.commit_to_publish 히스토그램) 비교
+@Tag("benchmark")
+@DataJpaTest
+@EmbeddedKafka(partitions = 6, topics = OutboxDispatchLatencyBenchmarkTest.TOPIC)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatchLatencyBenchmarkTest {
+
+    static final String TOPIC = "trip_events_latency_benchmark";
+    private static final int EVENTS = 300;
+    private static final long EVENT_INTERVAL_MS = 10;
+    private static final long POLL_INTERVAL_MS = 500;
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    @DisplayName("커밋 직후 즉시 발행은 폴링만 쓸 때보다 커밋 -> 발행 지연이 짧다")
+    void compareCommitTriggeredDispatchWithPolling() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        KafkaTemplate<String, String> kafkaTemplate = kafkaTemplate();
+
+        // 커넥션/메타데이터 워밍업
+        kafkaTemplate.send(TOPIC, "warmup", "{}").join();
+
+        double pollMean = run("poll-only", tx, kafkaTemplate, false);
+        double dispatchMean = run("commit-dispatch", tx, kafkaTemplate, true);
+
+        assertThat(dispatchMean).isLessThan(pollMean);
+    }
+
+    private double run(String mode, TransactionTemplate tx, KafkaTemplate<String, String> kafkaTemplate,
+                       boolean dispatch) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OutboxMetrics metrics = new OutboxMetrics(registry);
+        OutboxMessageRelay relay = new OutboxMessageRelay(outboxRepository, kafkaTemplate, tx, metrics,
+                new OutboxPayloadCodec(new ObjectMapper(), "json", "none", 256, 3), Duration.ofSeconds(10), Duration.ofMinutes(10));
+        // 운영과 같이 샤드 워커의 안전망 폴링은 항상 함께 동작
+        OutboxShardCoordinator coordinator = new OutboxShardCoordinator(new InMemoryOutboxShardLeaseStore(), relay,
+                registry, mode, Duration.ofSeconds(30), POLL_INTERVAL_MS, POLL_INTERVAL_MS * 10);
+        coordinator.start();
+        coordinator.rebalance();
+        OutboxDispatcher dispatcher = new OutboxDispatcher(coordinator, metrics);
+
+        try {
+            for (int i = 0; i < EVENTS; i++) {
+                String tripId = mode + "-trip-" + i;
+                Long id = tx.execute(status -> {
+                    TripOutbox saved = outboxRepository.save(TripOutbox.builder()
+                                                                       .aggregateId(tripId)
+                                                                       .topic(TOPIC)
+                                                                       .payload("{\"tripId\":\"" + tripId + "\"}")
+                                                                       .build());
+                    if (dispatch) dispatcher.dispatchAfterCommit(saved);
+                    return saved.getId();
+                });
+                if (!dispatch) metrics.markCommitted(id);
+                Thread.sleep(EVENT_INTERVAL_MS);
+            }
+
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (countNotDone(tx) > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            coordinator.stop();
+        }
+
+        assertThat(countNotDone(tx)).isZero();
+
+        double totalMs = 0;
+        long totalCount = 0;
+        for (Timer timer : registry.find("trip.outbox.commit_to_publish").timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            System.out.printf("[%s] path=%s, count=%d, mean=%.1fms, max=%.1fms, p50<=%.0fms, p95<=%.0fms, p99<=%.0fms%n",
+                    mode, timer.getId().getTag("path"), timer.count(),
+                    timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS),
+                    bucketAt(snapshot, 0.50), bucketAt(snapshot, 0.95), bucketAt(snapshot, 0.99));
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            totalCount += timer.count();
+        }
+        return totalMs / totalCount;
+    }
+
+    // 누적 히스토그램 버킷에서 분위수가 속한 버킷 상한(ms)
+    private double bucketAt(HistogramSnapshot snapshot, double quantile) {
+        double target = snapshot.count() * quantile;
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            if (bucket.count() >= target) {
+                return bucket.bucket(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private long countNotDone(TransactionTemplate tx) {
+        return tx.execute(status -> outboxRepository.findAll().stream()
+                                                    .filter(event -> event.getStatus() != OutboxStatus.DONE)
+                                                    .count());
+    }
+
+    // application.yml 의 프로듀서 설정과 같은 배치/멱등성 옵션
+    private KafkaTemplate<String, String> kafkaTemplate() {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.LINGER_MS_CONFIG, 10,
+                ProducerConfig.BATCH_SIZE_CONFIG, 130000);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+}
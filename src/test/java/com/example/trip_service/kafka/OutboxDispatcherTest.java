@@ -0,0 +1,93 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private final OutboxShardCoordinator shardCoordinator = mock(OutboxShardCoordinator.class);
+    private final OutboxMetrics outboxMetrics = new OutboxMetrics(new SimpleMeterRegistry());
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(shardCoordinator, outboxMetrics);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("트랜잭션이 커밋된 뒤에야 이벤트 샤드의 워커를 깨운다")
+    void nudgesShardOnlyAfterCommit() {
+        TripOutbox outbox = outbox(10L, "trip-10");
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatcher.dispatchAfterCommit(outbox);
+        verify(shardCoordinator, never()).nudge(anyInt());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(shardCoordinator).nudge(TripOutbox.shardOf("trip-10"));
+    }
+
+    @Test
+    @DisplayName("롤백된 트랜잭션의 이벤트는 알리지 않는다")
+    void ignoresRolledBackTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatcher.dispatchAfterCommit(outbox(11L, "trip-11"));
+        TransactionSynchronizationManager.getSynchronizations()
+                                         .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(shardCoordinator, never()).nudge(anyInt());
+    }
+
+    @Test
+    @DisplayName("이 파드가 맡은 샤드의 이벤트만 커밋 시각을 기록하고, 다른 파드 샤드의 이벤트는 알리기만 한다")
+    void tracksCommitTimeOnlyForOwnedShards() {
+        TripOutbox owned = outbox(12L, "trip-12");
+        TripOutbox foreign = outbox(13L, "trip-13"); // 해시가 1 차이 -> 다른 샤드
+        when(shardCoordinator.owns(owned.getShard())).thenReturn(true);
+
+        dispatcher.dispatchAfterCommit(owned);
+        dispatcher.dispatchAfterCommit(foreign);
+
+        assertThat(outboxMetrics.trackedCount()).isEqualTo(1);
+        verify(shardCoordinator).nudge(owned.getShard());
+        verify(shardCoordinator).nudge(foreign.getShard());
+    }
+
+    @Test
+    @DisplayName("커밋 시각 기록이 상한에 닿으면 발행되지 않고 오래된 항목을 버리고 새 이벤트를 기록한다")
+    void prunesExpiredCommitTimesWhenFull() throws InterruptedException {
+        OutboxMetrics metrics = new OutboxMetrics(new SimpleMeterRegistry(), 2, Duration.ofMillis(50));
+        metrics.markCommitted(1L);
+        metrics.markCommitted(2L);
+        Thread.sleep(60);
+
+        metrics.markCommitted(3L);
+
+        assertThat(metrics.trackedCount()).isEqualTo(1);
+    }
+
+    private static TripOutbox outbox(Long id, String aggregateId) {
+        TripOutbox outbox = TripOutbox.builder().aggregateId(aggregateId).topic("trip_events").payload("{}").build();
+        ReflectionTestUtils.setField(outbox, "id", id);
+        return outbox;
+    }
+}
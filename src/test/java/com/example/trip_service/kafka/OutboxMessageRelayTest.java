@@ -0,0 +1,181 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxMessageRelayTest {
+
+    private final TripOutboxRepository outboxRepository = mock(TripOutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    // payload별 전송 결과를 테스트에서 직접 완료시키기 위한 future
+    private final Map<String, CompletableFuture<SendResult<String, String>>> pending = new ConcurrentHashMap<>();
+    private final List<String> sentPayloads = new CopyOnWriteArrayList<>();
+
+    private static final String OWNER = "relay-1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxMetrics outboxMetrics = new OutboxMetrics(meterRegistry);
+    private final OutboxPayloadCodec payloadCodec = new OutboxPayloadCodec(new ObjectMapper(), "json", "none", 256, 3);
+    private OutboxMessageRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            String payload = invocation.getArgument(2);
+            sentPayloads.add(payload);
+            return pending.computeIfAbsent(payload, p -> new CompletableFuture<>());
+        });
+
+        relay = new OutboxMessageRelay(outboxRepository, kafkaTemplate, transactionTemplate, outboxMetrics,
+                payloadCodec, Duration.ofSeconds(10), Duration.ofMinutes(10));
+        when(outboxRepository.completeClaim(any(), any(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+    }
+
+    @Test
+    @DisplayName("배치 전체를 결과를 기다리지 않고 보낸 뒤, 성공은 DONE / 실패는 READY 로 UPDATE 두 번에 반영한다")
+    void sendsWholeBatchThenBulkUpdates() throws Exception {
+        List<TripOutbox> batch = List.of(outbox(1L, "trip-a", "a1"), outbox(2L, "trip-b", "b1"), outbox(3L, "trip-c", "c1"));
+
+        CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> relay.publishBatch(batch, OWNER, "poll"));
+        awaitSent(3);
+
+        // 앞 전송이 끝나기 전에 세 건 모두 프로듀서로 넘어감
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1", "b1", "c1");
+
+        pending.get("a1").complete(null);
+        pending.get("b1").completeExceptionally(new RuntimeException("broker down"));
+        pending.get("c1").complete(null);
+        publishing.get();
+
+        verify(outboxRepository).completeClaim(List.of(1L, 3L), OutboxStatus.PUBLISHING, OWNER, OutboxStatus.DONE);
+        verify(outboxRepository).completeClaim(List.of(2L), OutboxStatus.PUBLISHING, OWNER, OutboxStatus.READY);
+        verify(transactionTemplate, times(1)).execute(any());
+        assertThat(meterRegistry.get("trip.outbox.send.duration").tag("result", "success").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("trip.outbox.send.duration").tag("result", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("trip.outbox.retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 aggregate 이벤트는 앞 이벤트 성공 후에 보내고, 앞 이벤트가 실패하면 뒤 이벤트는 보내지 않고 READY 로 되돌린다")
+    void chainsEventsOfSameAggregate() throws Exception {
+        List<TripOutbox> batch = List.of(outbox(1L, "trip-a", "a1"), outbox(2L, "trip-a", "a2"),
+                                         outbox(3L, "trip-b", "b1"), outbox(4L, "trip-b", "b2"));
+
+        CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> relay.publishBatch(batch, OWNER, "poll"));
+        awaitSent(2);
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1", "b1");
+
+        pending.get("a1").complete(null);
+        awaitSent(3);
+        assertThat(sentPayloads).contains("a2");
+        pending.get("a2").complete(null);
+
+        pending.get("b1").completeExceptionally(new RuntimeException("broker down"));
+        publishing.get();
+
+        assertThat(sentPayloads).doesNotContain("b2");
+        verify(outboxRepository).completeClaim(List.of(1L, 2L), OutboxStatus.PUBLISHING, OWNER, OutboxStatus.DONE);
+        verify(outboxRepository).completeClaim(List.of(3L, 4L), OutboxStatus.PUBLISHING, OWNER, OutboxStatus.READY);
+        verify(kafkaTemplate, never()).send(eq("trip_events"), eq("trip-b"), eq("b2"));
+    }
+
+    @Test
+    @DisplayName("샤드의 READY 이벤트를 선점해 발행하고 커밋 -> 발행 지연을 경로별로 기록한다")
+    void publishesShardAndRecordsLatency() {
+        TripOutbox event = outbox(1L, "trip-a", "a1");
+        when(outboxRepository.findEventsForPublishingInShard(event.getShard(), OutboxMessageRelay.BATCH_SIZE))
+                .thenReturn(List.of(event));
+        pending.put("a1", CompletableFuture.completedFuture(null));
+        outboxMetrics.markCommitted(1L);
+
+        int claimed = relay.publishShard(event.getShard(), OWNER, "dispatch");
+
+        assertThat(claimed).isEqualTo(1);
+        assertThat(sentPayloads).containsExactly("a1");
+        verify(outboxRepository).claim(eq(List.of(1L)), eq(OutboxStatus.PUBLISHING), eq(OWNER), any());
+        verify(outboxRepository).completeClaim(List.of(1L), OutboxStatus.PUBLISHING, OWNER, OutboxStatus.DONE);
+        assertThat(meterRegistry.get("trip.outbox.commit_to_publish").tag("path", "dispatch").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("trip.outbox.claim.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("샤드에 발행할 이벤트가 없으면 전송/상태 변경 없이 0을 반환한다")
+    void returnsZeroForEmptyShard() {
+        when(outboxRepository.findEventsForPublishingInShard(anyInt(), anyInt())).thenReturn(List.of());
+
+        assertThat(relay.publishShard(3, OWNER, "poll")).isZero();
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(outboxRepository, never()).claim(any(), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("전송이 선점 만료 시간보다 길어지면 끝나지 않은 건의 선점을 주기적으로 연장한다")
+    void renewsLeaseWhileSendsAreInFlight() throws Exception {
+        relay = new OutboxMessageRelay(outboxRepository, kafkaTemplate, transactionTemplate, outboxMetrics,
+                payloadCodec, Duration.ofMillis(150), Duration.ofMinutes(10));
+        when(outboxRepository.renewLease(any(), any(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        List<TripOutbox> batch = List.of(outbox(1L, "trip-a", "a1"), outbox(2L, "trip-b", "b1"));
+
+        CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> relay.publishBatch(batch, OWNER, "poll"));
+        awaitSent(2);
+        pending.get("a1").complete(null);
+        Thread.sleep(300);
+        pending.get("b1").complete(null);
+        publishing.get();
+
+        // 먼저 끝난 a1 은 연장 대상에서 빠짐
+        verify(outboxRepository, atLeastOnce()).renewLease(eq(List.of(2L)), eq(OutboxStatus.PUBLISHING), eq(OWNER), any());
+        assertThat(meterRegistry.get("trip.outbox.lease.renewed").counter().count()).isGreaterThan(0);
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        for (int i = 0; i < 200 && sentPayloads.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(sentPayloads).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    private static TripOutbox outbox(Long id, String aggregateId, String payload) {
+        TripOutbox outbox = TripOutbox.builder().aggregateId(aggregateId).topic("trip_events").payload(payload).build();
+        ReflectionTestUtils.setField(outbox, "id", id);
+        return outbox;
+    }
+}
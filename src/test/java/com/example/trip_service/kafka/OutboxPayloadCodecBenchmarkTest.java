@@ -0,0 +1,120 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.kafka.dto.DriverArrivedEvent;
+import com.example.trip_service.kafka.dto.TripCanceledEvent;
+import com.example.trip_service.kafka.dto.TripCompletedEvent;
+import com.example.trip_service.repository.TripOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. Outbox payload 저장 형식별 행 크기, 저장 처리량(건/s), 릴레이가 발행 직전 payload 를 만드는 CPU 시간 비교
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxPayloadCodecBenchmarkTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int INSERT_BATCH = 500;
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                                                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("바이너리 저장은 JSON 저장보다 행이 작고, 모든 형식이 같은 JSON 으로 발행된다")
+    void compareStorageFormats() {
+        List<Object> events = events();
+
+        // JPA/H2 워밍업 (첫 모드의 저장 처리량이 낮게 나오지 않도록)
+        run("warmup", "none", events, "json");
+
+        double json = run("json", "none", events);
+        run("json+zstd", "zstd", events, "json");
+        double binary = run("binary", "none", events);
+        run("binary+zstd", "zstd", events, "binary");
+
+        assertThat(binary).isLessThan(json);
+    }
+
+    private double run(String encoding, String compression, List<Object> events) {
+        return run(encoding, compression, events, encoding);
+    }
+
+    // 반환값: 평균 payload 바이트
+    private double run(String mode, String compression, List<Object> events, String encoding) {
+        OutboxPayloadCodec codec = new OutboxPayloadCodec(objectMapper, encoding, compression, 64, 3);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        long totalBytes = 0;
+        long insertStart = System.nanoTime();
+        for (int from = 0; from < events.size(); from += INSERT_BATCH) {
+            List<TripOutbox> batch = new ArrayList<>(INSERT_BATCH);
+            for (Object event : events.subList(from, Math.min(from + INSERT_BATCH, events.size()))) {
+                byte[] data = codec.encode(event);
+                totalBytes += data.length;
+                batch.add(TripOutbox.builder().aggregateId(UUID.randomUUID().toString()).topic("trip_events").payloadData(data).build());
+            }
+            tx.execute(status -> outboxRepository.saveAll(batch));
+        }
+        double insertSeconds = (System.nanoTime() - insertStart) / 1e9;
+
+        List<TripOutbox> stored = tx.execute(status -> outboxRepository.findAll());
+        // JIT 워밍업 후 릴레이가 send 직전에 하는 작업(toWire)만 측정
+        stored.stream().limit(2000).forEach(codec::toWire);
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (TripOutbox outbox : stored) {
+            assertThat(codec.toWire(outbox)).isNotEmpty();
+        }
+        double cpuMicrosPerEvent = (threads.getCurrentThreadCpuTime() - cpuStart) / 1000.0 / stored.size();
+
+        double avgBytes = (double) totalBytes / events.size();
+        System.out.printf("[%s] payload 평균 %.1f bytes, 저장 %.0f rows/s, 발행 직전 변환 CPU %.2f us/event%n",
+                mode, avgBytes, events.size() / insertSeconds, cpuMicrosPerEvent);
+
+        outboxRepository.deleteAllInBatch();
+        return avgBytes;
+    }
+
+    // 운영 비율과 비슷하게 도착/완료/취소 이벤트를 섞음
+    private List<Object> events() {
+        List<Object> events = new ArrayList<>(EVENTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < EVENTS; i++) {
+            String tripId = UUID.randomUUID().toString();
+            String userId = UUID.randomUUID().toString();
+            String driverId = UUID.randomUUID().toString();
+            switch (i % 5) {
+                case 0, 1 -> events.add(new DriverArrivedEvent(tripId, userId));
+                case 2, 3 -> events.add(new TripCompletedEvent(tripId, userId, driverId, 1000 + i % 20_000, 300 + i % 3600, now.plusSeconds(i)));
+                default -> events.add(new TripCanceledEvent(tripId, driverId, i % 2 == 0 ? "USER" : "DRIVER"));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.kafka.dto.DriverArrivedEvent;
+import com.example.trip_service.kafka.dto.TripCanceledEvent;
+import com.example.trip_service.kafka.dto.TripCompletedEvent;
+import com.example.trip_service.kafka.dto.TripMatchedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxPayloadCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                                                                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final List<Object> EVENTS = List.of(
+            new DriverArrivedEvent("trip-1", "user-1"),
+            new TripCompletedEvent("trip-1", "user-1", "driver-1", 5000, 900, LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123456789)),
+            new TripCompletedEvent("trip-2", "user-2", "driver-2", null, -1, null),
+            new TripCanceledEvent("trip-3", null, "USER")
+    );
+
+    @Test
+    @DisplayName("저장 형식과 관계없이 Kafka 로 나가는 JSON 은 기존 직렬화 결과와 같다")
+    void roundTripsToSameJson() throws Exception {
+        for (String[] mode : List.of(new String[]{"json", "none"}, new String[]{"json", "zstd"},
+                new String[]{"binary", "none"}, new String[]{"binary", "zstd"})) {
+            OutboxPayloadCodec codec = new OutboxPayloadCodec(objectMapper, mode[0], mode[1], 0, 3);
+
+            for (Object event : EVENTS) {
+                assertThat(codec.toWire(outbox(codec.encode(event), null)))
+                        .as("%s/%s %s", mode[0], mode[1], event)
+                        .isEqualTo(objectMapper.writeValueAsString(event));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("바이너리 저장은 같은 이벤트의 JSON 보다 작고, 바이너리 형식이 없는 이벤트는 JSON 으로 저장한다")
+    void binaryIsSmallerAndFallsBackToJson() throws Exception {
+        OutboxPayloadCodec json = new OutboxPayloadCodec(objectMapper, "json", "none", 256, 3);
+        OutboxPayloadCodec binary = new OutboxPayloadCodec(objectMapper, "binary", "none", 256, 3);
+        Object completed = EVENTS.get(1);
+
+        assertThat(binary.encode(completed).length).isLessThan(json.encode(completed).length / 2);
+
+        TripMatchedEvent matched = new TripMatchedEvent("trip-9", "user-9", "driver-9",
+                new TripMatchedEvent.Location(127.0, 37.5), new TripMatchedEvent.Location(127.1, 37.6), LocalDateTime.now());
+        byte[] stored = binary.encode(matched);
+        assertThat(stored[0]).isEqualTo(OutboxPayloadCodec.FORMAT_JSON);
+        assertThat(binary.toWire(outbox(stored, null))).isEqualTo(objectMapper.writeValueAsString(matched));
+    }
+
+    @Test
+    @DisplayName("압축해도 줄지 않거나 기준보다 작은 payload 는 원본 그대로 저장한다")
+    void compressesOnlyWhenSmaller() {
+        OutboxPayloadCodec codec = new OutboxPayloadCodec(objectMapper, "binary", "zstd", 0, 3);
+
+        byte[] stored = codec.encode(EVENTS.get(0));
+
+        assertThat(stored[0] & OutboxPayloadCodec.FLAG_ZSTD).isZero();
+
+        OutboxPayloadCodec jsonCodec = new OutboxPayloadCodec(objectMapper, "json", "zstd", 1024, 3);
+        assertThat(jsonCodec.encode(EVENTS.get(1))[0]).isEqualTo(OutboxPayloadCodec.FORMAT_JSON);
+    }
+
+    @Test
+    @DisplayName("코덱 도입 전에 저장된 행은 payload 텍스트를 그대로 발행한다")
+    void passesThroughLegacyTextPayload() {
+        OutboxPayloadCodec codec = new OutboxPayloadCodec(objectMapper, "binary", "zstd", 0, 3);
+
+        assertThat(codec.toWire(outbox(null, "{\"tripId\":\"legacy\"}"))).isEqualTo("{\"tripId\":\"legacy\"}");
+    }
+
+    private static TripOutbox outbox(byte[] payloadData, String payload) {
+        return TripOutbox.builder().aggregateId("trip-1").topic("trip_events").payload(payload).payloadData(payloadData).build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 임베디드 Kafka로 기존 방식(건별 send().get() + 건별 상태 UPDATE 트랜잭션)과
+// 배치 비동기 전송 + UPDATE 두 번 방식, 샤드 워커 병렬 발행의 Outbox 발행 처리량 비교
+@Tag("benchmark")
+@DataJpaTest
+@EmbeddedKafka(partitions = 6, topics = OutboxRelayThroughputBenchmarkTest.TOPIC)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayThroughputBenchmarkTest {
+
+    static final String TOPIC = "trip_events_benchmark";
+    private static final int EVENTS = 5000;
+    private static final int AGGREGATES = 1000;
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    @DisplayName("배치 비동기 전송은 건별 동기 전송보다 처리량이 높고 모든 이벤트를 DONE 으로 만든다")
+    void comparePipelinedRelayWithSerialSends() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        KafkaTemplate<String, String> kafkaTemplate = kafkaTemplate();
+        OutboxMessageRelay relay = new OutboxMessageRelay(outboxRepository, kafkaTemplate, tx,
+                new OutboxMetrics(new SimpleMeterRegistry()), new OutboxPayloadCodec(new ObjectMapper(), "json", "none", 256, 3),
+                Duration.ofSeconds(10), Duration.ofMinutes(10));
+
+        // 커넥션/메타데이터 워밍업
+        kafkaTemplate.send(TOPIC, "warmup", "{}").join();
+
+        double serial = run("serial", tx, () -> forEachShard(shard -> publishSerially(tx, kafkaTemplate, shard)));
+        double pipelined = run("pipelined", tx, () -> forEachShard(shard -> relay.publishShard(shard, "bench", "poll")));
+
+        // 샤드 임대를 나눠 가진 릴레이 인스턴스 2개, 샤드마다 워커가 동시에 발행
+        InMemoryOutboxShardLeaseStore leaseStore = new InMemoryOutboxShardLeaseStore();
+        List<OutboxShardCoordinator> relays = List.of(
+                new OutboxShardCoordinator(leaseStore, relay, new SimpleMeterRegistry(), "bench-a", Duration.ofSeconds(30), 10, 100),
+                new OutboxShardCoordinator(leaseStore, relay, new SimpleMeterRegistry(), "bench-b", Duration.ofSeconds(30), 10, 100));
+        double sharded;
+        try {
+            for (int round = 0; round < 3; round++) {
+                relays.forEach(OutboxShardCoordinator::rebalance);
+            }
+            sharded = run("sharded-2-relays", tx, () -> awaitDone(tx));
+        } finally {
+            relays.forEach(OutboxShardCoordinator::stop);
+        }
+
+        assertThat(outboxRepository.findAll()).allMatch(event -> event.getStatus() == OutboxStatus.DONE);
+        assertThat(pipelined).isGreaterThan(serial);
+        assertThat(sharded).isGreaterThan(serial);
+    }
+
+    private void awaitDone(TransactionTemplate tx) {
+        while (tx.execute(status -> outboxRepository.findAll().stream()
+                                                    .anyMatch(event -> event.getStatus() != OutboxStatus.DONE))) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private double run(String mode, TransactionTemplate tx, Runnable publishOnce) {
+        seed(tx);
+        long start = System.nanoTime();
+        while (countReady(tx) > 0) {
+            publishOnce.run();
+        }
+        double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+        double throughput = EVENTS / elapsedSec;
+        System.out.printf("[%s] events=%d, elapsed=%.2fs, throughput=%.0f events/s%n", mode, EVENTS, elapsedSec, throughput);
+        return throughput;
+    }
+
+    private void forEachShard(IntConsumer publish) {
+        for (int shard = 0; shard < TripOutbox.SHARD_COUNT; shard++) {
+            publish.accept(shard);
+        }
+    }
+
+    // 변경 전 OutboxMessageRelay.publishEvents 와 같은 흐름 (건별 전송 대기 + 건별 UPDATE)
+    private void publishSerially(TransactionTemplate tx, KafkaTemplate<String, String> kafkaTemplate, int shard) {
+        List<TripOutbox> events = tx.execute(status -> {
+            List<TripOutbox> claimed = outboxRepository.findEventsForPublishingInShard(shard, 100);
+            if (!claimed.isEmpty()) {
+                outboxRepository.updateStatus(claimed.stream().map(TripOutbox::getId).toList(), OutboxStatus.PUBLISHING);
+            }
+            return claimed;
+        });
+
+        for (TripOutbox event : events) {
+            OutboxStatus result;
+            try {
+                kafkaTemplate.send(event.getTopic(), event.getAggregateId(), event.getPayload()).get();
+                result = OutboxStatus.DONE;
+            } catch (Exception e) {
+                result = OutboxStatus.READY;
+            }
+            OutboxStatus status = result;
+            tx.execute(s -> {
+                outboxRepository.updateStatus(List.of(event.getId()), status);
+                return null;
+            });
+        }
+    }
+
+    private void seed(TransactionTemplate tx) {
+        tx.execute(status -> {
+            List<TripOutbox> events = new ArrayList<>();
+            for (int i = 0; i < EVENTS; i++) {
+                events.add(TripOutbox.builder()
+                                     .aggregateId("trip-" + (i % AGGREGATES))
+                                     .topic(TOPIC)
+                                     .payload("{\"tripId\":\"trip-" + (i % AGGREGATES) + "\",\"seq\":" + i + "}")
+                                     .build());
+            }
+            outboxRepository.saveAll(events);
+            return null;
+        });
+    }
+
+    private long countReady(TransactionTemplate tx) {
+        return tx.execute(status -> outboxRepository.findAll().stream()
+                                                    .filter(event -> event.getStatus() == OutboxStatus.READY)
+                                                    .count());
+    }
+
+    // application.yml 의 프로듀서 설정과 같은 배치/멱등성 옵션
+    private KafkaTemplate<String, String> kafkaTemplate() {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.LINGER_MS_CONFIG, 10,
+                ProducerConfig.BATCH_SIZE_CONFIG, 130000);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+}
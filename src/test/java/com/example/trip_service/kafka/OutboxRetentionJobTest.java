@@ -0,0 +1,104 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxPartitionRepository;
+import com.example.trip_service.repository.TripOutboxPartitionRepository.DailyPartition;
+import com.example.trip_service.repository.TripOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+// H2 는 파티션이 없으므로 청크 삭제 경로를 확인 (파티션 경로는 파티션 저장소를 mock 으로 대체)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRetentionJobTest {
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("보관 기간이 지난 DONE 이벤트만 청크 단위로 삭제하고 미발행 이벤트와 최근 이벤트는 남긴다")
+    void deletesOnlyExpiredDoneEventsInChunks() {
+        LocalDateTime old = LocalDateTime.now().minusDays(5);
+        List<Long> expiredDone = List.of(
+                event("trip-1", OutboxStatus.DONE, old),
+                event("trip-2", OutboxStatus.DONE, old),
+                event("trip-3", OutboxStatus.DONE, old),
+                event("trip-4", OutboxStatus.DONE, old),
+                event("trip-5", OutboxStatus.DONE, old));
+        Long expiredReady = event("trip-6", OutboxStatus.READY, old);
+        Long recentDone = event("trip-7", OutboxStatus.DONE, LocalDateTime.now());
+
+        OutboxRetentionJob job = new OutboxRetentionJob(outboxRepository, new TripOutboxPartitionRepository(jdbcTemplate),
+                new TransactionTemplate(transactionManager), new OutboxMetrics(meterRegistry),
+                3, 3, 2, Duration.ZERO, Duration.ofMinutes(1));
+
+        job.cleanupOldEvents();
+
+        assertThat(outboxRepository.findAllById(expiredDone)).isEmpty();
+        assertThat(outboxRepository.findAll()).extracting(TripOutbox::getId).containsExactlyInAnyOrder(expiredReady, recentDone);
+        assertThat(meterRegistry.counter("trip.outbox.cleanup.deleted", "method", "chunk").count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("보관 기간이 지난 파티션 DROP 은 삭제 행 수가 아닌 파티션 수 지표로 센다")
+    void countsDroppedPartitionsSeparately() {
+        TripOutboxPartitionRepository partitionRepository = mock(TripOutboxPartitionRepository.class);
+        LocalDate today = LocalDate.now();
+        DailyPartition expired = new DailyPartition(TripOutboxPartitionRepository.nameOf(today.minusDays(5)), today.minusDays(5));
+        DailyPartition pending = new DailyPartition(TripOutboxPartitionRepository.nameOf(today.minusDays(4)), today.minusDays(4));
+        given(partitionRepository.findDailyPartitions()).willReturn(List.of(expired, pending,
+                new DailyPartition(TripOutboxPartitionRepository.nameOf(today), today)));
+        given(partitionRepository.countUnpublished(pending)).willReturn(1L);
+
+        OutboxRetentionJob job = new OutboxRetentionJob(outboxRepository, partitionRepository,
+                new TransactionTemplate(transactionManager), new OutboxMetrics(meterRegistry),
+                3, 0, 2, Duration.ZERO, Duration.ofMinutes(1));
+
+        job.managePartitions(today, today.minusDays(3));
+
+        then(partitionRepository).should().dropPartition(expired);
+        then(partitionRepository).should(never()).dropPartition(pending);
+        assertThat(meterRegistry.counter("trip.outbox.cleanup.partitions.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.find("trip.outbox.cleanup.deleted").counters()).isEmpty();
+    }
+
+    private Long event(String tripId, OutboxStatus status, LocalDateTime createdAt) {
+        TripOutbox outbox = outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("{}").build());
+        jdbcTemplate.update("UPDATE trip_outbox SET status = ?, created_at = ? WHERE id = ?", status.name(), createdAt, outbox.getId());
+        return outbox.getId();
+    }
+}
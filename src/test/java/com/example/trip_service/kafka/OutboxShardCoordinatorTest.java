@@ -0,0 +1,223 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import com.example.trip_service.repository.TripOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 같은 JVM 안의 여러 릴레이 인스턴스로 샤드 재분배와 여정별 발행 순서를 확인
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxShardCoordinatorTest {
+
+    private static final Duration LEASE_TTL = Duration.ofSeconds(5);
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final InMemoryOutboxShardLeaseStore leaseStore = new InMemoryOutboxShardLeaseStore();
+    private final List<OutboxShardCoordinator> coordinators = new ArrayList<>();
+
+    // 여정별 Kafka 로 나간 payload 순서
+    private final Map<String, List<Integer>> sentByTrip = new ConcurrentHashMap<>();
+    // 지정하면 전송 결과가 이 future 가 끝날 때까지 나오지 않음
+    private volatile CompletableFuture<Object> sendResult;
+
+    @AfterEach
+    void tearDown() {
+        coordinators.forEach(OutboxShardCoordinator::stop);
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("릴레이가 늘고 줄 때 샤드가 겹치지 않게 몫만큼 나뉘고 모든 샤드가 주인을 가진다")
+    void rebalancesShardsAcrossRelays() {
+        OutboxShardCoordinator first = newCoordinator();
+        OutboxShardCoordinator second = newCoordinator();
+        OutboxShardCoordinator third = newCoordinator();
+
+        awaitBalanced(List.of(first, second, third));
+
+        // 네 번째 릴레이 합류 -> 기존 릴레이가 몫을 넘는 샤드를 반납하고 새 릴레이가 가져감
+        OutboxShardCoordinator fourth = newCoordinator();
+        awaitBalanced(List.of(first, second, third, fourth));
+        assertThat(fourth.ownedShards()).isNotEmpty();
+
+        // 한 릴레이 종료 -> 반납된 샤드를 남은 릴레이가 이어받음
+        second.stop();
+        coordinators.remove(second);
+        awaitBalanced(List.of(first, third, fourth));
+    }
+
+    @Test
+    @DisplayName("재분배가 일어나는 동안에도 모든 이벤트가 한 번씩, 여정별로 순서대로 발행된다")
+    void preservesPerTripOrderWhileRebalancing() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int trips = 200;
+        int eventsPerTrip = 10;
+
+        tx.execute(status -> {
+            List<TripOutbox> events = new ArrayList<>();
+            for (int seq = 0; seq < eventsPerTrip; seq++) {
+                for (int trip = 0; trip < trips; trip++) {
+                    events.add(TripOutbox.builder().aggregateId("trip-" + trip).topic("trip_events").payload(String.valueOf(seq)).build());
+                }
+            }
+            outboxRepository.saveAll(events);
+            return null;
+        });
+
+        OutboxShardCoordinator first = newCoordinator();
+        newCoordinator();
+        rebalanceRounds(1);
+        newCoordinator();
+        rebalanceRounds(1);
+        first.stop();
+        coordinators.remove(first);
+
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+            rebalanceRounds(1);
+            assertThat(outboxRepository.findAll()).allMatch(event -> event.getStatus() == OutboxStatus.DONE);
+        });
+
+        assertThat(sentByTrip).hasSize(trips);
+        List<Integer> expected = IntStream.range(0, eventsPerTrip).boxed().toList();
+        sentByTrip.values().forEach(sent -> assertThat(sent).isEqualTo(expected));
+    }
+
+    @Test
+    @DisplayName("전송 중인 배치가 있는 샤드를 내놓아도 재분배는 막히지 않고, 임대는 배치가 끝날 때까지 연장되다가 반납된다")
+    void releasesShardOnlyAfterInFlightBatchFinishes() {
+        Duration leaseTtl = Duration.ofSeconds(1);
+        int shard = TripOutbox.SHARD_COUNT - 1; // 몫을 넘으면 가장 큰 번호부터 반납
+        String tripId = tripInShard(shard);
+        sendResult = new CompletableFuture<>();
+        outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("0").build());
+
+        OutboxShardCoordinator first = newCoordinator(leaseTtl);
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(50)).untilAsserted(() -> {
+            rebalanceRounds(1);
+            assertThat(sentByTrip).containsKey(tripId);
+        });
+
+        // 두 번째 릴레이 합류 -> 첫 릴레이가 전송 중인 샤드를 내놓지만, 임대 만료 시간을 여러 번 넘겨도 다른 릴레이가 가져가지 못함
+        OutboxShardCoordinator second = newCoordinator(leaseTtl);
+        long slowestRoundMs = 0;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            rebalanceRounds(1);
+            slowestRoundMs = Math.max(slowestRoundMs, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            sleep(150);
+        }
+        assertThat(slowestRoundMs).isLessThan(leaseTtl.toMillis());
+        assertThat(first.ownedShards()).doesNotContain(shard);
+        assertThat(second.ownedShards()).doesNotContain(shard);
+
+        // 배치가 끝나면 반납되어 다른 릴레이가 이어받음
+        sendResult.complete(null);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            rebalanceRounds(1);
+            assertThat(second.ownedShards()).contains(shard);
+        });
+        assertThat(outboxRepository.findAll()).allMatch(event -> event.getStatus() == OutboxStatus.DONE);
+    }
+
+    private OutboxShardCoordinator newCoordinator() {
+        return newCoordinator(LEASE_TTL);
+    }
+
+    private OutboxShardCoordinator newCoordinator(Duration leaseTtl) {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            String tripId = invocation.getArgument(1);
+            sentByTrip.computeIfAbsent(tripId, key -> new CopyOnWriteArrayList<>())
+                      .add(Integer.parseInt(invocation.getArgument(2)));
+            return sendResult != null ? sendResult : CompletableFuture.completedFuture(null);
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OutboxMessageRelay relay = new OutboxMessageRelay(outboxRepository, kafkaTemplate,
+                new TransactionTemplate(transactionManager), new OutboxMetrics(meterRegistry),
+                new OutboxPayloadCodec(new ObjectMapper(), "json", "none", 256, 3), leaseTtl, Duration.ofMinutes(10));
+        OutboxShardCoordinator coordinator = new OutboxShardCoordinator(leaseStore, relay, meterRegistry,
+                "relay-" + coordinators.size(), leaseTtl, 20, 200);
+        coordinator.start();
+        coordinators.add(coordinator);
+        return coordinator;
+    }
+
+    // 모든 릴레이가 먼저 생존 신호를 남긴 뒤 몫이 계산되도록 여러 바퀴 실행
+    private void rebalanceRounds(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            coordinators.forEach(OutboxShardCoordinator::rebalance);
+        }
+    }
+
+    private static String tripInShard(int shard) {
+        return IntStream.iterate(0, i -> i + 1)
+                        .mapToObj(i -> "trip-" + i)
+                        .filter(tripId -> TripOutbox.shardOf(tripId) == shard)
+                        .findFirst()
+                        .orElseThrow();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 반납은 워커가 배치를 마친 뒤 비동기로 일어나므로 몇 바퀴 더 돌려 수렴을 기다림
+    private void awaitBalanced(List<OutboxShardCoordinator> relays) {
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            rebalanceRounds(1);
+            assertBalanced(relays);
+        });
+    }
+
+    private void assertBalanced(List<OutboxShardCoordinator> relays) {
+        int fairShare = (TripOutbox.SHARD_COUNT + relays.size() - 1) / relays.size();
+        Set<Integer> all = new HashSet<>();
+        for (OutboxShardCoordinator relay : relays) {
+            assertThat(relay.ownedShards()).hasSizeLessThanOrEqualTo(fairShare);
+            for (Integer shard : relay.ownedShards()) {
+                assertThat(all.add(shard)).as("샤드 %d 중복 소유", shard).isTrue();
+            }
+        }
+        assertThat(all).hasSize(TripOutbox.SHARD_COUNT);
+    }
+}
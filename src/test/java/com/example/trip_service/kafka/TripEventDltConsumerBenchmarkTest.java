@@ -0,0 +1,143 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.FailedEvent;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.repository.FailedEventBatchRepository;
+import com.example.trip_service.repository.FailedEventRepository;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 임베디드 Kafka DLT 토픽에 10만 건을 쌓아 두고
+// 기존 방식(레코드 리스너, 동시성 1, 건별 save 트랜잭션)과 배치 리스너 + 다중 행 INSERT(파티션 수만큼 동시성)의 적재 시간 비교
+@Tag("benchmark")
+@DataJpaTest
+@EmbeddedKafka(partitions = TripEventDltConsumerBenchmarkTest.PARTITIONS, topics = TripEventDltConsumerBenchmarkTest.TOPIC)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripEventDltConsumerBenchmarkTest {
+
+    static final String TOPIC = "payment_events_benchmark.DLT";
+    static final int PARTITIONS = 3;
+    private static final int RECORDS = 100_000;
+
+    @Autowired
+    private FailedEventRepository failedEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    @DisplayName("배치 리스너 + 다중 행 INSERT 는 건별 저장보다 DLT 10만 건을 빨리 적재한다")
+    void compareBatchIngestionWithPerRecordSave() {
+        produce();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        double perRecord = run("per-record", 1, false, (MessageListener<String, String>) record ->
+                tx.executeWithoutResult(status -> failedEventRepository.save(FailedEvent.builder()
+                                                                                         .topic(record.topic())
+                                                                                         .kafkaKey(record.key())
+                                                                                         .payload(record.value())
+                                                                                         .errorMessage("Unknown Error")
+                                                                                         .status(FailedEventStatus.PENDING)
+                                                                                         .build())));
+
+        TripEventDltConsumer consumer = new TripEventDltConsumer(new FailedEventBatchRepository(jdbcTemplate), 500);
+        double batch = run("batch-multi-row", PARTITIONS, true,
+                (BatchMessageListener<String, String>) consumer::consumeDlt);
+
+        assertThat(batch).isLessThan(perRecord);
+    }
+
+    // 처음부터 다 읽을 때까지 걸린 시간(초)
+    private double run(String mode, int concurrency, boolean batchListener, Object listener) {
+        failedEventRepository.deleteAllInBatch();
+
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setMessageListener(listener);
+        containerProperties.setAckMode(batchListener ? ContainerProperties.AckMode.BATCH : ContainerProperties.AckMode.RECORD);
+        ConcurrentMessageListenerContainer<String, String> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory("bench-" + mode), containerProperties);
+        container.setConcurrency(concurrency);
+
+        long start = System.nanoTime();
+        container.start();
+        try {
+            long deadline = System.currentTimeMillis() + 600_000;
+            while (failedEventRepository.count() < RECORDS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            container.stop();
+        }
+        double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertThat(failedEventRepository.count()).isEqualTo(RECORDS);
+        System.out.printf("[%s] records=%d, concurrency=%d, drain=%.2fs, throughput=%.0f records/s%n",
+                mode, RECORDS, concurrency, elapsedSec, RECORDS / elapsedSec);
+        return elapsedSec;
+    }
+
+    private void produce() {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 10,
+                ProducerConfig.BATCH_SIZE_CONFIG, 130000);
+        KafkaTemplate<String, String> kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+        List<CompletableFuture<?>> sends = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            sends.add(kafkaTemplate.send(TOPIC, "trip-" + (i % 5000),
+                    "{\"tripId\":\"trip-" + (i % 5000) + "\",\"amount\":12000,\"seq\":" + i + "}"));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        kafkaTemplate.destroy();
+    }
+
+    // KafkaConsumerConfig 의 DLT 컨슈머와 같은 설정 (문자열 그대로, poll 당 최대 500건)
+    private DefaultKafkaConsumerFactory<String, String> consumerFactory(String groupId) {
+        Map<String, Object> props = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, groupId,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.FailedEvent;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.repository.FailedEventBatchRepository;
+import com.example.trip_service.repository.FailedEventRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripEventDltConsumerTest {
+
+    private static final String TOPIC = "payment_events.DLT";
+
+    @Autowired
+    private FailedEventRepository failedEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        failedEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("poll 한 번의 레코드를 청크 단위로 저장하고, INSERT 가 실패한 청크는 한 건씩 다시 저장해 문제 행만 건너뛴다")
+    void savesBatchAndSkipsPoisonRows() {
+        TripEventDltConsumer consumer = new TripEventDltConsumer(new FailedEventBatchRepository(jdbcTemplate), 2);
+        ConsumerRecord<String, String> withError = record(2, "trip-2", "p2");
+        withError.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "fare missing".getBytes(StandardCharsets.UTF_8));
+
+        consumer.consumeDlt(List.of(
+                record(0, "trip-0", "p0"),
+                record(1, "k".repeat(300), "poison"), // kafka_key 길이 초과 -> 같은 청크의 p0 는 한 건씩 다시 저장
+                withError,
+                record(3, "trip-3", null),            // payload 없음 -> 건너뜀
+                record(4, null, "p4")));
+
+        List<FailedEvent> saved = failedEventRepository.findAll();
+        assertThat(saved).extracting(FailedEvent::getPayload).containsExactlyInAnyOrder("p0", "p2", "p4");
+        assertThat(saved).allSatisfy(event -> {
+            assertThat(event.getTopic()).isEqualTo(TOPIC);
+            assertThat(event.getStatus()).isEqualTo(FailedEventStatus.PENDING);
+            assertThat(event.getCreatedAt()).isNotNull();
+        });
+        assertThat(saved).filteredOn(event -> event.getPayload().equals("p2"))
+                         .extracting(FailedEvent::getErrorMessage).containsExactly("fare missing");
+        assertThat(saved).filteredOn(event -> event.getPayload().equals("p4"))
+                         .extracting(FailedEvent::getKafkaKey, FailedEvent::getErrorMessage)
+                         .containsExactly(tuple(null, "Unknown Error"));
+    }
+
+    @Test
+    @DisplayName("커넥션 실패는 건너뛰지 않고 실패한 청크의 첫 레코드부터 다시 받도록 BatchListenerFailedException 을 던진다")
+    void connectionFailureRedeliversFromFailedChunk() {
+        FailedEventBatchRepository failingOnSecondChunk = new FailedEventBatchRepository(jdbcTemplate) {
+            private int calls;
+
+            @Override
+            public int insertAll(List<FailedEvent> events) {
+                if (++calls > 1) {
+                    throw new CannotGetJdbcConnectionException("connection refused");
+                }
+                return super.insertAll(events);
+            }
+        };
+        TripEventDltConsumer consumer = new TripEventDltConsumer(failingOnSecondChunk, 2);
+        ConsumerRecord<String, String> firstOfFailedChunk = record(2, "trip-2", "p2");
+
+        assertThatThrownBy(() -> consumer.consumeDlt(List.of(
+                record(0, "trip-0", "p0"),
+                record(1, "trip-1", "p1"),
+                firstOfFailedChunk,
+                record(3, "trip-3", "p3"))))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(firstOfFailedChunk))
+                .hasCauseInstanceOf(CannotGetJdbcConnectionException.class);
+
+        // 앞 청크만 저장되고, 실패한 청크는 한 건씩 다시 저장하지 않음
+        assertThat(failedEventRepository.findAll()).extracting(FailedEvent::getPayload).containsExactlyInAnyOrder("p0", "p1");
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String key, String value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, key, value);
+    }
+}
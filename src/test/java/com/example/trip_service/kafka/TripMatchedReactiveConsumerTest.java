@@ -0,0 +1,118 @@
+package com.example.trip_service.kafka;
+
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.kafka.dto.TripMatchedEvent;
+import com.example.trip_service.service.TripService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TripMatchedReactiveConsumerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("같은 tripId 레코드는 겹치지 않고 순서대로, 다른 tripId는 병렬로 처리되며 모든 레코드가 ack 된다")
+    void sameTripIdIsSerializedAndDifferentTripIdsRunInParallel() throws Exception {
+        int perTrip = 5;
+        List<String> tripIds = List.of("trip-a", "trip-b", "trip-c", "trip-d");
+
+        List<ReceiverRecord<String, String>> records = new ArrayList<>();
+        CountDownLatch acked = new CountDownLatch(perTrip * tripIds.size());
+        for (int seq = 0; seq < perTrip; seq++) {
+            for (String tripId : tripIds) {
+                records.add(record(tripId, seq, acked));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        KafkaReceiver<String, String> receiver = mock(KafkaReceiver.class);
+        when(receiver.receive()).thenReturn(Flux.fromIterable(records));
+
+        Map<String, AtomicInteger> runningPerTrip = new ConcurrentHashMap<>();
+        Map<String, List<String>> orderPerTrip = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger overlapsWithinTrip = new AtomicInteger();
+
+        TripService tripService = mock(TripService.class);
+        when(tripService.createTripFromEvent(any())).thenAnswer(invocation -> {
+            TripMatchedEvent event = invocation.getArgument(0);
+            return Mono.delay(Duration.ofMillis(20))
+                       .doOnSubscribe(s -> {
+                           if (runningPerTrip.computeIfAbsent(event.tripId(), k -> new AtomicInteger()).incrementAndGet() > 1) {
+                               overlapsWithinTrip.incrementAndGet();
+                           }
+                           maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                           orderPerTrip.computeIfAbsent(event.tripId(), k -> new ArrayList<>()).add(event.userId());
+                       })
+                       .doOnTerminate(() -> {
+                           runningPerTrip.get(event.tripId()).decrementAndGet();
+                           running.decrementAndGet();
+                       })
+                       .then(Mono.<Trip>empty());
+        });
+
+        @SuppressWarnings("unchecked")
+        ReactiveKafkaProducerTemplate<String, String> producerTemplate = mock(ReactiveKafkaProducerTemplate.class);
+        TripMatchedReactiveConsumer consumer = new TripMatchedReactiveConsumer(
+                receiver, tripService, producerTemplate, objectMapper, new SimpleMeterRegistry(), 64);
+
+        consumer.run();
+        try {
+            assertThat(acked.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            consumer.destroy();
+        }
+
+        assertThat(overlapsWithinTrip.get()).isZero();
+        assertThat(maxRunning.get()).isGreaterThan(1);
+        tripIds.forEach(tripId ->
+                assertThat(orderPerTrip.get(tripId)).containsExactly("seq-0", "seq-1", "seq-2", "seq-3", "seq-4"));
+    }
+
+    // userId 자리에 순번을 넣어 처리 순서를 확인
+    private ReceiverRecord<String, String> record(String tripId, int seq, CountDownLatch acked) throws Exception {
+        TripMatchedEvent event = new TripMatchedEvent(
+                tripId, "seq-" + seq, "driver-1",
+                new TripMatchedEvent.Location(127.0, 37.5),
+                new TripMatchedEvent.Location(127.1, 37.6),
+                LocalDateTime.now());
+
+        ReceiverOffset offset = mock(ReceiverOffset.class);
+        doAnswer(invocation -> {
+            acked.countDown();
+            return null;
+        }).when(offset).acknowledge();
+
+        @SuppressWarnings("unchecked")
+        ReceiverRecord<String, String> record = mock(ReceiverRecord.class);
+        when(record.value()).thenReturn(objectMapper.writeValueAsString(event));
+        when(record.receiverOffset()).thenReturn(offset);
+        return record;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.Trip;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class R2dbcTripMatchStoreTest {
+
+    private DatabaseClient databaseClient;
+    private R2dbcTripMatchStore matchStore;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory =
+                ConnectionFactories.get("r2dbc:h2:mem:///trip-match-store;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        databaseClient = DatabaseClient.create(connectionFactory);
+
+        databaseClient.sql("DROP TABLE IF EXISTS trips").then()
+                      .then(databaseClient.sql("""
+                              CREATE TABLE trips (
+                                  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                  trip_id VARCHAR(255) NOT NULL UNIQUE,
+                                  user_id VARCHAR(255) NOT NULL,
+                                  driver_id VARCHAR(255) NOT NULL,
+                                  status VARCHAR(20) NOT NULL,
+                                  origin_address VARCHAR(255) NOT NULL,
+                                  destination_address VARCHAR(255) NOT NULL,
+                                  fare INT,
+                                  matched_at TIMESTAMP NOT NULL,
+                                  started_at TIMESTAMP,
+                                  ended_at TIMESTAMP,
+                                  driver_name VARCHAR(255),
+                                  vehicle_model VARCHAR(255),
+                                  license_plate VARCHAR(255),
+                                  user_name VARCHAR(255),
+                                  enrichment_status VARCHAR(20),
+                                  version BIGINT NOT NULL,
+                                  created_at TIMESTAMP,
+                                  updated_at TIMESTAMP
+                              )
+                              """).then())
+                      .block();
+
+        matchStore = new R2dbcTripMatchStore(databaseClient);
+    }
+
+    @Test
+    @DisplayName("R2DBC 저장소: 여정을 INSERT 하면 trip_id로 존재 여부를 조회할 수 있다")
+    void insertThenExists() {
+        Trip trip = newTrip("trip-r2dbc-1");
+
+        StepVerifier.create(matchStore.existsByTripId("trip-r2dbc-1"))
+                    .expectNext(false)
+                    .verifyComplete();
+
+        StepVerifier.create(matchStore.insert(trip))
+                    .expectNext(trip)
+                    .verifyComplete();
+
+        StepVerifier.create(matchStore.existsByTripId("trip-r2dbc-1"))
+                    .expectNext(true)
+                    .verifyComplete();
+
+        String status = databaseClient.sql("SELECT status FROM trips WHERE trip_id = 'trip-r2dbc-1'")
+                                      .map(row -> row.get("status", String.class))
+                                      .one()
+                                      .block();
+        assertThat(status).isEqualTo("MATCHED");
+    }
+
+    @Test
+    @DisplayName("R2DBC 저장소: 중복 trip_id INSERT는 유니크 제약 위반을 삼키고 정상 완료된다")
+    void duplicateInsertIsIgnored() {
+        matchStore.insert(newTrip("trip-r2dbc-2")).block();
+
+        StepVerifier.create(matchStore.insert(newTrip("trip-r2dbc-2")))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+        Long count = databaseClient.sql("SELECT COUNT(*) AS cnt FROM trips WHERE trip_id = 'trip-r2dbc-2'")
+                                   .map(row -> row.get("cnt", Long.class))
+                                   .one()
+                                   .block();
+        assertThat(count).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("R2DBC 저장소: persist-first로 저장된 여정에 주소/이름/차량 정보를 후속 UPDATE로 채운다")
+    void applyEnrichmentUpdatesPlaceholderColumns() {
+        matchStore.insert(newTrip("trip-r2dbc-3")).block();
+
+        TripEnrichment enrichment = new TripEnrichment("서울역 주소", "강남역 주소", "홍길동", "김기사", "쏘나타", "12가3456");
+
+        StepVerifier.create(matchStore.applyEnrichment("trip-r2dbc-3", enrichment))
+                    .expectNext(1)
+                    .verifyComplete();
+
+        String driverName = databaseClient.sql("SELECT driver_name FROM trips WHERE trip_id = 'trip-r2dbc-3'")
+                                          .map(row -> row.get("driver_name", String.class))
+                                          .one()
+                                          .block();
+        assertThat(driverName).isEqualTo("김기사");
+
+        String enrichmentStatus = databaseClient.sql("SELECT enrichment_status FROM trips WHERE trip_id = 'trip-r2dbc-3'")
+                                                .map(row -> row.get("enrichment_status", String.class))
+                                                .one()
+                                                .block();
+        assertThat(enrichmentStatus).isEqualTo("DONE");
+    }
+
+    private Trip newTrip(String tripId) {
+        return Trip.builder()
+                   .tripId(tripId)
+                   .userId("user-1")
+                   .driverId("driver-1")
+                   .originAddress("서울역")
+                   .destinationAddress("강남역")
+                   .matchedAt(LocalDateTime.now())
+                   .userName("홍길동")
+                   .driverName(null)
+                   .build();
+    }
+}
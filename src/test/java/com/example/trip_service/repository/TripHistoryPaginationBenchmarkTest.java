@@ -0,0 +1,126 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.dto.TripHistoryResponse;
+import com.example.trip_service.dto.TripSummaryResponse;
+import com.example.trip_service.service.TripHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 한 사용자에 이력이 많이 쌓인 테이블에서
+// 키셋 페이지네이션의 페이지별 지연이 앞쪽/뒤쪽 페이지에서 일정한지 확인 (OFFSET 방식과 비교 출력)
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripHistoryPaginationBenchmarkTest {
+
+    private static final int USER_TRIPS = 100_000;
+    private static final int OTHER_TRIPS = 100_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int SAMPLE_PAGES = 20;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TripHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new TripHistoryService(tripRepository);
+        jdbcTemplate.update("DELETE FROM trips");
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < USER_TRIPS + OTHER_TRIPS; i++) {
+            boolean mine = i % 2 == 0;
+            // 10건씩 같은 matched_at을 주어 id 타이브레이크까지 검증
+            Timestamp matchedAt = Timestamp.valueOf(base.plusMinutes(i / 10));
+            rows.add(new Object[]{"trip-" + i, mine ? "user-heavy" : "user-" + (i % 1000), "driver-" + (i % 500),
+                                  "COMPLETED", "서울역", "강남역", 15000, matchedAt, 0L});
+            if (rows.size() == 5000) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+        insert(rows);
+    }
+
+    @Test
+    @DisplayName("키셋 페이지네이션은 마지막 페이지까지 누락/중복 없이 일정한 지연으로 조회된다")
+    void keysetLatencyIsFlatAcrossPages() {
+        List<Long> pageNanos = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        LocalDateTime previous = null;
+        String cursor = null;
+
+        do {
+            long start = System.nanoTime();
+            TripHistoryResponse page = historyService.getHistory("user-heavy", null, cursor, PAGE_SIZE);
+            pageNanos.add(System.nanoTime() - start);
+
+            for (TripSummaryResponse trip : page.trips()) {
+                assertThat(seen.add(trip.tripId())).isTrue();
+                if (previous != null) {
+                    assertThat(trip.matchedAt()).isBeforeOrEqualTo(previous);
+                }
+                previous = trip.matchedAt();
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(USER_TRIPS);
+
+        // JIT 워밍업 구간을 제외하고 앞쪽/뒤쪽 페이지 평균 비교
+        double headMs = averageMs(pageNanos.subList(SAMPLE_PAGES, SAMPLE_PAGES * 2));
+        double tailMs = averageMs(pageNanos.subList(pageNanos.size() - SAMPLE_PAGES, pageNanos.size()));
+        double offsetHeadMs = offsetAverageMs(0);
+        double offsetTailMs = offsetAverageMs(USER_TRIPS - PAGE_SIZE * SAMPLE_PAGES);
+
+        System.out.printf("[keyset] pages=%d, head avg=%.2fms, tail avg=%.2fms%n", pageNanos.size(), headMs, tailMs);
+        System.out.printf("[offset] head avg=%.2fms, tail avg=%.2fms%n", offsetHeadMs, offsetTailMs);
+
+        assertThat(tailMs).isLessThan(headMs * 3 + 2);
+    }
+
+    private double offsetAverageMs(int startOffset) {
+        List<Long> nanos = new ArrayList<>();
+        for (int page = 0; page < SAMPLE_PAGES; page++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList("""
+                    SELECT id, trip_id, status, origin_address, destination_address, fare, matched_at
+                      FROM trips WHERE user_id = ? ORDER BY matched_at DESC, id DESC LIMIT ? OFFSET ?
+                    """, "user-heavy", PAGE_SIZE, startOffset + page * PAGE_SIZE);
+            nanos.add(System.nanoTime() - start);
+        }
+        return averageMs(nanos);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO trips (trip_id, user_id, driver_id, status, origin_address, destination_address, fare, matched_at, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+    }
+
+    private static double averageMs(List<Long> nanos) {
+        return nanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000.0;
+    }
+}
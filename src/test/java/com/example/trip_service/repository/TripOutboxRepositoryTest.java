@@ -0,0 +1,111 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.entity.OutboxStatus;
+import com.example.trip_service.entity.TripOutbox;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TripOutboxRepositoryTest {
+
+    @Autowired
+    private TripOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("선점 만료 시각이 지난 PUBLISHING 이벤트만 READY 로 회수한다")
+    void rescuesOnlyExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        Long expired = claimed("trip-1", "relay-a", now.minusSeconds(1));
+        Long live = claimed("trip-2", "relay-b", now.plusSeconds(10));
+
+        int rescued = outboxRepository.rescueExpiredLeases(OutboxStatus.PUBLISHING, OutboxStatus.READY, now, now.minusMinutes(10));
+
+        assertThat(rescued).isEqualTo(1);
+        TripOutbox rescuedEvent = outboxRepository.findById(expired).orElseThrow();
+        assertThat(rescuedEvent.getStatus()).isEqualTo(OutboxStatus.READY);
+        assertThat(rescuedEvent.getClaimedBy()).isNull();
+        assertThat(outboxRepository.findById(live).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PUBLISHING);
+    }
+
+    @Test
+    @DisplayName("선점이 다른 릴레이로 넘어간 이벤트는 이전 릴레이의 연장/결과 반영이 적용되지 않는다")
+    void fencesRenewAndCompletionByOwner() {
+        LocalDateTime now = LocalDateTime.now();
+        Long id = claimed("trip-3", "relay-a", now.minusSeconds(1));
+
+        // 만료 후 회수되어 relay-b 가 다시 선점
+        outboxRepository.rescueExpiredLeases(OutboxStatus.PUBLISHING, OutboxStatus.READY, now, now.minusMinutes(10));
+        outboxRepository.claim(List.of(id), OutboxStatus.PUBLISHING, "relay-b", now.plusSeconds(10));
+
+        assertThat(outboxRepository.renewLease(List.of(id), OutboxStatus.PUBLISHING, "relay-a", now.plusSeconds(20))).isZero();
+        assertThat(outboxRepository.completeClaim(List.of(id), OutboxStatus.PUBLISHING, "relay-a", OutboxStatus.READY)).isZero();
+        assertThat(outboxRepository.completeClaim(List.of(id), OutboxStatus.PUBLISHING, "relay-b", OutboxStatus.DONE)).isEqualTo(1);
+
+        assertThat(outboxRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OutboxStatus.DONE);
+    }
+
+    @Test
+    @DisplayName("다른 샤드에 앞선 READY 이벤트(shard 도입 전 행)가 남은 여정은 그 이벤트가 나갈 때까지 선점하지 않는다")
+    void waitsForEarlierReadyEventInAnotherShard() {
+        String tripId = tripOutsideShardZero();
+        int shard = TripOutbox.shardOf(tripId);
+        // shard 컬럼 추가 전에 저장되어 기본값 0 이 들어간 행
+        TripOutbox legacy = outboxRepository.saveAndFlush(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("0").build());
+        jdbcTemplate.update("UPDATE trip_outbox SET shard = 0 WHERE id = ?", legacy.getId());
+        TripOutbox next = outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("1").build());
+        TripOutbox last = outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("2").build());
+
+        assertThat(outboxRepository.findEventsForPublishingInShard(shard, 100)).isEmpty();
+        assertThat(outboxRepository.findEventsForPublishingInShard(0, 100)).extracting(TripOutbox::getId).containsExactly(legacy.getId());
+
+        outboxRepository.updateStatus(List.of(legacy.getId()), OutboxStatus.DONE);
+
+        // 같은 샤드 안의 READY 이벤트끼리는 한 배치로 선점 (순서는 발행 시 여정별로 이어서 보냄)
+        assertThat(outboxRepository.findEventsForPublishingInShard(shard, 100)).extracting(TripOutbox::getId)
+                                                                               .containsExactly(next.getId(), last.getId());
+    }
+
+    @Test
+    @DisplayName("8KB 를 넘는 payload 도 저장하고 그대로 읽는다")
+    void storesLargePayloadData() {
+        byte[] payloadData = new byte[64 * 1024];
+        Arrays.fill(payloadData, (byte) 'a');
+        payloadData[0] = 0x01;
+
+        TripOutbox saved = outboxRepository.saveAndFlush(
+                TripOutbox.builder().aggregateId("trip-large").topic("trip_events").payloadData(payloadData).build());
+        entityManager.clear();
+
+        assertThat(outboxRepository.findById(saved.getId()).orElseThrow().getPayloadData()).isEqualTo(payloadData);
+    }
+
+    private static String tripOutsideShardZero() {
+        for (int i = 0; ; i++) {
+            if (TripOutbox.shardOf("trip-legacy-" + i) != 0) {
+                return "trip-legacy-" + i;
+            }
+        }
+    }
+
+    private Long claimed(String tripId, String owner, LocalDateTime leaseUntil) {
+        TripOutbox outbox = outboxRepository.save(TripOutbox.builder().aggregateId(tripId).topic("trip_events").payload("{}").build());
+        outboxRepository.claim(List.of(outbox.getId()), OutboxStatus.PUBLISHING, owner, leaseUntil);
+        return outbox.getId();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.entity.EnrichmentStatus;
+import com.example.trip_service.entity.Trip;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TripRepositoryTest {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Test
+    @DisplayName("보강 UPDATE 는 부가 정보 컬럼을 채우고 버전을 올리며 보강 상태를 DONE 으로 바꾼다")
+    void updateEnrichmentMarksDone() {
+        Trip trip = tripRepository.saveAndFlush(pendingTrip("trip-1", LocalDateTime.now()));
+
+        int updated = tripRepository.updateEnrichment("trip-1", "서울역", "강남역", "홍길동", "김기사", "쏘나타", "12가3456",
+                LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(1);
+        Trip enriched = tripRepository.findByTripId("trip-1").orElseThrow();
+        assertThat(enriched.getOriginAddress()).isEqualTo("서울역");
+        assertThat(enriched.getDriverName()).isEqualTo("김기사");
+        assertThat(enriched.getEnrichmentStatus()).isEqualTo(EnrichmentStatus.DONE);
+        assertThat(enriched.getVersion()).isEqualTo(trip.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("재스캔은 기준 시각 이전에 배차된 PENDING 여정만 오래된 순으로 읽는다")
+    void findsOnlyOldPendingTrips() {
+        LocalDateTime now = LocalDateTime.now();
+        tripRepository.save(pendingTrip("trip-old", now.minusMinutes(10)));
+        tripRepository.save(pendingTrip("trip-older", now.minusMinutes(20)));
+        tripRepository.save(pendingTrip("trip-recent", now));
+        tripRepository.save(Trip.builder().tripId("trip-enriched").userId("user-1").driverId("driver-1")
+                                .originAddress("서울역").destinationAddress("강남역").matchedAt(now.minusMinutes(30)).build());
+        tripRepository.flush();
+
+        assertThat(tripRepository.findByEnrichmentStatusAndMatchedAtBeforeOrderByMatchedAt(
+                EnrichmentStatus.PENDING, now.minusMinutes(2), Limit.of(10)))
+                .extracting(Trip::getTripId)
+                .containsExactly("trip-older", "trip-old");
+    }
+
+    private static Trip pendingTrip(String tripId, LocalDateTime matchedAt) {
+        return Trip.builder()
+                   .tripId(tripId)
+                   .userId("user-1")
+                   .driverId("driver-1")
+                   .originAddress("37.497900,127.027600")
+                   .destinationAddress("37.554700,126.970700")
+                   .matchedAt(matchedAt)
+                   .enrichmentStatus(EnrichmentStatus.PENDING)
+                   .build();
+    }
+}
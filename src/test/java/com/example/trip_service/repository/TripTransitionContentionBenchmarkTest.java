@@ -0,0 +1,237 @@
+package com.example.trip_service.repository;
+
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.entity.TripTransition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 같은 여정에 기사 앱 중복 요청이 몰리는 상황에서
+// 기존 비관적 락 경로(SELECT ... FOR UPDATE NOWAIT + UPDATE, 락 실패 시 500ms 백오프로 최대 3회)와
+// 상태 전이별 조건부 UPDATE(TripService.transition 과 같은 쿼리)의 지연/처리량 비교
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripTransitionContentionBenchmarkTest {
+
+    private static final int TRIPS = 200;
+    private static final int REQUESTS_PER_TRIP = 8;
+    private static final int THREADS = 32;
+
+    // 기존 TripService 의 @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 500))
+    private static final int LOCK_MAX_ATTEMPTS = 3;
+    private static final long LOCK_RETRY_DELAY_MS = 500;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("도착/시작/종료/취소 모두 조건부 UPDATE 는 실패 없이 여정당 정확히 한 번 전이되고, 락 경로와 지연/처리량을 비교한다")
+    void compareLockingPathWithConditionalUpdate() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // 먼저 실행되는 경로만 JIT/커넥션 풀 워밍업 비용을 떠안지 않도록 한 번씩 돌리고 버림
+        run("warmup/pessimistic-lock", "warmup-lock-", TripStatus.MATCHED, tripId -> lockingTransition(tx, tripId, TripTransition.ARRIVE));
+        run("warmup/conditional-update", "warmup-cas-", TripStatus.MATCHED, tripId -> tx.execute(status -> transition(tripId, TripTransition.ARRIVE)));
+
+        for (TripTransition transition : TripTransition.values()) {
+            TripStatus initial = transition == TripTransition.CANCEL ? TripStatus.IN_PROGRESS : transition.from().iterator().next();
+            String name = transition.name().toLowerCase();
+
+            Result locking = run(transition.name() + "/pessimistic-lock", "lock-" + name + "-", initial,
+                    tripId -> lockingTransition(tx, tripId, transition));
+            Result conditional = run(transition.name() + "/conditional-update", "cas-" + name + "-", initial,
+                    tripId -> tx.execute(status -> transition(tripId, transition)));
+            System.out.printf("[%s] throughput x%.1f, p99 %.1fms -> %.1fms, lock failures %d -> %d%n",
+                    transition.name(), conditional.throughputPerSec() / locking.throughputPerSec(),
+                    locking.p99Ms(), conditional.p99Ms(), locking.failures(), conditional.failures());
+
+            // 락 경로도 같은 전이가 두 번 적용되면 안 됨 (재시도까지 실패한 요청은 적용 안 된 채로 남을 수 있음)
+            assertThat(locking.applied()).isLessThanOrEqualTo(TRIPS);
+            assertThat(countByPrefixAndStatus("lock-" + name + "-", transition.target())).isEqualTo(locking.applied());
+
+            assertThat(conditional.failures()).isZero();
+            assertThat(conditional.applied()).isEqualTo(TRIPS);
+            assertThat(countByPrefixAndStatus("cas-" + name + "-", transition.target())).isEqualTo(TRIPS);
+        }
+    }
+
+    @Test
+    @DisplayName("운행 중 여정에 종료와 취소가 동시에 몰려도 각 전이는 여정당 한 번만 적용되고 최종 상태는 취소다")
+    void completeAndCancelRaceAppliesEachTransitionOnce() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger canceled = new AtomicInteger();
+
+        Result result = run("COMPLETE-vs-CANCEL", "race-", TripStatus.IN_PROGRESS, tripId -> tx.execute(status -> {
+            TripTransition transition = sequence.incrementAndGet() % 2 == 0 ? TripTransition.COMPLETE : TripTransition.CANCEL;
+            boolean applied = transition(tripId, transition);
+            if (applied) {
+                (transition == TripTransition.COMPLETE ? completed : canceled).incrementAndGet();
+            }
+            return applied;
+        }));
+
+        // 결제 대기 중 취소는 허용(결제 실패 보상)되므로 종료 뒤 취소는 정상, 같은 전이가 두 번 적용되면 안 됨
+        assertThat(result.failures()).isZero();
+        assertThat(canceled.get()).isEqualTo(TRIPS);
+        assertThat(completed.get()).isLessThanOrEqualTo(TRIPS);
+        assertThat(countByPrefixAndStatus("race-", TripStatus.CANCELED)).isEqualTo(TRIPS);
+    }
+
+    // TripService.transition 과 같은 전이별 조건부 UPDATE
+    private boolean transition(String tripId, TripTransition transition) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (transition) {
+            case START -> tripRepository.compareAndSetStatusAndStartedAt(tripId, transition.from(), transition.target(), now);
+            case COMPLETE -> tripRepository.compareAndSetStatusAndEndedAt(tripId, transition.from(), transition.target(), now);
+            default -> tripRepository.compareAndSetStatus(tripId, transition.from(), transition.target(), now);
+        };
+        return updated == 1;
+    }
+
+    // 기존 경로: 행 락(NOWAIT)을 잡고 상태를 확인한 뒤 UPDATE. 락을 못 잡으면 500ms 뒤 트랜잭션째 재시도
+    private boolean lockingTransition(TransactionTemplate tx, String tripId, TripTransition transition) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(tx.execute(status -> lockAndUpdate(tripId, transition)));
+            } catch (TransientDataAccessException e) {
+                if (attempt == LOCK_MAX_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(LOCK_RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean lockAndUpdate(String tripId, TripTransition transition) {
+        TripStatus current = TripStatus.valueOf(jdbcTemplate.queryForObject(
+                "SELECT status FROM trips WHERE trip_id = ? FOR UPDATE NOWAIT", String.class, tripId));
+        if (current == transition.target() || !transition.from().contains(current)) {
+            return false; // 중복 요청(이미 전이됨) 또는 409
+        }
+        String timestampColumn = switch (transition) {
+            case START -> ", started_at = ?";
+            case COMPLETE -> ", ended_at = ?";
+            default -> "";
+        };
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] args = timestampColumn.isEmpty()
+                ? new Object[]{transition.target().name(), now, tripId}
+                : new Object[]{transition.target().name(), now, now, tripId};
+        jdbcTemplate.update("UPDATE trips SET status = ?, version = version + 1, updated_at = ?" + timestampColumn
+                + " WHERE trip_id = ?", args);
+        return true;
+    }
+
+    private int countByPrefixAndStatus(String prefix, TripStatus status) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trips WHERE trip_id LIKE ? AND status = ?",
+                Integer.class, prefix + "%", status.name());
+        return count == null ? 0 : count;
+    }
+
+    private Result run(String mode, String prefix, TripStatus initial, Attempt attempt) throws Exception {
+        List<String> tripIds = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            String tripId = prefix + i;
+            tripIds.add(tripId);
+            tripRepository.save(Trip.builder()
+                                    .tripId(tripId)
+                                    .userId("user-" + i)
+                                    .driverId("driver-" + i)
+                                    .originAddress("서울역")
+                                    .destinationAddress("강남역")
+                                    .matchedAt(LocalDateTime.now())
+                                    .build());
+        }
+        jdbcTemplate.update("UPDATE trips SET status = ? WHERE trip_id LIKE ?", initial.name(), prefix + "%");
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencyNanos = new long[TRIPS * REQUESTS_PER_TRIP];
+        AtomicInteger completedRequests = new AtomicInteger();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (String tripId : tripIds) {
+            for (int r = 0; r < REQUESTS_PER_TRIP; r++) {
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    long begin = System.nanoTime();
+                    try {
+                        if (Boolean.TRUE.equals(attempt.apply(tripId))) {
+                            applied.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet(); // 재시도까지 락 획득 실패 -> 운영에서는 500 응답
+                    }
+                    latencyNanos[completedRequests.getAndIncrement()] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+        pool.shutdown();
+
+        Arrays.sort(latencyNanos);
+        Result result = new Result(applied.get(), failures.get(), futures.size() / elapsedSec,
+                percentileMs(latencyNanos, 0.50), percentileMs(latencyNanos, 0.99));
+        System.out.printf("[%s] requests=%d, applied=%d, lock failures=%d, throughput=%.0f req/s, p50=%.1fms, p99=%.1fms, max=%.1fms%n",
+                mode, futures.size(), result.applied(), result.failures(), result.throughputPerSec(),
+                result.p50Ms(), result.p99Ms(), latencyNanos[latencyNanos.length - 1] / 1_000_000.0);
+        return result;
+    }
+
+    private static double percentileMs(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(sortedNanos.length * quantile) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        Boolean apply(String tripId);
+    }
+
+    private record Result(int applied, int failures, double throughputPerSec, double p50Ms, double p99Ms) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.FailedEvent;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.repository.FailedEventRepository;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 임베디드 Kafka로 기존 방식(같은 첫 페이지 재조회 + 건별 send().get())과
+// 키셋 페이징 + 비동기 전송(동시 전송 상한) 방식의 DLT 재발행 처리량 비교
+@Tag("benchmark")
+@DataJpaTest
+@EmbeddedKafka(partitions = 6, topics = FailedEventReplayBenchmarkTest.TOPIC)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FailedEventReplayBenchmarkTest {
+
+    static final String TOPIC = "payment_events_replay_benchmark";
+    private static final int EVENTS = 20_000;
+    private static final int KEYS = 2_000;
+
+    @Autowired
+    private FailedEventRepository failedEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    @DisplayName("키셋 페이징 + 비동기 재발행은 건별 동기 재발행보다 처리량이 높고 모든 이벤트를 RESOLVED 로 만든다")
+    void compareAsyncReplayWithSerialReplay() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        KafkaTemplate<String, String> kafkaTemplate = kafkaTemplate();
+        kafkaTemplate.send(TOPIC, "warmup", "{}").join();
+
+        double serial = run("serial", tx, () -> replaySerially(tx, kafkaTemplate));
+        FailedEventReplayService service = new FailedEventReplayService(failedEventRepository, kafkaTemplate, tx, 1000, 1000, 0);
+        double async = run("keyset-async", tx, () -> service.retryAllByTopic(TOPIC));
+
+        assertThat(async).isGreaterThan(serial);
+    }
+
+    private double run(String mode, TransactionTemplate tx, Runnable replay) {
+        seed(tx);
+        long start = System.nanoTime();
+        replay.run();
+        double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long pending = failedEventRepository.findAll().stream().filter(event -> event.getStatus() == FailedEventStatus.PENDING).count();
+        assertThat(pending).isZero();
+
+        double throughput = EVENTS / elapsedSec;
+        System.out.printf("[%s] events=%d, elapsed=%.2fs, throughput=%.0f events/s (1M 건 환산 %.1f분)%n",
+                mode, EVENTS, elapsedSec, throughput, 1_000_000 / throughput / 60);
+        failedEventRepository.deleteAllInBatch();
+        return throughput;
+    }
+
+    // 변경 전 retryAllByTopic 과 같은 흐름 (첫 페이지 재조회 + 건별 전송 대기)
+    private void replaySerially(TransactionTemplate tx, KafkaTemplate<String, String> kafkaTemplate) {
+        while (true) {
+            List<FailedEvent> events = tx.execute(status -> failedEventRepository.findReplayChunk(
+                    TOPIC, FailedEventStatus.PENDING, 0, Limit.of(1000)));
+            if (events.isEmpty()) break;
+
+            List<Long> successIds = new ArrayList<>();
+            for (FailedEvent event : events) {
+                try {
+                    kafkaTemplate.send(event.getTopic(), event.getKafkaKey(), event.getPayload()).get();
+                    successIds.add(event.getId());
+                } catch (Exception e) {
+                    // 실패 건은 다음 루프에서 다시 읽힘
+                }
+            }
+            if (successIds.isEmpty()) break;
+            tx.execute(status -> {
+                failedEventRepository.updateStatus(successIds, FailedEventStatus.RESOLVED);
+                return null;
+            });
+        }
+    }
+
+    private void seed(TransactionTemplate tx) {
+        tx.execute(status -> {
+            List<FailedEvent> events = new ArrayList<>();
+            for (int i = 0; i < EVENTS; i++) {
+                events.add(FailedEvent.builder()
+                                      .topic(TOPIC)
+                                      .kafkaKey("trip-" + (i % KEYS))
+                                      .payload("{\"tripId\":\"trip-" + (i % KEYS) + "\",\"seq\":" + i + "}")
+                                      .errorMessage("error")
+                                      .build());
+            }
+            failedEventRepository.saveAll(events);
+            return null;
+        });
+    }
+
+    // application.yml 의 프로듀서 설정과 같은 배치/멱등성 옵션
+    private KafkaTemplate<String, String> kafkaTemplate() {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.LINGER_MS_CONFIG, 10,
+                ProducerConfig.BATCH_SIZE_CONFIG, 130000);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.FailedEvent;
+import com.example.trip_service.entity.FailedEventReplayJob;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.entity.ReplayJobStatus;
+import com.example.trip_service.repository.FailedEventReplayJobRepository;
+import com.example.trip_service.repository.FailedEventReplayLockStore;
+import com.example.trip_service.repository.FailedEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FailedEventReplayJobServiceTest {
+
+    private static final String TOPIC = "payment_events.DLT";
+
+    @Autowired
+    private FailedEventRepository failedEventRepository;
+
+    @Autowired
+    private FailedEventReplayJobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final List<String> sentPayloads = new CopyOnWriteArrayList<>();
+    private final InMemoryLockStore lockStore = new InMemoryLockStore();
+
+    @AfterEach
+    void tearDown() {
+        failedEventRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("같은 토픽의 재발행 요청은 진행 중인 작업을 돌려주고, 취소된 뒤에는 새 작업을 만든다")
+    void submitIsSingleFlightPerTopic() {
+        lockStore.tryAcquire(TOPIC, "other-pod", Duration.ofMinutes(1)); // 다른 인스턴스가 실행 중
+        FailedEventReplayJobService service = service();
+
+        FailedEventReplayJob first = service.submit(TOPIC);
+        FailedEventReplayJob second = service.submit(TOPIC);
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+
+        service.cancel(first.getId());
+        FailedEventReplayJob next = service.submit(TOPIC);
+
+        assertThat(next.getId()).isNotEqualTo(first.getId());
+        assertThat(jobRepository.findById(first.getId()).orElseThrow().getStatus()).isEqualTo(ReplayJobStatus.CANCELED);
+    }
+
+    @Test
+    @DisplayName("저장된 커서부터 이어서 재발행하고, 커서 이전에 실패한 key 의 뒤 이벤트는 보내지 않는다")
+    void resumesFromPersistedCursor() {
+        List<FailedEvent> saved = failedEventRepository.saveAll(List.of(
+                event("trip-a", "a1"),
+                event("trip-b", "b1"),
+                event("trip-a", "a2"),
+                event("trip-b", "b2"),
+                event("trip-c", "c1")));
+        long cursor = saved.get(1).getId();
+        // 재시작 전 실행: a1 실패(PENDING), b1 성공(RESOLVED), 커서는 b1
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                failedEventRepository.updateStatus(List.of(saved.get(1).getId()), FailedEventStatus.RESOLVED));
+        FailedEventReplayJob job = jobRepository.save(FailedEventReplayJob.builder().topic(TOPIC).build());
+        jobRepository.recordProgress(job.getId(), cursor, 1, 1, 0);
+
+        service().run(job.getId());
+
+        assertThat(sentPayloads).containsExactlyInAnyOrder("b2", "c1");
+        Map<String, FailedEventStatus> statuses = statuses();
+        assertThat(statuses).containsEntry("a1", FailedEventStatus.PENDING)
+                            .containsEntry("a2", FailedEventStatus.PENDING)
+                            .containsEntry("b2", FailedEventStatus.RESOLVED)
+                            .containsEntry("c1", FailedEventStatus.RESOLVED);
+
+        FailedEventReplayJob finished = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(ReplayJobStatus.COMPLETED);
+        assertThat(finished.getActiveTopic()).isNull();
+        assertThat(finished.getLastEventId()).isEqualTo(saved.get(4).getId());
+        assertThat(finished.getProcessedCount()).isEqualTo(3);
+        assertThat(finished.getFailedCount()).isEqualTo(2);
+        assertThat(lockStore.owners).isEmpty();
+    }
+
+    @Test
+    @DisplayName("일시 정지된 작업은 재발행하지 않고, 재개하면 끝까지 재발행한다")
+    void pauseAndResume() {
+        failedEventRepository.saveAll(List.of(event("trip-a", "a1"), event("trip-b", "b1")));
+        FailedEventReplayJobService service = service();
+        FailedEventReplayJob job = jobRepository.save(FailedEventReplayJob.builder().topic(TOPIC).build());
+
+        service.pause(job.getId());
+        service.run(job.getId());
+        assertThat(sentPayloads).isEmpty();
+
+        service.resume(job.getId());
+        service.run(job.getId()); // 비동기 실행과 겹치면 잠금을 못 잡고 바로 돌아옴
+
+        await(() -> service.get(job.getId()).getStatus() == ReplayJobStatus.COMPLETED);
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1", "b1");
+        assertThat(service.get(job.getId()).getProcessedCount()).isEqualTo(1);
+        assertThat(service.get(job.getId()).getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("청크 전송 결과를 기다리는 동안에도 잠금을 연장한다")
+    void renewsLockWhileAwaitingSends() {
+        failedEventRepository.saveAll(List.of(event("trip-a", "slow"), event("trip-b", "b1")));
+        FailedEventReplayJob job = jobRepository.save(FailedEventReplayJob.builder().topic(TOPIC).build());
+
+        service(Duration.ofMillis(150)).run(job.getId());
+
+        // 청크 전 연장(2회) 외에 전송 대기(약 600ms) 동안 50ms 마다 연장
+        assertThat(lockStore.renewals.get()).isGreaterThanOrEqualTo(6);
+        assertThat(jobRepository.findById(job.getId()).orElseThrow().getStatus()).isEqualTo(ReplayJobStatus.COMPLETED);
+        assertThat(statuses()).containsEntry("slow", FailedEventStatus.RESOLVED);
+    }
+
+    @Test
+    @DisplayName("청크 전송 중 스레드가 중단되면 보낸 건까지만 커서를 옮기고 RUNNING 으로 남겨, 이어서 실행할 때 못 보낸 건부터 보낸다")
+    void interruptedChunkKeepsUnsentTailForResume() {
+        List<FailedEvent> saved = failedEventRepository.saveAll(List.of(
+                event("trip-a", "a1"),
+                event("trip-b", "b1"),
+                event("trip-c", "interrupt"),
+                event("trip-d", "d1"),
+                event("trip-e", "e1")));
+        FailedEventReplayJobService service = service();
+        FailedEventReplayJob job = jobRepository.save(FailedEventReplayJob.builder().topic(TOPIC).build());
+
+        try {
+            service.run(job.getId());
+        } finally {
+            Thread.interrupted();
+        }
+
+        // 두 번째 청크(interrupt, d1)에서 중단 -> d1 이후는 보내지도, 커서에 포함되지도 않음
+        FailedEventReplayJob interrupted = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1", "b1", "interrupt");
+        assertThat(interrupted.getStatus()).isEqualTo(ReplayJobStatus.RUNNING);
+        assertThat(interrupted.getLastEventId()).isEqualTo(saved.get(2).getId());
+        assertThat(statuses()).containsEntry("d1", FailedEventStatus.PENDING)
+                              .containsEntry("e1", FailedEventStatus.PENDING);
+
+        service.run(job.getId());
+
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1", "b1", "interrupt", "d1", "e1");
+        assertThat(jobRepository.findById(job.getId()).orElseThrow().getStatus()).isEqualTo(ReplayJobStatus.COMPLETED);
+        assertThat(statuses()).containsEntry("d1", FailedEventStatus.RESOLVED)
+                              .containsEntry("e1", FailedEventStatus.RESOLVED);
+    }
+
+    private FailedEventReplayJobService service() {
+        return service(Duration.ofMinutes(1));
+    }
+
+    private FailedEventReplayJobService service(Duration lockTtl) {
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> send(invocation.getArgument(2)));
+        FailedEventReplayService replayService = new FailedEventReplayService(failedEventRepository, kafkaTemplate,
+                new TransactionTemplate(transactionManager), 2, 2, 0);
+        return new FailedEventReplayJobService(replayService, jobRepository, failedEventRepository, lockStore,
+                "test", lockTtl);
+    }
+
+    private CompletableFuture<Object> send(String payload) {
+        sentPayloads.add(payload);
+        return switch (payload) {
+            case "a1" -> CompletableFuture.failedFuture(new RuntimeException("broker down"));
+            case "slow" -> CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(600, TimeUnit.MILLISECONDS));
+            case "interrupt" -> {
+                Thread.currentThread().interrupt(); // 전송 직후 실행 스레드 중단 (파드 종료 등)
+                yield CompletableFuture.completedFuture(null);
+            }
+            default -> CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private Map<String, FailedEventStatus> statuses() {
+        Map<String, FailedEventStatus> statuses = new ConcurrentHashMap<>();
+        failedEventRepository.findAll().forEach(event -> statuses.put(event.getPayload(), event.getStatus()));
+        return statuses;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("작업 완료 대기 시간 초과").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static FailedEvent event(String key, String payload) {
+        return FailedEvent.builder().topic(TOPIC).kafkaKey(key).payload(payload).errorMessage("error").build();
+    }
+
+    // Redis 대신 테스트용 (만료는 보지 않음)
+    private static class InMemoryLockStore implements FailedEventReplayLockStore {
+
+        private final Map<String, String> owners = new ConcurrentHashMap<>();
+        private final AtomicInteger renewals = new AtomicInteger();
+
+        @Override
+        public boolean tryAcquire(String topic, String owner, Duration ttl) {
+            return owners.putIfAbsent(topic, owner) == null;
+        }
+
+        @Override
+        public boolean renew(String topic, String owner, Duration ttl) {
+            renewals.incrementAndGet();
+            return owner.equals(owners.get(topic));
+        }
+
+        @Override
+        public void release(String topic, String owner) {
+            owners.remove(topic, owner);
+        }
+    }
+}
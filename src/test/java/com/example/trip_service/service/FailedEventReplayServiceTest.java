@@ -0,0 +1,106 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.FailedEvent;
+import com.example.trip_service.entity.FailedEventStatus;
+import com.example.trip_service.repository.FailedEventRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FailedEventReplayServiceTest {
+
+    private static final String TOPIC = "payment_events.DLT";
+
+    @Autowired
+    private FailedEventRepository failedEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final List<String> sentPayloads = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("계속 실패하는 이벤트가 있어도 id 순으로 끝까지 재발행하고, 실패한 key 의 뒤 이벤트는 보내지 않고 PENDING 으로 남긴다")
+    void replaysPastFailuresAndKeepsPerKeyOrder() {
+        failedEventRepository.deleteAll();
+        List<FailedEvent> saved = failedEventRepository.saveAll(List.of(
+                event("trip-a", "a1-fail"),
+                event("trip-b", "b1"),
+                event("trip-a", "a2"),
+                event(null, "n1"),
+                event("trip-b", "b2"),
+                event("trip-a", "a3"),
+                event("trip-c", "c1")));
+
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> send(invocation.getArgument(2)));
+        when(kafkaTemplate.send(anyString(), anyString())).thenAnswer(invocation -> send(invocation.getArgument(1)));
+
+        // 청크 2건: 첫 청크(a1-fail, b1) 이후에도 키셋으로 다음 청크를 이어서 읽음
+        FailedEventReplayService service = new FailedEventReplayService(failedEventRepository, kafkaTemplate,
+                new TransactionTemplate(transactionManager), 2, 2, 0);
+
+        int replayed = service.retryAllByTopic(TOPIC);
+
+        assertThat(replayed).isEqualTo(4);
+        assertThat(sentPayloads).containsExactlyInAnyOrder("a1-fail", "b1", "n1", "b2", "c1");
+        assertThat(sentPayloads.indexOf("b1")).isLessThan(sentPayloads.indexOf("b2"));
+
+        Map<String, FailedEventStatus> statuses = failedEventRepository.findAllById(saved.stream().map(FailedEvent::getId).toList())
+                                                                       .stream()
+                                                                       .collect(Collectors.toMap(FailedEvent::getPayload, FailedEvent::getStatus));
+        assertThat(statuses).containsEntry("a1-fail", FailedEventStatus.PENDING)
+                            .containsEntry("a2", FailedEventStatus.PENDING)
+                            .containsEntry("a3", FailedEventStatus.PENDING)
+                            .containsEntry("b1", FailedEventStatus.RESOLVED)
+                            .containsEntry("b2", FailedEventStatus.RESOLVED)
+                            .containsEntry("n1", FailedEventStatus.RESOLVED)
+                            .containsEntry("c1", FailedEventStatus.RESOLVED);
+    }
+
+    @Test
+    @DisplayName("토큰 버킷은 1초치 버스트 이후 초당 설정 속도로만 허용한다")
+    void tokenBucketLimitsRate() throws Exception {
+        FailedEventReplayService.TokenBucket bucket = new FailedEventReplayService.TokenBucket(200);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 300; i++) {
+            bucket.acquire();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // 버스트 200 + 나머지 100 은 0.5초에 걸쳐 허용
+        assertThat(elapsedMs).isBetween(400L, 1500L);
+    }
+
+    private CompletableFuture<Object> send(String payload) {
+        sentPayloads.add(payload);
+        return payload.endsWith("-fail")
+                ? CompletableFuture.failedFuture(new RuntimeException("broker down"))
+                : CompletableFuture.completedFuture(null);
+    }
+
+    private static FailedEvent event(String key, String payload) {
+        return FailedEvent.builder().topic(TOPIC).kafkaKey(key).payload(payload).errorMessage("error").build();
+    }
+}
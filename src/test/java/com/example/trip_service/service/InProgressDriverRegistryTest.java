@@ -0,0 +1,88 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.repository.TripRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class InProgressDriverRegistryTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private TripRepository tripRepository;
+
+    private InProgressDriverRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InProgressDriverRegistry(redisTemplate, tripRepository, new SimpleMeterRegistry(), 60000);
+    }
+
+    @Test
+    @DisplayName("보정이 완료된 상태면 SMISMEMBER 한 번으로 답하고 DB는 조회하지 않는다")
+    void answersFromRedisSetWhenSynced() {
+        given(redisTemplate.hasKey("drivers:in-progress:synced")).willReturn(true);
+        given(redisTemplate.opsForSet()).willReturn(setOperations);
+        given(setOperations.isMember(eq("drivers:in-progress"), any(Object[].class)))
+                .willReturn(Map.of("d1", true, "d2", false));
+
+        Map<String, Boolean> result = registry.areInProgress(List.of("d1", "d2"));
+
+        assertThat(result).containsEntry("d1", true).containsEntry("d2", false);
+        verify(tripRepository, never()).findDriverIdsByDriverIdInAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("보정 마커가 없으면(콜드 스타트/보정 중단) Redis 집합을 믿지 않고 DB로 일괄 조회한다")
+    void fallsBackToDbWhenNotSynced() {
+        given(redisTemplate.hasKey("drivers:in-progress:synced")).willReturn(false);
+        given(tripRepository.findDriverIdsByDriverIdInAndStatus(List.of("d1", "d2"), TripStatus.IN_PROGRESS))
+                .willReturn(List.of("d2"));
+
+        Map<String, Boolean> result = registry.areInProgress(List.of("d1", "d2"));
+
+        assertThat(result).containsEntry("d1", false).containsEntry("d2", true);
+    }
+
+    @Test
+    @DisplayName("보정: DB에만 있는 기사는 추가, Redis에만 남은 기사는 제거하고 동기화 마커를 갱신한다")
+    void reconcileAddsMissingAndRemovesStale() {
+        given(redisTemplate.opsForSet()).willReturn(setOperations);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(setOperations.members("drivers:in-progress")).willReturn(Set.of("d1", "stale"));
+        given(tripRepository.findDriverIdsByStatus(TripStatus.IN_PROGRESS)).willReturn(List.of("d1", "missing"));
+
+        registry.reconcile();
+
+        verify(setOperations).add("drivers:in-progress", "missing");
+        verify(setOperations).remove("drivers:in-progress", "stale");
+        verify(valueOperations).set(eq("drivers:in-progress:synced"), anyString(), eq(Duration.ofMinutes(3)));
+    }
+}
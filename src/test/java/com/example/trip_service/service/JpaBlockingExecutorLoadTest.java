@@ -0,0 +1,78 @@
+package com.example.trip_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 블로킹 JDBC 대기를 sleep으로 흉내 내어 실행 모드별 스레드 수/처리량 비교
+@Tag("benchmark")
+class JpaBlockingExecutorLoadTest {
+
+    private static final int TASKS = 3000;
+    private static final int IN_FLIGHT = 256;       // TripMatchedReactiveConsumer 동시 처리 수
+    private static final int POOL_LIMIT = 200;      // 커넥션 풀 기반 동시성 한도
+    private static final long DB_LATENCY_MS = 10;
+
+    @Test
+    @DisplayName("가상 스레드 모드는 더 적은 플랫폼 스레드로 같은 동시성 한도 안에서 처리한다")
+    void compareVirtualThreadsWithBoundedElastic() {
+        // boundedElastic 스레드는 TTL 동안 살아있으므로 가상 스레드 모드를 먼저 측정
+        Scheduler virtual = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jpa-virtual");
+        Result virtualResult = run("virtual-thread", virtual);
+        virtual.dispose();
+
+        Scheduler boundedElastic = Schedulers.newBoundedElastic(
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jpa-elastic");
+        Result elasticResult = run("bounded-elastic", boundedElastic);
+        boundedElastic.dispose();
+
+        assertThat(virtualResult.maxObservedConcurrency()).isLessThanOrEqualTo(POOL_LIMIT);
+        assertThat(elasticResult.maxObservedConcurrency()).isLessThanOrEqualTo(POOL_LIMIT);
+        assertThat(virtualResult.peakPlatformThreads()).isLessThanOrEqualTo(elasticResult.peakPlatformThreads());
+    }
+
+    private Result run(String mode, Scheduler scheduler) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        JpaBlockingExecutor executor = new JpaBlockingExecutor(scheduler, POOL_LIMIT, new SimpleMeterRegistry());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        threads.resetPeakThreadCount();
+        long start = System.nanoTime();
+
+        Flux.range(0, TASKS)
+            .flatMap(i -> executor.call(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(DB_LATENCY_MS);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return i;
+            }), IN_FLIGHT)
+            .blockLast(Duration.ofMinutes(2));
+
+        double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+        Result result = new Result(threads.getPeakThreadCount(), maxRunning.get(), TASKS / elapsedSec);
+
+        System.out.printf("[%s] peak platform threads=%d, max concurrent DB tasks=%d, throughput=%.0f tasks/s%n",
+                mode, result.peakPlatformThreads(), result.maxObservedConcurrency(), result.throughputPerSec());
+        return result;
+    }
+
+    private record Result(int peakPlatformThreads, int maxObservedConcurrency, double throughputPerSec) {
+    }
+}
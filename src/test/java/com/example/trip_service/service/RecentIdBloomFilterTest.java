@@ -0,0 +1,45 @@
+package com.example.trip_service.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentIdBloomFilterTest {
+
+    @Test
+    @DisplayName("넣은 ID는 항상 있다고 답하고, 설정한 크기만큼 넣었을 때 오탐률은 설정값 근처에 머문다")
+    void falsePositiveRateStaysNearConfiguredProbability() {
+        int expectedInsertions = 20_000;
+        RecentIdBloomFilter filter = new RecentIdBloomFilter(expectedInsertions, 0.01, Duration.ofHours(1));
+
+        for (int i = 0; i < expectedInsertions; i++) {
+            filter.put("trip-" + i);
+        }
+        for (int i = 0; i < expectedInsertions; i++) {
+            assertThat(filter.mightContain("trip-" + i)).isTrue();
+        }
+
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("unseen-" + i)) falsePositives++;
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("회전 한 번 뒤에는 이전 세대에서 찾고, 두 번 회전하면 잊는다")
+    void forgetsIdsAfterTwoRotations() throws Exception {
+        RecentIdBloomFilter filter = new RecentIdBloomFilter(1000, 0.01, Duration.ofMillis(100));
+        filter.put("trip-1");
+
+        Thread.sleep(150);
+        assertThat(filter.mightContain("trip-1")).isTrue(); // 회전: current -> previous
+
+        Thread.sleep(150);
+        assertThat(filter.mightContain("trip-1")).isFalse(); // 다시 회전: previous 버림
+    }
+}
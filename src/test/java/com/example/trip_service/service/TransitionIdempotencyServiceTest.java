@@ -0,0 +1,177 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.exception.IdempotentReplayException;
+import com.example.trip_service.exception.TripStatusConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransitionIdempotencyServiceTest {
+
+    // Redis 문자열 키를 흉내 내는 인메모리 저장소 (TTL은 검증 대상이 아니므로 무시)
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+
+    private TransitionIdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(valueOps.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                           .when(valueOps).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+
+        idempotencyService = new TransitionIdempotencyService(redisTemplate, new ObjectMapper(), meterRegistry,
+                Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofMillis(10));
+    }
+
+    @Test
+    @DisplayName("같은 키 재요청은 전이를 다시 실행하지 않고 저장된 성공 결과로 응답한다")
+    void replaysStoredSuccess() {
+        boolean first = idempotencyService.execute("trip-1", "start", "key-1", "", executions::incrementAndGet);
+        boolean retry = idempotencyService.execute("trip-1", "start", "key-1", "", executions::incrementAndGet);
+
+        assertThat(first).isFalse();
+        assertThat(retry).isTrue();
+        assertThat(executions).hasValue(1);
+        assertThat(count("executed")).isEqualTo(1.0);
+        assertThat(count("replayed")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("첫 요청이 상태 충돌이었으면 재요청도 같은 409 메시지로 응답한다")
+    void replaysStoredConflict() {
+        Runnable conflicting = () -> {
+            executions.incrementAndGet();
+            throw new TripStatusConflictException("이미 취소된 여정");
+        };
+
+        assertThatThrownBy(() -> idempotencyService.execute("trip-1", "arrive", "key-1", "", conflicting))
+                .isInstanceOf(TripStatusConflictException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("trip-1", "arrive", "key-1", "", conflicting))
+                .isInstanceOfSatisfying(IdempotentReplayException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(e.getMessage()).isEqualTo("이미 취소된 여정");
+                });
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("처리 중인 같은 키의 동시 재요청은 첫 요청이 끝날 때까지 기다렸다가 그 결과로 응답한다")
+    void parksConcurrentDuplicateUntilFirstCompletes() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("trip-1", "complete", "key-1", "req", () -> {
+                    executions.incrementAndGet();
+                    firstStarted.countDown();
+                    await(releaseFirst);
+                }));
+        assertThat(firstStarted.await(2, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Boolean> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("trip-1", "complete", "key-1", "req", executions::incrementAndGet));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+
+        releaseFirst.countDown();
+
+        assertThat(first.get(2, TimeUnit.SECONDS)).isFalse();
+        assertThat(duplicate.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(executions).hasValue(1);
+        assertThat(count("parked_replayed")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("같은 키로 다른 요청 본문을 보내면 422로 거부한다")
+    void rejectsKeyReuseWithDifferentRequest() {
+        idempotencyService.execute("trip-1", "cancel", "key-1", "CancelTripRequest[canceledBy=USER]", executions::incrementAndGet);
+
+        assertThatThrownBy(() -> idempotencyService.execute("trip-1", "cancel", "key-1",
+                "CancelTripRequest[canceledBy=DRIVER]", executions::incrementAndGet))
+                .isInstanceOfSatisfying(IdempotentReplayException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("예상하지 못한 오류는 결과를 저장하지 않아 재요청이 다시 실행된다")
+    void unexpectedFailureReleasesKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("trip-1", "start", "key-1", "", () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("DB 연결 실패");
+        })).isInstanceOf(IllegalStateException.class);
+
+        boolean retry = idempotencyService.execute("trip-1", "start", "key-1", "", executions::incrementAndGet);
+
+        assertThat(retry).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("재요청의 결과 조회 중 Redis 장애가 나면 키 없이 전이를 실행한다")
+    void replayFallsBackWhenRedisReadFails() {
+        redis.put("trip:idempotency:trip-1:start:key-1", "{}"); // 다른 요청이 먼저 키를 선점
+        when(valueOps.get(anyString())).thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        boolean replayed = idempotencyService.execute("trip-1", "start", "key-1", "", executions::incrementAndGet);
+
+        assertThat(replayed).isFalse();
+        assertThat(executions).hasValue(1);
+        assertThat(count("unavailable")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("실패한 요청의 처리 중 표시를 지우다 Redis 장애가 나도 원래 예외를 던진다")
+    void releaseFailureKeepsOriginalException() {
+        when(redisTemplate.delete(anyString())).thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        assertThatThrownBy(() -> idempotencyService.execute("trip-1", "start", "key-1", "", () -> {
+            throw new IllegalStateException("DB 연결 실패");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("DB 연결 실패");
+        assertThat(count("failed")).isEqualTo(1.0);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("trip.transition.idempotency").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripDetailsSnapshot;
+import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.entity.TripTransition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TripDetailsReadModelTest {
+
+    private static final String TRIP_ID = "trip-rm-1";
+
+    // Redis 해시를 흉내 내는 인메모리 저장소. WRITE_IF_NEWER 스크립트와 같은 규칙을 원자적으로 적용
+    private final Map<String, Map<String, String>> redis = new HashMap<>();
+
+    private TripDetailsReadModel readModel;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            String version = invocation.getArgument(2);
+            String payload = invocation.getArgument(3);
+            synchronized (redis) {
+                Map<String, String> hash = redis.computeIfAbsent(key, k -> new HashMap<>());
+                String current = hash.get("version");
+                if (current != null && Long.parseLong(current) >= Long.parseLong(version)) {
+                    return 0L;
+                }
+                hash.put("version", version);
+                hash.put("payload", payload);
+                return 1L;
+            }
+        });
+        when(redisTemplate.opsForHash()).thenReturn(hashOps);
+        when(hashOps.multiGet(anyString(), anyList())).thenAnswer(invocation -> {
+            synchronized (redis) {
+                Map<String, String> hash = redis.getOrDefault(invocation.<String>getArgument(0), Map.of());
+                List<Object> values = new ArrayList<>();
+                invocation.<List<Object>>getArgument(1).forEach(field -> values.add(hash.get((String) field)));
+                return values;
+            }
+        });
+
+        readModel = new TripDetailsReadModel(
+                redisTemplate,
+                mock(ReactiveRedisTemplate.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry(),
+                true,
+                Duration.ofHours(1));
+    }
+
+    @RepeatedTest(20)
+    @DisplayName("동시 전이의 커밋 후 쓰기가 뒤섞여 도착해도 읽기 모델은 DB 최종 상태(최고 버전)와 같다")
+    void concurrentTransitionsConvergeToLatestCommittedState() throws Exception {
+        // DB 행을 흉내 냄: 조건부 UPDATE(현재 상태가 from에 포함될 때만 전이 + 버전 증가)
+        AtomicReference<TripDetailsRow> db = new AtomicReference<>(row(TripStatus.MATCHED, 0));
+        readModel.write(db.get());
+
+        List<TripTransition> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.addAll(List.of(TripTransition.ARRIVE, TripTransition.START, TripTransition.COMPLETE, TripTransition.CANCEL));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (TripTransition transition : requests) {
+            futures.add(pool.submit(() -> {
+                startGate.await();
+                TripDetailsRow current = db.get();
+                if (!transition.from().contains(current.status())) {
+                    return null; // 409 또는 중복 요청
+                }
+                TripDetailsRow next = row(transition.target(), current.version() + 1);
+                if (!db.compareAndSet(current, next)) {
+                    return null; // 다른 요청이 먼저 커밋 -> 갱신 행 수 0
+                }
+
+                // afterCommit 콜백이 실행되기까지의 지연이 요청마다 달라 쓰기 순서가 뒤섞임
+                Thread.sleep(ThreadLocalRandom.current().nextInt(0, 5));
+                readModel.write(next);
+                return null;
+            }));
+        }
+
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        TripDetailsSnapshot snapshot = readModel.find(TRIP_ID).orElseThrow();
+        assertThat(snapshot.version()).isEqualTo(db.get().version());
+        assertThat(snapshot.details().status()).isEqualTo(db.get().status());
+    }
+
+    private TripDetailsRow row(TripStatus status, long version) {
+        return new TripDetailsRow(
+                TRIP_ID, status, "서울역", "강남역", null,
+                LocalDateTime.of(2025, 1, 1, 12, 0), null, null,
+                "user-1", "홍길동", "driver-1", "김기사", "12가3456", "K5",
+                version);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.client.DriverServiceClient;
+import com.example.trip_service.client.NaverMapsClient;
+import com.example.trip_service.client.UserServiceClient;
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripEnrichment;
+import com.example.trip_service.entity.EnrichmentStatus;
+import com.example.trip_service.entity.Trip;
+import com.example.trip_service.kafka.dto.TripMatchedEvent;
+import com.example.trip_service.repository.TripMatchStore;
+import com.example.trip_service.repository.TripRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TripEnrichmentServiceTest {
+
+    private final NaverMapsClient naverMapsClient = mock(NaverMapsClient.class);
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+    private final DriverServiceClient driverServiceClient = mock(DriverServiceClient.class);
+    private final TripMatchStore matchStore = mock(TripMatchStore.class);
+    private final TripDetailsReadModel detailsReadModel = mock(TripDetailsReadModel.class);
+    private final TripRepository tripRepository = mock(TripRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TripEnrichmentService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.destroy();
+    }
+
+    @Test
+    @DisplayName("접수한 보강 작업은 외부 조회 결과로 여정을 UPDATE 하고 읽기 모델을 갱신한다")
+    void enrichesSubmittedTrip() {
+        givenExternalApisSucceed();
+        TripDetailsRow row = detailsRow("trip-1");
+        given(matchStore.applyEnrichment(eq("trip-1"), any())).willReturn(Mono.just(1));
+        given(matchStore.findDetails("trip-1")).willReturn(Mono.just(row));
+        given(detailsReadModel.writeAsync(row)).willReturn(Mono.empty());
+        service = service(10, 3);
+        service.run();
+
+        assertThat(service.submit(event("trip-1"))).isTrue();
+
+        verify(matchStore, timeout(2000)).applyEnrichment("trip-1",
+                new TripEnrichment("서울역", "서울역", "홍길동", "김기사", "쏘나타", "12가3456"));
+        verify(detailsReadModel, timeout(2000)).writeAsync(row);
+        await().atMost(Duration.ofSeconds(2)).until(() -> result("success") == 1);
+        assertThat(meterRegistry.get("trip.enrichment.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("보강이 실패하면 백오프 후 다시 시도하고, max-attempts 를 넘기면 포기한다")
+    void retriesThenGivesUp() {
+        givenExternalApisSucceed();
+        AtomicInteger attempts = new AtomicInteger();
+        given(matchStore.applyEnrichment(eq("trip-1"), any())).willAnswer(invocation -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("db down"));
+        });
+        service = service(10, 3);
+        service.run();
+
+        service.submit(event("trip-1"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> result("exhausted") == 1);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(result("retry")).isEqualTo(2);
+        assertThat(meterRegistry.get("trip.enrichment.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("한 번 실패한 보강은 재시도에서 성공하면 완료로 센다")
+    void succeedsOnRetry() {
+        givenExternalApisSucceed();
+        TripDetailsRow row = detailsRow("trip-1");
+        AtomicInteger attempts = new AtomicInteger();
+        given(matchStore.applyEnrichment(eq("trip-1"), any())).willAnswer(invocation ->
+                attempts.incrementAndGet() == 1 ? Mono.error(new IllegalStateException("db down")) : Mono.just(1));
+        given(matchStore.findDetails("trip-1")).willReturn(Mono.just(row));
+        given(detailsReadModel.writeAsync(row)).willReturn(Mono.empty());
+        service = service(10, 3);
+        service.run();
+
+        service.submit(event("trip-1"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> result("success") == 1);
+        assertThat(result("retry")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 작업을 버리고, 같은 여정을 두 번 넣어도 한 번만 큐에 들어간다")
+    void dropsWhenFullAndDeduplicates() {
+        service = service(1, 3); // 워커를 시작하지 않아 작업이 큐에 남아 있음
+
+        assertThat(service.submit(event("trip-1"))).isTrue();
+        assertThat(service.submit(event("trip-1"))).isTrue();
+        assertThat(service.submit(event("trip-2"))).isFalse();
+
+        assertThat(result("dropped")).isEqualTo(1);
+        assertThat(meterRegistry.get("trip.enrichment.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("재스캔은 PENDING 여정의 placeholder 좌표로 배차 이벤트를 복원해 다시 보강한다")
+    void rescanResubmitsPendingTrips() {
+        givenExternalApisSucceed();
+        TripDetailsRow row = detailsRow("trip-1");
+        given(matchStore.applyEnrichment(eq("trip-1"), any())).willReturn(Mono.just(1));
+        given(matchStore.findDetails("trip-1")).willReturn(Mono.just(row));
+        given(detailsReadModel.writeAsync(row)).willReturn(Mono.empty());
+        service = service(10, 3);
+        TripMatchedEvent original = event("trip-1");
+        Trip pendingTrip = Trip.builder()
+                               .tripId("trip-1").userId("user-1").driverId("driver-1")
+                               .originAddress(service.placeholder(original).originAddress())
+                               .destinationAddress(service.placeholder(original).destinationAddress())
+                               .matchedAt(original.matchedAt())
+                               .enrichmentStatus(EnrichmentStatus.PENDING)
+                               .build();
+        given(tripRepository.findByEnrichmentStatusAndMatchedAtBeforeOrderByMatchedAt(eq(EnrichmentStatus.PENDING), any(), any(Limit.class)))
+                .willReturn(List.of(pendingTrip));
+        service.run();
+
+        service.rescanPending();
+
+        verify(naverMapsClient, timeout(2000)).reverseGeocode(127.0276, 37.4979);
+        verify(naverMapsClient, timeout(2000)).reverseGeocode(126.9707, 37.5547);
+        verify(matchStore, timeout(2000)).applyEnrichment(eq("trip-1"), any());
+        assertThat(result("rescanned")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("큐에 자리가 없으면 재스캔은 DB 를 조회하지 않는다")
+    void rescanSkipsWhenQueueIsFull() {
+        service = service(1, 3);
+        service.submit(event("trip-1"));
+
+        service.rescanPending();
+
+        verify(tripRepository, never()).findByEnrichmentStatusAndMatchedAtBeforeOrderByMatchedAt(any(), any(), any());
+        verify(naverMapsClient, times(0)).reverseGeocode(anyDouble(), anyDouble());
+    }
+
+    private void givenExternalApisSucceed() {
+        given(naverMapsClient.reverseGeocode(anyDouble(), anyDouble())).willReturn(Mono.just("서울역"));
+        given(userServiceClient.getUserInfo(anyString())).willReturn(Mono.just(new UserServiceClient.InternalUserInfo("user-1", "홍길동")));
+        given(driverServiceClient.getDriverInfo(anyString())).willReturn(Mono.just(new DriverServiceClient.InternalDriverInfo(
+                "driver-1", "김기사", 4.9, new DriverServiceClient.InternalDriverInfo.VehicleInfo("12가3456", "쏘나타"))));
+    }
+
+    private TripEnrichmentService service(int queueCapacity, int maxAttempts) {
+        return new TripEnrichmentService(naverMapsClient, userServiceClient, driverServiceClient, matchStore, detailsReadModel,
+                tripRepository, meterRegistry, "persist-first", queueCapacity, 4, maxAttempts, Duration.ofMillis(10),
+                Duration.ofMinutes(2), 100);
+    }
+
+    private double result(String result) {
+        return meterRegistry.counter("trip.enrichment", "result", result).count();
+    }
+
+    private static TripMatchedEvent event(String tripId) {
+        return new TripMatchedEvent(tripId, "user-1", "driver-1",
+                new TripMatchedEvent.Location(127.0276, 37.4979),
+                new TripMatchedEvent.Location(126.9707, 37.5547),
+                LocalDateTime.now().minusMinutes(10));
+    }
+
+    private static TripDetailsRow detailsRow(String tripId) {
+        return new TripDetailsRow(tripId, null, "서울역", "서울역", null, LocalDateTime.now(), null, null,
+                "user-1", "홍길동", "driver-1", "김기사", "12가3456", "쏘나타", 1L);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.service.TripExportService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ./gradlew benchmark 로 실행. 100만 건을 추출하는 동안 힙 사용량이 건수에 비례해 늘지 않는지 확인
+// 데이터가 힙에 올라가지 않도록 파일 기반 H2를 쓰고, benchmark 태스크의 힙 상한(512m) 안에서 추출
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/benchmark-db/trip-export;MODE=MySQL;CACHE_SIZE=32768",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripExportBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SEED_CHUNK = 50_000;
+    private static final long HEAP_GROWTH_LIMIT_BYTES = 64L * 1024 * 1024;
+    private static final int SAMPLE_EVERY_BYTES = 4 * 1024 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("100만 건 추출 중 힙 증가량이 상한 이내로 유지된다")
+    void exportMillionRowsWithinHeapCap() throws Exception {
+        for (int first = 1; first <= ROWS; first += SEED_CHUNK) {
+            seed(first, first + SEED_CHUNK - 1);
+        }
+
+        TripExportService exportService = new TripExportService(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(), 1000, 31);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        for (Format format : Format.values()) {
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+            HeapSamplingOutputStream sink = new HeapSamplingOutputStream(memory, baseline);
+
+            long start = System.nanoTime();
+            long rows;
+            try (OutputStream gzip = new GZIPOutputStream(sink, 64 * 1024)) {
+                rows = exportService.export(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), format, gzip);
+            }
+            double elapsedSec = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("[%s] rows=%d, gzip bytes=%d, %.0f rows/s, peak heap growth=%dMB%n",
+                    format, rows, sink.written, rows / elapsedSec, sink.peakGrowth / (1024 * 1024));
+
+            assertThat(rows).isEqualTo(ROWS);
+            assertThat(sink.peakGrowth).isLessThan(HEAP_GROWTH_LIMIT_BYTES);
+        }
+    }
+
+    private void seed(int first, int last) {
+        jdbcTemplate.update("""
+                INSERT INTO trips (trip_id, user_id, driver_id, status, origin_address, destination_address, fare, matched_at, version)
+                SELECT 'trip-' || X, 'user-' || MOD(X, 10000), 'driver-' || MOD(X, 2000), 'COMPLETED',
+                       '서울시 중구 세종대로 ' || X, '서울시 강남구 테헤란로 ' || X, 10000 + MOD(X, 20000),
+                       DATEADD('SECOND', X, TIMESTAMP '2025-01-01 00:00:00'), 0
+                  FROM SYSTEM_RANGE(?, ?)
+                """, first, last);
+    }
+
+    // 전송된 바이트는 버리고, 일정량마다 GC 후 힙 사용량을 측정하여 살아있는 객체 증가분만 기록
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private final MemoryMXBean memory;
+        private final long baseline;
+        private long written;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+        private long peakGrowth;
+
+        HeapSamplingOutputStream(MemoryMXBean memory, long baseline) {
+            this.memory = memory;
+            this.baseline = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            written++;
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+            sample();
+        }
+
+        private void sample() {
+            if (written < nextSample) {
+                return;
+            }
+            nextSample += SAMPLE_EVERY_BYTES;
+            System.gc();
+            peakGrowth = Math.max(peakGrowth, memory.getHeapMemoryUsage().getUsed() - baseline);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.service.TripExportService.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class TripExportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TripExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TripExportService(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(), 100, 31);
+
+        insert("trip-1", "서울역, 1번 출구", LocalDateTime.of(2025, 1, 1, 9, 0), 15000);
+        insert("trip-2", "\"강남\"역", LocalDateTime.of(2025, 1, 1, 10, 0), null);
+        insert("trip-out", "범위 밖", LocalDateTime.of(2025, 1, 2, 0, 0), 9000);
+    }
+
+    @Test
+    @DisplayName("CSV 추출: 기간 내 여정만 matched_at 순으로 헤더와 함께 기록하고 구분자/따옴표를 이스케이프한다")
+    void exportCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2), Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("tripId,status,userId");
+        assertThat(lines[1]).isEqualTo("trip-1,COMPLETED,user-1,driver-1,\"서울역, 1번 출구\",강남역,15000,2025-01-01T09:00,,");
+        assertThat(lines[2]).contains("\"\"\"강남\"\"역\"").contains(",,2025-01-01T10:00");
+    }
+
+    @Test
+    @DisplayName("NDJSON 추출: 한 줄에 여정 하나씩 기록한다")
+    void exportNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2), Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("tripId").asText()).isEqualTo("trip-1");
+        assertThat(first.get("fare").asInt()).isEqualTo(15000);
+        assertThat(first.get("matchedAt").asText()).isEqualTo("2025-01-01T09:00");
+        assertThat(new ObjectMapper().readTree(lines[1]).get("fare").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("추출 기간 검증: 역전된 기간이나 최대 일수를 넘는 기간은 거부한다")
+    void validateRange() {
+        assertThatThrownBy(() -> exportService.validateRange(LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 1)))
+                .isInstanceOf(InvalidTripQueryException.class);
+        assertThatThrownBy(() -> exportService.validateRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1)))
+                .isInstanceOf(InvalidTripQueryException.class);
+        assertThatThrownBy(() -> Format.parse("xml")).isInstanceOf(InvalidTripQueryException.class);
+    }
+
+    private void insert(String tripId, String origin, LocalDateTime matchedAt, Integer fare) {
+        jdbcTemplate.update("""
+                INSERT INTO trips (trip_id, user_id, driver_id, status, origin_address, destination_address, fare, matched_at, version)
+                VALUES (?, 'user-1', 'driver-1', 'COMPLETED', ?, '강남역', ?, ?, 0)
+                """, tripId, origin, fare, Timestamp.valueOf(matchedAt));
+    }
+}
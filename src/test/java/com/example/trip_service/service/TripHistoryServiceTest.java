@@ -0,0 +1,143 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.dto.TripHistoryResponse;
+import com.example.trip_service.dto.TripSummaryResponse;
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripHistoryServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TripHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new TripHistoryService(tripRepository);
+        jdbcTemplate.update("DELETE FROM trips");
+    }
+
+    @Test
+    @DisplayName("잘못된 cursor 는 InvalidTripQueryException(400)으로 거절한다")
+    void malformedCursorIsRejected() {
+        String notBase64 = "%%%";
+        String noSeparator = encode("2024-01-01T09:00");
+        String badId = encode("2024-01-01T09:00|abc");
+
+        for (String cursor : List.of(notBase64, noSeparator, badId)) {
+            assertThatThrownBy(() -> historyService.getHistory("user-1", null, cursor, 10))
+                    .isInstanceOf(InvalidTripQueryException.class)
+                    .hasMessage("잘못된 cursor 값입니다.");
+        }
+    }
+
+    @Test
+    @DisplayName("size 를 주지 않으면 기본 20건, 1~100 범위를 벗어나면 거절한다")
+    void pageSizeBounds() {
+        insertTrips("user-1", 120, 1);
+
+        assertThat(historyService.getHistory("user-1", null, null, null).trips()).hasSize(TripHistoryService.DEFAULT_PAGE_SIZE);
+        assertThat(historyService.getHistory("user-1", null, null, TripHistoryService.MAX_PAGE_SIZE).trips())
+                .hasSize(TripHistoryService.MAX_PAGE_SIZE);
+        assertThat(historyService.getHistory("user-1", null, null, 1).trips()).hasSize(1);
+
+        for (int size : List.of(0, -1, TripHistoryService.MAX_PAGE_SIZE + 1)) {
+            assertThatThrownBy(() -> historyService.getHistory("user-1", null, null, size))
+                    .isInstanceOf(InvalidTripQueryException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("matched_at 이 같은 여정이 페이지 경계에 걸쳐도 id 순으로 누락/중복 없이 이어지고, 마지막 페이지는 nextCursor 가 없다")
+    void tiesOnMatchedAtAcrossPageBoundary() {
+        // 4건씩 같은 matched_at, 페이지 크기 3 -> 모든 페이지 경계가 같은 matched_at 그룹 한가운데에 걸림
+        List<String> expected = insertTrips("user-1", 10, 4);
+        insertTrips("user-2", 5, 4);
+
+        List<String> seen = new ArrayList<>();
+        List<TripHistoryResponse> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            TripHistoryResponse page = historyService.getHistory("user-1", null, cursor, 3);
+            pages.add(page);
+            page.trips().stream().map(TripSummaryResponse::tripId).forEach(seen::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected.reversed());
+        assertThat(pages).hasSize(4);
+        assertThat(pages.getLast().trips()).hasSize(1);
+        assertThat(pages.getLast().nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("남은 건수가 정확히 페이지 크기면 그 페이지가 마지막이고 nextCursor 가 없다")
+    void exactMultipleOfPageSizeEndsWithoutCursor() {
+        List<String> expected = insertDriverTrips("driver-1", 6);
+
+        TripHistoryResponse first = historyService.getHistory(null, "driver-1", null, 3);
+        TripHistoryResponse last = historyService.getHistory(null, "driver-1", first.nextCursor(), 3);
+
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(last.trips()).extracting(TripSummaryResponse::tripId).containsExactlyElementsOf(expected.reversed().subList(3, 6));
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    // 삽입 순서대로 id 와 matched_at 이 증가하므로 조회 결과는 반환 목록의 역순
+    private List<String> insertTrips(String userId, int count, int tiesPerMatchedAt) {
+        List<String> tripIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String tripId = userId + "-trip-" + i;
+            insert(tripId, userId, "driver-x", BASE.plusMinutes(i / tiesPerMatchedAt));
+            tripIds.add(tripId);
+        }
+        return tripIds;
+    }
+
+    private List<String> insertDriverTrips(String driverId, int count) {
+        List<String> tripIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String tripId = driverId + "-trip-" + i;
+            insert(tripId, "user-" + i, driverId, BASE.plusMinutes(i));
+            tripIds.add(tripId);
+        }
+        return tripIds;
+    }
+
+    private void insert(String tripId, String userId, String driverId, LocalDateTime matchedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO trips (trip_id, user_id, driver_id, status, origin_address, destination_address, fare, matched_at, version)
+                VALUES (?, ?, ?, 'COMPLETED', '서울역', '강남역', 15000, ?, 0)
+                """, tripId, userId, driverId, Timestamp.valueOf(matchedAt));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
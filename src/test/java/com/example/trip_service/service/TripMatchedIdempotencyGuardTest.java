@@ -0,0 +1,106 @@
+package com.example.trip_service.service;
+
+import com.example.trip_service.service.TripMatchedIdempotencyGuard.Verdict;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TripMatchedIdempotencyGuardTest {
+
+    @Mock
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TripMatchedIdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        guard = new TripMatchedIdempotencyGuard(reactiveRedisTemplate, meterRegistry, true, Duration.ofHours(24),
+                1000, 0.01, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("처음 본 tripId 는 Redis 마커를 잡으면 NEW 이고 DB 조회 생략 수를 센다")
+    void newTripIdAcquiresMarker() {
+        given(reactiveRedisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.setIfAbsent(eq("trip:matched:seen:trip-1"), eq("1"), any(Duration.class))).willReturn(Mono.just(true));
+
+        assertThat(guard.check("trip-1").block()).isEqualTo(Verdict.NEW);
+        assertThat(meterRegistry.counter("trip.matched.idempotency.db.lookup.avoided").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("다른 파드가 이미 마커를 남긴 tripId 는 MARKER_HIT, 같은 파드에서 다시 본 tripId 는 Redis 없이 FILTER_HIT")
+    void duplicateTripIdNeedsDbLookup() {
+        given(reactiveRedisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.setIfAbsent(eq("trip:matched:seen:trip-1"), eq("1"), any(Duration.class))).willReturn(Mono.just(false));
+
+        assertThat(guard.check("trip-1").block()).isEqualTo(Verdict.MARKER_HIT);
+        assertThat(guard.check("trip-1").block()).isEqualTo(Verdict.FILTER_HIT);
+
+        verify(valueOperations).setIfAbsent(eq("trip:matched:seen:trip-1"), eq("1"), any(Duration.class));
+        assertThat(meterRegistry.counter("trip.matched.idempotency.db.lookup.avoided").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Redis 장애나 빈 응답이면 UNAVAILABLE 로 DB 조회에 맡긴다")
+    void redisFailureFallsBackToDbLookup() {
+        given(reactiveRedisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.setIfAbsent(eq("trip:matched:seen:trip-1"), eq("1"), any(Duration.class)))
+                .willReturn(Mono.error(new RedisConnectionFailureException("redis down")));
+        given(valueOperations.setIfAbsent(eq("trip:matched:seen:trip-2"), eq("1"), any(Duration.class))).willReturn(Mono.empty());
+
+        assertThat(guard.check("trip-1").block()).isEqualTo(Verdict.UNAVAILABLE);
+        assertThat(guard.check("trip-2").block()).isEqualTo(Verdict.UNAVAILABLE);
+        assertThat(meterRegistry.counter("trip.matched.idempotency.db.lookup.avoided").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("가드를 끄면 Redis 를 호출하지 않고 UNAVAILABLE")
+    void disabledGuardSkipsRedis() {
+        TripMatchedIdempotencyGuard disabled = new TripMatchedIdempotencyGuard(reactiveRedisTemplate, meterRegistry, false,
+                Duration.ofHours(24), 1000, 0.01, Duration.ofHours(1));
+
+        assertThat(disabled.check("trip-1").block()).isEqualTo(Verdict.UNAVAILABLE);
+        verify(reactiveRedisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    @DisplayName("중복 가능 판정 뒤 DB 조회 결과를 source/outcome 별로 센다")
+    void recordsLookupOutcomeBySource() {
+        guard.recordLookup(Verdict.FILTER_HIT, true);
+        guard.recordLookup(Verdict.FILTER_HIT, false);
+        guard.recordLookup(Verdict.FILTER_HIT, false);
+        guard.recordLookup(Verdict.MARKER_HIT, true);
+        guard.recordLookup(Verdict.UNAVAILABLE, true);
+
+        assertThat(positive("filter", "duplicate")).isEqualTo(1);
+        assertThat(positive("filter", "false_positive")).isEqualTo(2);
+        assertThat(positive("marker", "duplicate")).isEqualTo(1);
+        assertThat(positive("marker", "false_positive")).isZero();
+    }
+
+    private double positive(String source, String outcome) {
+        return meterRegistry.counter("trip.matched.idempotency.positive", "source", source, "outcome", outcome).count();
+    }
+}
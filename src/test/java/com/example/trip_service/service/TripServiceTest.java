@@ -6,14 +6,23 @@ import com.example.trip_service.client.UserServiceClient;
 import com.example.trip_service.dto.CancelTripRequest;
 import com.example.trip_service.dto.CompleteTripRequest;
 import com.example.trip_service.dto.TripDetailsResponse;
+import com.example.trip_service.dto.TripDetailsRow;
+import com.example.trip_service.dto.TripDetailsSnapshot;
 import com.example.trip_service.entity.Trip;
 import com.example.trip_service.entity.TripOutbox;
 import com.example.trip_service.entity.TripStatus;
+import com.example.trip_service.entity.TripTransition;
+import com.example.trip_service.exception.InvalidTripQueryException;
+import com.example.trip_service.exception.TripNotFoundException;
 import com.example.trip_service.exception.TripStatusConflictException;
+import com.example.trip_service.kafka.OutboxDispatcher;
+import com.example.trip_service.kafka.OutboxPayloadCodec;
 import com.example.trip_service.repository.TripOutboxRepository;
 import com.example.trip_service.repository.TripRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,12 +35,18 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +62,9 @@ class TripServiceTest {
     @Mock
     private TripOutboxRepository outboxRepository;
 
+    @Mock
+    private OutboxDispatcher outboxDispatcher;
+
     @Mock
     private UserServiceClient userServiceClient;
     @Mock
@@ -58,9 +76,21 @@ class TripServiceTest {
     @Mock
     private NaverMapsClient naverMapsClient;
 
+    @Mock
+    private TripDetailsReadModel detailsReadModel;
+
+    @Mock
+    private InProgressDriverRegistry inProgressDriverRegistry;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
+    @Spy
+    private OutboxPayloadCodec outboxPayloadCodec = new OutboxPayloadCodec(objectMapper, "json", "none", 256, 3);
+
     @Test
     @DisplayName("기사 도착 처리 성공: 상태가 ARRIVED로 변경되고 Outbox에 이벤트가 저장된다")
     void driverArrived_Success() {
@@ -68,18 +98,21 @@ class TripServiceTest {
         String tripId = "test-trip-id";
         String userId = "user-uuid-101";
 
-        Trip matchedTrip = Trip.builder()
+        Trip arrivedTrip = Trip.builder()
                                .tripId(tripId)
                                .userId(userId)
                                .build();
+        ReflectionTestUtils.setField(arrivedTrip, "status", TripStatus.ARRIVED);
 
-        when(tripRepository.findByTripIdWithLock(tripId)).thenReturn(Optional.of(matchedTrip));
+        when(tripRepository.compareAndSetStatus(eq(tripId), eq(TripTransition.ARRIVE.from()), eq(TripStatus.ARRIVED), any()))
+                .thenReturn(1);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.of(arrivedTrip));
 
         // when
         tripService.driverArrived(tripId);
 
         // then
-        assertThat(matchedTrip.getStatus()).isEqualTo(TripStatus.ARRIVED);
+        verify(tripRepository).compareAndSetStatus(eq(tripId), eq(TripTransition.ARRIVE.from()), eq(TripStatus.ARRIVED), any(LocalDateTime.class));
 
         ArgumentCaptor<TripOutbox> captor = ArgumentCaptor.forClass(TripOutbox.class);
         verify(outboxRepository).save(captor.capture());
@@ -87,8 +120,8 @@ class TripServiceTest {
         TripOutbox savedOutbox = captor.getValue();
         assertThat(savedOutbox.getAggregateId()).isEqualTo(tripId);
 
-        assertThat(savedOutbox.getPayload()).contains(tripId);
-        assertThat(savedOutbox.getPayload()).contains(userId);
+        assertThat(outboxPayloadCodec.toWire(savedOutbox)).contains(tripId);
+        assertThat(outboxPayloadCodec.toWire(savedOutbox)).contains(userId);
     }
 
     @Test
@@ -98,24 +131,54 @@ class TripServiceTest {
         Trip inProgressTrip = Trip.builder().tripId(tripId).build();
         ReflectionTestUtils.setField(inProgressTrip, "status", TripStatus.IN_PROGRESS);
 
-        when(tripRepository.findByTripIdWithLock(tripId)).thenReturn(Optional.of(inProgressTrip));
+        when(tripRepository.compareAndSetStatus(eq(tripId), any(), eq(TripStatus.ARRIVED), any())).thenReturn(0);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.of(inProgressTrip));
 
         assertThrows(TripStatusConflictException.class, () -> tripService.driverArrived(tripId));
+        verify(outboxRepository, never()).save(any());
     }
 
     @Test
-    @DisplayName("운행 시작 처리 성공: 상태가 IN_PROGRESS로 변경되고 Outbox 저장")
-    void startTrip_Success() {
+    @DisplayName("기사 도착 중복 요청: 이미 ARRIVED면 Outbox 저장 없이 성공 처리")
+    void driverArrived_IdempotentRepeat() {
         String tripId = "test-trip-id";
         Trip arrivedTrip = Trip.builder().tripId(tripId).build();
         ReflectionTestUtils.setField(arrivedTrip, "status", TripStatus.ARRIVED);
 
-        when(tripRepository.findByTripIdWithLock(tripId)).thenReturn(Optional.of(arrivedTrip));
+        when(tripRepository.compareAndSetStatus(eq(tripId), any(), eq(TripStatus.ARRIVED), any())).thenReturn(0);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.of(arrivedTrip));
+
+        tripService.driverArrived(tripId);
+
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("기사 도착 처리 실패: 여정이 없으면 TripNotFoundException")
+    void driverArrived_Fail_NotFound() {
+        String tripId = "missing-trip-id";
+
+        when(tripRepository.compareAndSetStatus(eq(tripId), any(), eq(TripStatus.ARRIVED), any())).thenReturn(0);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.empty());
+
+        assertThrows(TripNotFoundException.class, () -> tripService.driverArrived(tripId));
+    }
+
+    @Test
+    @DisplayName("운행 시작 처리 성공: 상태가 IN_PROGRESS로 변경되고 Outbox 저장")
+    void startTrip_Success() {
+        String tripId = "test-trip-id";
+        Trip startedTrip = Trip.builder().tripId(tripId).driverId("driver-uuid-203").build();
+        ReflectionTestUtils.setField(startedTrip, "status", TripStatus.IN_PROGRESS);
+
+        when(tripRepository.compareAndSetStatusAndStartedAt(eq(tripId), eq(TripTransition.START.from()), eq(TripStatus.IN_PROGRESS), any()))
+                .thenReturn(1);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.of(startedTrip));
 
         tripService.startTrip(tripId);
 
-        assertThat(arrivedTrip.getStatus()).isEqualTo(TripStatus.IN_PROGRESS);
-        assertThat(arrivedTrip.getStartedAt()).isNotNull();
+        verify(tripRepository).compareAndSetStatusAndStartedAt(eq(tripId), any(), eq(TripStatus.IN_PROGRESS), any(LocalDateTime.class));
+        verify(inProgressDriverRegistry).markInProgress(startedTrip.getDriverId());
     }
 
     @Test
@@ -127,29 +190,33 @@ class TripServiceTest {
         String driverId = "driver-uuid-202";
         CompleteTripRequest request = new CompleteTripRequest(5000, 1200);
 
-        Trip inProgressTrip = Trip.builder()
-                                  .tripId(tripId)
-                                  .userId(userId)
-                                  .driverId(driverId)
-                                  .build();
-        ReflectionTestUtils.setField(inProgressTrip, "status", TripStatus.IN_PROGRESS);
+        Trip completedTrip = Trip.builder()
+                                 .tripId(tripId)
+                                 .userId(userId)
+                                 .driverId(driverId)
+                                 .build();
+        ReflectionTestUtils.setField(completedTrip, "status", TripStatus.PAYMENT_PENDING);
+        ReflectionTestUtils.setField(completedTrip, "endedAt", LocalDateTime.now());
 
-        given(tripRepository.findByTripIdWithLock(tripId)).willReturn(Optional.of(inProgressTrip));
+        given(tripRepository.compareAndSetStatusAndEndedAt(eq(tripId), eq(TripTransition.COMPLETE.from()), eq(TripStatus.PAYMENT_PENDING), any()))
+                .willReturn(1);
+        given(tripRepository.findByTripId(tripId)).willReturn(Optional.of(completedTrip));
 
         // when
         tripService.completeTrip(tripId, request);
 
         // then
-        assertThat(inProgressTrip.getStatus()).isEqualTo(TripStatus.PAYMENT_PENDING);
+        verify(tripRepository).compareAndSetStatusAndEndedAt(eq(tripId), eq(TripTransition.COMPLETE.from()), eq(TripStatus.PAYMENT_PENDING), any(LocalDateTime.class));
 
         ArgumentCaptor<TripOutbox> captor = ArgumentCaptor.forClass(TripOutbox.class);
         verify(outboxRepository).save(captor.capture());
 
         TripOutbox savedOutbox = captor.getValue();
         assertThat(savedOutbox.getAggregateId()).isEqualTo(tripId);
-        assertThat(savedOutbox.getPayload()).contains("5000");
+        assertThat(outboxPayloadCodec.toWire(savedOutbox)).contains("5000");
 
         verify(redisTemplate).delete(anyString());
+        verify(inProgressDriverRegistry).unmarkInProgress(driverId);
     }
 
     @Test
@@ -159,45 +226,68 @@ class TripServiceTest {
         String driverId = "driver-uuid-201";
         CancelTripRequest request = new CancelTripRequest("USER");
 
-        Trip inProgressTrip = Trip.builder().tripId(tripId).driverId(driverId).build();
-        ReflectionTestUtils.setField(inProgressTrip, "status", TripStatus.IN_PROGRESS);
+        Trip canceledTrip = Trip.builder().tripId(tripId).driverId(driverId).build();
+        ReflectionTestUtils.setField(canceledTrip, "status", TripStatus.CANCELED);
 
-        when(tripRepository.findByTripIdWithLock(tripId)).thenReturn(Optional.of(inProgressTrip));
+        when(tripRepository.compareAndSetStatus(eq(tripId), eq(TripTransition.CANCEL.from()), eq(TripStatus.CANCELED), any()))
+                .thenReturn(1);
+        when(tripRepository.findByTripId(tripId)).thenReturn(Optional.of(canceledTrip));
 
         tripService.cancelTrip(tripId, request);
 
-        assertThat(inProgressTrip.getStatus()).isEqualTo(TripStatus.CANCELED);
+        verify(tripRepository).compareAndSetStatus(eq(tripId), eq(TripTransition.CANCEL.from()), eq(TripStatus.CANCELED), any(LocalDateTime.class));
 
         ArgumentCaptor<TripOutbox> captor = ArgumentCaptor.forClass(TripOutbox.class);
         verify(outboxRepository).save(captor.capture());
 
-        assertThat(captor.getValue().getPayload()).contains("USER");
+        assertThat(outboxPayloadCodec.toWire(captor.getValue())).contains("USER");
     }
 
     @Test
-    @DisplayName("여정 상세 정보 조회 성공")
+    @DisplayName("여정 상세 정보 조회 성공: 락 없이 프로젝션 조회 결과로 응답을 만든다")
     void getTripDetails_Success() {
         String tripId = "test-trip-uuid-3";
-        Trip trip = Trip.builder()
-                        .tripId(tripId)
-                        .userId("user-101")
-                        .driverId("driver-201")
-                        .originAddress("서울")
-                        .destinationAddress("경기")
-                        .matchedAt(LocalDateTime.now())
-                        .userName("홍길동")
-                        .driverName("김기사")
-                        .vehicleModel("K5")
-                        .licensePlate("12가3456")
-                        .build();
-        ReflectionTestUtils.setField(trip, "status", TripStatus.IN_PROGRESS);
-        ReflectionTestUtils.setField(trip, "fare", 5000);
-
-        when(tripRepository.findByTripIdWithLock(tripId)).thenReturn(Optional.of(trip));
+        TripDetailsRow row = new TripDetailsRow(
+                tripId, TripStatus.IN_PROGRESS, "서울", "경기", 5000,
+                LocalDateTime.now(), LocalDateTime.now(), null,
+                "user-101", "홍길동", "driver-201", "김기사", "12가3456", "K5", 3L);
+
+        when(tripRepository.findDetailsByTripId(tripId)).thenReturn(Optional.of(row));
 
         TripDetailsResponse result = tripService.getTripDetails(tripId);
 
         assertThat(result.tripId()).isEqualTo(tripId);
         assertThat(result.status()).isEqualTo(TripStatus.IN_PROGRESS);
+        assertThat(result.driver().name()).isEqualTo("김기사");
+        verify(tripRepository, never()).findByTripId(anyString());
+    }
+
+    @Test
+    @DisplayName("여정 일괄 조회: 읽기 모델 히트는 그대로, 미스만 IN 쿼리로 조회하여 모두 내보낸다")
+    void streamTripDetails_CacheHitsAndDbMisses() {
+        TripDetailsResponse cached = TripDetailsResponse.builder().tripId("trip-1").status(TripStatus.MATCHED).build();
+        TripDetailsRow missRow = new TripDetailsRow(
+                "trip-2", TripStatus.ARRIVED, "서울", "경기", null,
+                LocalDateTime.now(), null, null,
+                "user-1", "홍길동", "driver-1", "김기사", "12가3456", "K5", 2L);
+
+        when(detailsReadModel.findAll(List.of("trip-1", "trip-2", "trip-3")))
+                .thenReturn(Map.of("trip-1", new TripDetailsSnapshot(cached, 1L)));
+        when(tripRepository.findDetailsByTripIdIn(List.of("trip-2", "trip-3"))).thenReturn(List.of(missRow));
+
+        List<String> streamed = new ArrayList<>();
+        tripService.streamTripDetails(List.of("trip-1", "trip-2", "trip-3"), details -> streamed.add(details.tripId()));
+
+        assertThat(streamed).containsExactly("trip-1", "trip-2");
+        verify(detailsReadModel).write(missRow);
+    }
+
+    @Test
+    @DisplayName("여정 일괄 조회: 최대 개수를 넘으면 InvalidTripQueryException")
+    void validateBatchGet_TooMany() {
+        ReflectionTestUtils.setField(tripService, "batchGetMaxSize", 2);
+
+        assertThat(tripService.validateBatchGet(List.of("a", "b", "a"))).containsExactly("a", "b");
+        assertThrows(InvalidTripQueryException.class, () -> tripService.validateBatchGet(List.of("a", "b", "c")));
     }
-}
\ No newline at end of file
+}